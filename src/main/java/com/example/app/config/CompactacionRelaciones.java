@@ -0,0 +1,70 @@
+package com.example.app.config;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Borra las filas repetidas de pictogramas_categoria (mismo usuario, pictograma y categoría)
+ * antes de crear la restricción única. De cada grupo se queda la relación añadida si la hay
+ * (eliminada = false, que es la que el usuario ve) y, entre iguales, la de menor id.
+ *
+ * Recorre la tabla por id en lotes: cada lote es una lectura sin bloqueos y un DELETE por
+ * clave primaria en su propia transacción, así que nunca se bloquean muchas filas a la vez.
+ */
+public class CompactacionRelaciones implements MigracionJava {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactacionRelaciones.class);
+
+    private static final String DUPLICADOS = """
+        SELECT d.id FROM pictogramas_categoria d
+        WHERE d.id > ?
+          AND EXISTS (
+              SELECT 1 FROM pictogramas_categoria k
+              WHERE k.pictograma_id = d.pictograma_id
+                AND k.categoria_id = d.categoria_id
+                AND (k.usuario_id = d.usuario_id OR (k.usuario_id IS NULL AND d.usuario_id IS NULL))
+                AND (k.eliminada < d.eliminada OR (k.eliminada = d.eliminada AND k.id < d.id)))
+        ORDER BY d.id
+        LIMIT ?
+        """;
+
+    private final int version;
+    private final int tamanoLote;
+
+    public CompactacionRelaciones(int version, int tamanoLote) {
+        this.version = version;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescripcion() {
+        return "compactar relaciones duplicadas";
+    }
+
+    @Override
+    public void migrar(JdbcTemplate jdbc) {
+        long ultimoId = 0;
+        long borradas = 0;
+
+        while (true) {
+            List<Long> ids = jdbc.queryForList(DUPLICADOS, Long.class, ultimoId, tamanoLote);
+            if (ids.isEmpty()) {
+                break;
+            }
+            String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            borradas += jdbc.update("DELETE FROM pictogramas_categoria WHERE id IN (" + marcadores + ")", ids.toArray());
+            ultimoId = ids.get(ids.size() - 1);
+        }
+
+        log.info("Compactación de pictogramas_categoria: {} filas repetidas borradas", borradas);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.app.config;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Convierte las relaciones copiadas a cada usuario en el registro en diferencias respecto al
+ * catálogo general. Tras la migración cada usuario ve lo mismo que antes:
+ *   * las relaciones generales que faltaban en su copia quedan marcadas como eliminadas
+ *   * las copias idénticas a una relación general se borran
+ *   * el resto de filas del usuario se mantienen como relaciones añadidas
+ *
+ * Se recorre usuario a usuario, cada uno en su propia transacción, para no bloquear la tabla
+ * entera ni acumular un único deshacer enorme. El índice (usuario_id, pictograma_id,
+ * categoria_id) se crea antes del recorrido para que cada comprobación sea una búsqueda por
+ * índice. Los pasos de cada usuario se pueden repetir sin duplicar nada.
+ *
+ * Un usuario sin ninguna fila en categorías generales no tiene copia que convertir y pasa a
+ * heredar el catálogo general. Es lo correcto para los registrados con Google, a los que nunca
+ * se les copió nada, pero no para quien vació a mano todas las categorías generales: como no
+ * se pueden distinguir, antes del recorrido se escriben en el log para revisarlos a mano.
+ */
+public class DiferenciasRelaciones implements MigracionJava {
+
+    private static final Logger log = LoggerFactory.getLogger(DiferenciasRelaciones.class);
+
+    private static final String TIENE_COPIA = """
+        EXISTS (
+            SELECT 1 FROM pictogramas_categoria x
+            JOIN categorias cx ON cx.id = x.categoria_id
+            WHERE x.usuario_id = u.id AND cx.usuario_id IS NULL)
+        """;
+
+    private static final String SIN_COPIA = """
+        SELECT u.id AS usuario_id, u.correo AS correo,
+               (SELECT COUNT(*) FROM pictogramas_categoria p WHERE p.usuario_id = u.id) AS relaciones_propias
+        FROM usuarios u
+        WHERE NOT %s
+        ORDER BY u.id
+        """.formatted(TIENE_COPIA);
+
+    private static final String CON_COPIA = """
+        SELECT u.id FROM usuarios u
+        WHERE u.id > ? AND %s
+        ORDER BY u.id
+        LIMIT ?
+        """.formatted(TIENE_COPIA);
+
+    // Relaciones generales que el usuario había quitado de su copia
+    private static final String MARCAR_QUITADAS = """
+        INSERT INTO pictogramas_categoria (usuario_id, pictograma_id, categoria_id, eliminada)
+        SELECT DISTINCT ?, g.pictograma_id, g.categoria_id, 1
+        FROM pictogramas_categoria g
+        WHERE g.usuario_id IS NULL
+          AND NOT EXISTS (
+              SELECT 1 FROM pictogramas_categoria c
+              WHERE c.usuario_id = ?
+                AND c.pictograma_id = g.pictograma_id
+                AND c.categoria_id = g.categoria_id)
+        """;
+
+    // Copias del usuario que coinciden con una relación general
+    private static final String COPIAS = """
+        SELECT c.id FROM pictogramas_categoria c
+        WHERE c.usuario_id = ?
+          AND c.eliminada = 0
+          AND EXISTS (
+              SELECT 1 FROM pictogramas_categoria g
+              WHERE g.usuario_id IS NULL
+                AND g.pictograma_id = c.pictograma_id
+                AND g.categoria_id = c.categoria_id)
+        """;
+
+    private final int version;
+    private final int tamanoLote;
+
+    public DiferenciasRelaciones(int version, int tamanoLote) {
+        this.version = version;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescripcion() {
+        return "relaciones como diferencias";
+    }
+
+    @Override
+    public void migrar(JdbcTemplate jdbc) {
+        jdbc.execute("ALTER TABLE pictogramas_categoria ADD COLUMN eliminada BIT(1) NOT NULL DEFAULT 0");
+        jdbc.execute("CREATE INDEX idx_pc_usuario_pictograma ON pictogramas_categoria (usuario_id, pictograma_id, categoria_id)");
+
+        jdbc.query(SIN_COPIA, rs -> {
+            log.warn("Migración V{}: usuario_id={}, correo={}, relaciones_propias={} no tiene relaciones en "
+                + "categorías generales y pasa a heredar el catálogo general",
+                version, rs.getLong("usuario_id"), rs.getString("correo"), rs.getLong("relaciones_propias"));
+        });
+
+        TransactionTemplate transaccion = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        long ultimoId = 0;
+        long usuarios = 0;
+        long marcadas = 0;
+        long borradas = 0;
+
+        while (true) {
+            List<Long> ids = jdbc.queryForList(CON_COPIA, Long.class, ultimoId, tamanoLote);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long usuarioId : ids) {
+                int[] cambios = transaccion.execute(estado -> convertir(jdbc, usuarioId));
+                marcadas += cambios[0];
+                borradas += cambios[1];
+            }
+            usuarios += ids.size();
+            ultimoId = ids.get(ids.size() - 1);
+        }
+
+        log.info("Relaciones como diferencias: {} usuarios con copia, {} relaciones generales marcadas como "
+            + "eliminadas, {} copias borradas", usuarios, marcadas, borradas);
+    }
+
+    /** Devuelve {relaciones marcadas como eliminadas, copias borradas}. */
+    private int[] convertir(JdbcTemplate jdbc, Long usuarioId) {
+        int marcadas = jdbc.update(MARCAR_QUITADAS, usuarioId, usuarioId);
+        int borradas = borrar(jdbc, jdbc.queryForList(COPIAS, Long.class, usuarioId));
+        return new int[] {marcadas, borradas};
+    }
+
+    private int borrar(JdbcTemplate jdbc, List<Long> ids) {
+        int borradas = 0;
+        for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + tamanoLote, ids.size()));
+            String marcadores = String.join(", ", Collections.nCopies(lote.size(), "?"));
+            borradas += jdbc.update("DELETE FROM pictogramas_categoria WHERE id IN (" + marcadores + ")", lote.toArray());
+        }
+        return borradas;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.app.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Migración escrita en Java para lo que no se puede hacer en un script SQL. Comparte la
+ * numeración con los scripts de db/migration y se aplica en el mismo orden.
+ */
+public interface MigracionJava {
+
+    int getVersion();
+
+    String getDescripcion();
+
+    void migrar(JdbcTemplate jdbc);
+}
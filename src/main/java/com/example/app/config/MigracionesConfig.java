@@ -0,0 +1,32 @@
+package com.example.app.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "esquema.migraciones.habilitado", havingValue = "true", matchIfMissing = true)
+public class MigracionesConfig {
+
+    @Bean
+    public MigracionesEsquema migracionesEsquema(DataSource dataSource,
+                                                 @Value("${esquema.migraciones.version-base:1}") int versionBase,
+                                                 @Value("${esquema.migraciones.lote-compactacion:1000}") int loteCompactacion,
+                                                 @Value("${esquema.migraciones.espera-bloqueo-s:3600}") int esperaBloqueoSegundos) {
+        return new MigracionesEsquema(dataSource, versionBase, esperaBloqueoSegundos, List.of(
+            new DiferenciasRelaciones(2, loteCompactacion),
+            new CompactacionRelaciones(7, loteCompactacion)));
+    }
+
+    // Hibernate valida el esquema al arrancar: las migraciones tienen que haberse aplicado antes
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependeDeMigraciones() {
+        return new EntityManagerFactoryDependsOnPostProcessor("migracionesEsquema");
+    }
+}
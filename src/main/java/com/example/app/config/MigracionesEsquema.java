@@ -0,0 +1,323 @@
+package com.example.app.config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Aplica al arrancar las migraciones versionadas de db/migration, con la misma convención de
+ * nombres que Flyway (V{versión}__{descripción}.sql). Las de db/migration/comun valen para
+ * cualquier base de datos; las de db/migration/{mysql,h2} cubren lo que cambia entre ellas
+ * (MySQL emula las secuencias con tablas). Lo que no cabe en un script, como borrar por
+ * lotes, va en una MigracionJava con su número de versión. Cada versión se ejecuta una sola
+ * vez y queda anotada en historial_esquema.
+ *
+ * Una base de datos creada antes con ddl-auto=update no tiene historial: se marca como ya
+ * migrada hasta versionBase y se aplica solo lo posterior. Las consultas SELECT de una
+ * migración (informes de datos que hay que revisar a mano) se escriben en el log.
+ *
+ * Toda la ejecución va dentro de un bloqueo de la base de datos (GET_LOCK en MySQL, una fila
+ * bloqueada con FOR UPDATE en H2), así que si arrancan varias réplicas a la vez solo una
+ * migra y las demás esperan a que termine. Cada versión se anota como en curso antes de
+ * ejecutarla: si falla, o el proceso muere a medias, queda sin marcar como aplicada y los
+ * siguientes arranques se niegan a migrar hasta que se revise a mano, en lugar de repetir un
+ * DDL que ya se aplicó en parte.
+ */
+public class MigracionesEsquema implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionesEsquema.class);
+
+    private static final Pattern NOMBRE = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String HISTORIAL = "historial_esquema";
+
+    private static final String BLOQUEO = "historial_esquema_bloqueo";
+
+    private static final String APLICADA = "aplicada";
+    private static final String EN_CURSO = "en curso";
+    private static final String FALLIDA = "fallida";
+
+    private final DataSource dataSource;
+    private final int versionBase;
+    private final int esperaBloqueoSegundos;
+    private final List<MigracionJava> migracionesJava;
+
+    public MigracionesEsquema(DataSource dataSource, int versionBase, int esperaBloqueoSegundos,
+                              List<MigracionJava> migracionesJava) {
+        this.dataSource = dataSource;
+        this.versionBase = versionBase;
+        this.esperaBloqueoSegundos = esperaBloqueoSegundos;
+        this.migracionesJava = migracionesJava;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        migrar();
+    }
+
+    public void migrar() throws SQLException, IOException {
+        String fabricante = fabricante();
+        TreeMap<Integer, Resource> scripts = buscarMigraciones(fabricante);
+        TreeMap<Integer, MigracionJava> java = new TreeMap<>();
+        for (MigracionJava migracion : migracionesJava) {
+            if (scripts.containsKey(migracion.getVersion()) || java.put(migracion.getVersion(), migracion) != null) {
+                throw new IllegalStateException("Versión de migración repetida: " + migracion.getVersion());
+            }
+        }
+
+        // El bloqueo pertenece a esta conexión: se mantiene abierta durante toda la ejecución
+        try (Connection bloqueo = dataSource.getConnection()) {
+            bloquear(bloqueo, fabricante);
+            try {
+                migrar(new JdbcTemplate(dataSource), scripts, java);
+            } finally {
+                desbloquear(bloqueo, fabricante);
+            }
+        }
+    }
+
+    private void migrar(JdbcTemplate jdbc, TreeMap<Integer, Resource> scripts, TreeMap<Integer, MigracionJava> java)
+            throws SQLException, IOException {
+        boolean existiaEsquema = existeTabla("usuarios");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + HISTORIAL + " ("
+            + "version INT NOT NULL PRIMARY KEY, "
+            + "descripcion VARCHAR(200) NOT NULL, "
+            + "aplicada_en TIMESTAMP NOT NULL, "
+            + "estado VARCHAR(20) NOT NULL DEFAULT '" + APLICADA + "')");
+        if (!existeColumna(HISTORIAL, "estado")) {
+            // Historial de antes de anotar el estado: todas sus filas se aplicaron enteras
+            jdbc.execute("ALTER TABLE " + HISTORIAL + " ADD COLUMN estado VARCHAR(20) NOT NULL DEFAULT '" + APLICADA + "'");
+        }
+
+        List<Map<String, Object>> sinTerminar = jdbc.queryForList(
+            "SELECT version, descripcion, estado FROM " + HISTORIAL + " WHERE estado <> ? ORDER BY version", APLICADA);
+        if (!sinTerminar.isEmpty()) {
+            throw new IllegalStateException("Migraciones sin terminar en " + HISTORIAL + ": " + sinTerminar
+                + ". Revisa el esquema a mano; después marca la fila como '" + APLICADA
+                + "' si se completó, o bórrala para que se vuelva a ejecutar");
+        }
+
+        List<Integer> aplicadas = jdbc.queryForList("SELECT version FROM " + HISTORIAL, Integer.class);
+        if (aplicadas.isEmpty() && existiaEsquema) {
+            log.info("Esquema existente sin historial: se toma como versión base {}", versionBase);
+            jdbc.update("INSERT INTO " + HISTORIAL + " (version, descripcion, aplicada_en, estado) VALUES (?, ?, CURRENT_TIMESTAMP, ?)",
+                versionBase, "<< base: esquema creado por ddl-auto >>", APLICADA);
+            aplicadas = List.of(versionBase);
+        }
+        int actual = aplicadas.stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        TreeSet<Integer> pendientes = new TreeSet<>(scripts.tailMap(actual, false).keySet());
+        pendientes.addAll(java.tailMap(actual, false).keySet());
+        for (int version : pendientes) {
+            MigracionJava migracion = java.get(version);
+            String descripcion = migracion != null ? migracion.getDescripcion() : descripcion(scripts.get(version));
+            log.info("Aplicando migración V{}: {}", version, descripcion);
+
+            jdbc.update("INSERT INTO " + HISTORIAL + " (version, descripcion, aplicada_en, estado) VALUES (?, ?, CURRENT_TIMESTAMP, ?)",
+                version, descripcion, EN_CURSO);
+            try {
+                if (migracion != null) {
+                    migracion.migrar(jdbc);
+                } else {
+                    aplicar(version, scripts.get(version));
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                jdbc.update("UPDATE " + HISTORIAL + " SET estado = ?, aplicada_en = CURRENT_TIMESTAMP WHERE version = ?",
+                    FALLIDA, version);
+                throw e;
+            }
+            jdbc.update("UPDATE " + HISTORIAL + " SET estado = ?, aplicada_en = CURRENT_TIMESTAMP WHERE version = ?",
+                APLICADA, version);
+        }
+    }
+
+    private void aplicar(int version, Resource script) throws SQLException, IOException {
+        String sql;
+        try (var lector = new InputStreamReader(script.getInputStream(), StandardCharsets.UTF_8)) {
+            sql = FileCopyUtils.copyToString(lector);
+        }
+
+        // En MySQL cada DDL hace commit implícito: una migración a medias hay que terminarla a mano
+        try (Connection conexion = dataSource.getConnection(); Statement st = conexion.createStatement()) {
+            for (String sentencia : sentencias(sql)) {
+                if (st.execute(sentencia)) {
+                    informar(version, st.getResultSet());
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera como mucho esperaBloqueoSegundos a que ninguna otra instancia esté migrando.
+     */
+    private void bloquear(Connection conexion, String fabricante) throws SQLException {
+        boolean obtenido;
+        if (DatabaseDriver.MYSQL.getId().equals(fabricante)) {
+            try (PreparedStatement ps = conexion.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                ps.setString(1, BLOQUEO);
+                ps.setInt(2, esperaBloqueoSegundos);
+                try (ResultSet rs = ps.executeQuery()) {
+                    obtenido = rs.next() && rs.getInt(1) == 1;
+                }
+            }
+        } else {
+            try (Statement st = conexion.createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS " + BLOQUEO + " (id INT NOT NULL PRIMARY KEY)");
+                st.execute("MERGE INTO " + BLOQUEO + " KEY (id) VALUES (1)");
+                conexion.setAutoCommit(false);
+                try (ResultSet rs = st.executeQuery("SELECT id FROM " + BLOQUEO + " WHERE id = 1 FOR UPDATE WAIT "
+                        + esperaBloqueoSegundos)) {
+                    obtenido = rs.next();
+                }
+            } catch (SQLException e) {
+                conexion.setAutoCommit(true);
+                throw new IllegalStateException("Otra instancia sigue aplicando las migraciones", e);
+            }
+        }
+        if (!obtenido) {
+            throw new IllegalStateException("Otra instancia sigue aplicando las migraciones tras "
+                + esperaBloqueoSegundos + " s de espera");
+        }
+    }
+
+    private void desbloquear(Connection conexion, String fabricante) throws SQLException {
+        if (DatabaseDriver.MYSQL.getId().equals(fabricante)) {
+            // El pool no cierra la conexión: hay que soltar el bloqueo a mano
+            try (PreparedStatement ps = conexion.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                ps.setString(1, BLOQUEO);
+                ps.executeQuery().close();
+            }
+        } else {
+            conexion.commit();
+            conexion.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Separa el script en sentencias: cada una termina en ';' al final de una línea y las
+     * líneas que empiezan por -- son comentarios.
+     */
+    static List<String> sentencias(String sql) {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        for (String linea : sql.split("\\R")) {
+            String limpia = linea.strip();
+            if (limpia.isEmpty() || limpia.startsWith("--")) {
+                continue;
+            }
+            if (limpia.endsWith(";")) {
+                actual.append(limpia, 0, limpia.length() - 1);
+                sentencias.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(limpia).append('\n');
+            }
+        }
+        if (!actual.isEmpty()) {
+            sentencias.add(actual.toString());
+        }
+        return sentencias;
+    }
+
+    private void informar(int version, ResultSet rs) throws SQLException {
+        int columnas = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            StringBuilder fila = new StringBuilder();
+            for (int i = 1; i <= columnas; i++) {
+                fila.append(i > 1 ? ", " : "").append(rs.getMetaData().getColumnLabel(i)).append('=').append(rs.getObject(i));
+            }
+            log.warn("Migración V{}: {}", version, fila);
+        }
+    }
+
+    private TreeMap<Integer, Resource> buscarMigraciones(String fabricante) throws IOException {
+        var resolver = new PathMatchingResourcePatternResolver();
+        TreeMap<Integer, Resource> migraciones = new TreeMap<>();
+
+        for (String ubicacion : List.of("comun", fabricante)) {
+            for (Resource recurso : resolver.getResources("classpath:db/migration/" + ubicacion + "/V*__*.sql")) {
+                Matcher m = NOMBRE.matcher(recurso.getFilename());
+                if (!m.matches()) {
+                    continue;
+                }
+                Resource repetida = migraciones.put(Integer.parseInt(m.group(1)), recurso);
+                if (repetida != null) {
+                    throw new IllegalStateException("Versión de migración repetida: "
+                        + repetida.getFilename() + " y " + recurso.getFilename());
+                }
+            }
+        }
+        return migraciones;
+    }
+
+    private String fabricante() throws SQLException {
+        String url;
+        try (Connection conexion = dataSource.getConnection()) {
+            url = conexion.getMetaData().getURL();
+        }
+        DatabaseDriver driver = DatabaseDriver.fromJdbcUrl(url);
+        if (!Set.of(DatabaseDriver.MYSQL, DatabaseDriver.H2).contains(driver)) {
+            throw new IllegalStateException("No hay migraciones para la base de datos " + url);
+        }
+        return driver.getId();
+    }
+
+    private boolean existeTabla(String tabla) throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            var metaData = conexion.getMetaData();
+            for (String nombre : List.of(tabla, tabla.toUpperCase())) {
+                try (ResultSet rs = metaData.getTables(conexion.getCatalog(), null, nombre, new String[] {"TABLE"})) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean existeColumna(String tabla, String columna) throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            var metaData = conexion.getMetaData();
+            for (String nombre : List.of(tabla, tabla.toUpperCase())) {
+                try (ResultSet rs = metaData.getColumns(conexion.getCatalog(), null, nombre, null)) {
+                    while (rs.next()) {
+                        if (rs.getString("COLUMN_NAME").equalsIgnoreCase(columna)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static String descripcion(Resource script) {
+        Matcher m = NOMBRE.matcher(script.getFilename());
+        return m.matches() ? m.group(2).replace('_', ' ') : script.getFilename();
+    }
+}
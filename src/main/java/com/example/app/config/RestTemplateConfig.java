@@ -1,14 +1,29 @@
 package com.example.app.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    // Cliente HTTP del JDK: reutiliza las conexiones keep-alive con el modelo en lugar de abrir
+    // una por petición. Con los timeouts un contenedor colgado no retiene el hilo de Tomcat
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${prediccion.modelo.timeout-conexion-ms:500}") long timeoutConexionMs,
+            @Value("${prediccion.modelo.timeout-lectura-ms:2000}") long timeoutLecturaMs) {
+        HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(timeoutConexionMs))
+            .build();
+        JdkClientHttpRequestFactory fabrica = new JdkClientHttpRequestFactory(cliente);
+        fabrica.setReadTimeout(Duration.ofMillis(timeoutLecturaMs));
+        return new RestTemplate(fabrica);
     }
 }
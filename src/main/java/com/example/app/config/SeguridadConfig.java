@@ -1,27 +1,47 @@
 package com.example.app.config;
 
+import java.time.Clock;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.example.app.config.security.BCryptAdaptativo;
+import com.example.app.config.security.CosteBCryptCompartido;
 import com.example.app.config.security.JwtFilter;
+import com.example.app.config.security.LimiteAuthFilter;
+import com.example.app.config.security.PasswordEncoderAcotado;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableMethodSecurity
 public class SeguridadConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SeguridadConfig.class);
+
     private final JwtFilter jwtFilter;
+    private final LimiteAuthFilter limiteAuthFilter;
 
-    public SeguridadConfig(JwtFilter jwtFilter) {
+    public SeguridadConfig(JwtFilter jwtFilter, LimiteAuthFilter limiteAuthFilter) {
         this.jwtFilter = jwtFilter;
+        this.limiteAuthFilter = limiteAuthFilter;
         System.out.println("✅ SecurityConfig cargada correctamente");
     }
 
@@ -32,7 +52,8 @@ public class SeguridadConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(
                     "/auth/register",
-                    "/auth/login"
+                    "/auth/login",
+                    "/auth/refresh"
                 ).permitAll()
                 .anyRequest().authenticated()
             )
@@ -42,7 +63,8 @@ public class SeguridadConfig {
                 })
             )
             .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(limiteAuthFilter, JwtFilter.class);
 
         return http.build();
     }
@@ -53,8 +75,37 @@ public class SeguridadConfig {
         return config.getAuthenticationManager();
     }
 
+    // BCrypt con el coste calibrado a la latencia objetivo y compartido entre réplicas (o fijo si
+    // seguridad.hash.coste > 0), ejecutado en un pool propio y acotado para no ocupar todos los
+    // hilos de Tomcat
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${seguridad.hash.coste:0}") int coste,
+            @Value("${seguridad.hash.latencia-objetivo-ms:80}") long latenciaObjetivoMs,
+            @Value("${seguridad.hash.coste-minimo:10}") int costeMinimo,
+            @Value("${seguridad.hash.coste-maximo:16}") int costeMaximo,
+            @Value("${seguridad.hash.recalibrar-dias:30}") long recalibrarDias,
+            @Value("${seguridad.hash.hilos:0}") int hilos,
+            @Value("${seguridad.hash.cola:32}") int cola,
+            @Value("${seguridad.hash.espera-maxima-ms:5000}") long esperaMaximaMs,
+            DataSource dataSource,
+            ObjectProvider<MigracionesEsquema> migraciones,
+            MeterRegistry registry) {
+        BCryptAdaptativo bcrypt;
+        if (coste > 0) {
+            bcrypt = new BCryptAdaptativo(coste);
+        } else {
+            // La tabla parametros_compartidos la crean las migraciones
+            migraciones.getIfAvailable();
+            CosteBCryptCompartido compartido = new CosteBCryptCompartido(
+                new JdbcTemplate(dataSource), Duration.ofDays(recalibrarDias), Clock.systemUTC());
+            bcrypt = new BCryptAdaptativo(compartido.obtener(
+                () -> BCryptAdaptativo.calibrado(latenciaObjetivoMs, costeMinimo, costeMaximo).getCoste()));
+        }
+        log.info("Coste de BCrypt: {}", bcrypt.getCoste());
+        Gauge.builder("auth.hash.coste", bcrypt, BCryptAdaptativo::getCoste).register(registry);
+
+        int hilosEfectivos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        return new PasswordEncoderAcotado(bcrypt, hilosEfectivos, cola, esperaMaximaMs, registry);
     }
 }
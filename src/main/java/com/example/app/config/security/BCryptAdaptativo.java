@@ -0,0 +1,102 @@
+package com.example.app.config.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt cuyo coste se ajusta al hardware: se mide cuánto tarda un hash y se elige el coste
+ * que más se acerca a la latencia objetivo sin pasarse. Cada hash BCrypt lleva su coste
+ * dentro ($2a$NN$...), así que upgradeEncoding indica qué contraseñas se guardaron con otro
+ * coste y deben volver a cifrarse en el siguiente login correcto.
+ */
+public class BCryptAdaptativo implements PasswordEncoder {
+
+    private static final Pattern COSTE_EN_HASH = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    // Coste barato con el que se mide la máquina antes de extrapolar
+    private static final int COSTE_DE_MEDIDA = 6;
+
+    private final int coste;
+    private final BCryptPasswordEncoder delegado;
+
+    public BCryptAdaptativo(int coste) {
+        this.coste = coste;
+        this.delegado = new BCryptPasswordEncoder(coste);
+    }
+
+    /**
+     * Crea el encoder con el mayor coste cuyo hash tarda como mucho latenciaObjetivoMs,
+     * limitado al rango [costeMinimo, costeMaximo].
+     */
+    public static BCryptAdaptativo calibrado(long latenciaObjetivoMs, int costeMinimo, int costeMaximo) {
+        long objetivoNanos = latenciaObjetivoMs * 1_000_000L;
+        long medida = medir(COSTE_DE_MEDIDA);
+
+        // Cada punto de coste duplica el trabajo
+        int coste = COSTE_DE_MEDIDA;
+        while (coste < costeMaximo && medida * 2 <= objetivoNanos) {
+            medida *= 2;
+            coste++;
+        }
+        coste = Math.max(costeMinimo, Math.min(costeMaximo, coste));
+
+        // La extrapolación no es exacta: se comprueba una vez con el coste elegido
+        if (coste > costeMinimo && medir(coste) > objetivoNanos * 3 / 2) {
+            coste--;
+        }
+        return new BCryptAdaptativo(coste);
+    }
+
+    private static long medir(int coste) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(coste);
+        encoder.encode("calentamiento");
+
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode("calibracion");
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return mejor;
+    }
+
+    public int getCoste() {
+        return coste;
+    }
+
+    /**
+     * Coste con el que se generó un hash BCrypt, o -1 si no tiene formato BCrypt.
+     */
+    public static int costeDe(String hash) {
+        if (hash == null) {
+            return -1;
+        }
+        Matcher m = COSTE_EN_HASH.matcher(hash);
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    @Override
+    public String encode(CharSequence contrasena) {
+        return delegado.encode(contrasena);
+    }
+
+    @Override
+    public boolean matches(CharSequence contrasena, String hash) {
+        return delegado.matches(contrasena, hash);
+    }
+
+    /**
+     * Se vuelve a cifrar si el coste guardado es distinto del actual, también si es mayor: así
+     * un coste demasiado alto para la máquina vuelve a la latencia objetivo. Requiere que todas
+     * las réplicas usen el mismo coste (ver CosteBCryptCompartido); si no, los hashes se
+     * recifrarían en cada login que cae en una réplica distinta.
+     */
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        int costeGuardado = costeDe(hash);
+        return costeGuardado != -1 && costeGuardado != coste;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.app.config.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.app.model.Usuario;
+
+/**
+ * Caché acotada y con caducidad de los principales que resuelve el JwtFilter, indexada por
+ * el subject del token (el email). Guarda solo la foto ligera UsuarioAutenticado, nunca la
+ * entidad gestionada, y expone contadores de aciertos y fallos para poder dimensionarla.
+ */
+@Component
+public class CacheUsuariosAutenticados {
+
+    private final int capacidad;
+    private final long ttlNanos;
+
+    // LinkedHashMap en orden de acceso: al superar la capacidad se descarta la menos usada
+    private final Map<String, Entrada> entradas;
+
+    // Cada invalidación la incrementa; una carga iniciada antes de invalidar no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public CacheUsuariosAutenticados(
+            @Value("${seguridad.cache-usuarios.capacidad:10000}") int capacidad,
+            @Value("${seguridad.cache-usuarios.ttl-segundos:300}") long ttlSegundos) {
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > CacheUsuariosAutenticados.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el principal guardado para ese email, o null si no está, ha caducado o no
+     * corresponde al id de usuario del token (si el token lo incluye).
+     */
+    public UsuarioAutenticado buscar(String email, Long usuarioId) {
+        String clave = clave(email);
+        UsuarioAutenticado encontrado = null;
+
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && System.nanoTime() - entrada.guardadaEn >= ttlNanos) {
+                entradas.remove(clave);
+            } else if (entrada != null && (usuarioId == null || usuarioId.equals(entrada.usuario.getId()))) {
+                encontrado = entrada.usuario;
+            }
+        }
+
+        (encontrado != null ? aciertos : fallos).increment();
+        return encontrado;
+    }
+
+    /**
+     * Valor que hay que leer antes de ir a la base de datos y pasar después a guardar().
+     */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public void guardar(String email, UsuarioAutenticado usuario, long generacionLeida) {
+        synchronized (entradas) {
+            if (generacion.get() == generacionLeida) {
+                entradas.put(clave(email), new Entrada(usuario, System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * Olvida al usuario ya y, si hay una transacción en curso, otra vez tras el commit para que
+     * ninguna petición concurrente vuelva a guardar los datos anteriores al cambio.
+     */
+    public void invalidar(String email) {
+        invalidarAhora(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarAhora(email);
+                }
+            });
+        }
+    }
+
+    private void invalidarAhora(String email) {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.remove(clave(email));
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public int getTamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private static String clave(String email) {
+        return email == null ? "" : Usuario.normalizarEmail(email);
+    }
+
+    private static final class Entrada {
+        private final UsuarioAutenticado usuario;
+        private final long guardadaEn;
+
+        private Entrada(UsuarioAutenticado usuario, long guardadaEn) {
+            this.usuario = usuario;
+            this.guardadaEn = guardadaEn;
+        }
+    }
+}
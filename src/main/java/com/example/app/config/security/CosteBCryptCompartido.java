@@ -0,0 +1,86 @@
+package com.example.app.config.security;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Coste de BCrypt calibrado una vez y guardado en parametros_compartidos para que todas las
+ * réplicas usen el mismo. La primera instancia que arranca sin valor (o con uno más antiguo
+ * que la vigencia) mide la máquina y lo guarda; las demás lo leen sin medir. Si dos calibran
+ * a la vez solo se queda el valor de la que escribe primero.
+ *
+ * Al ser un valor compartido, los hashes se pueden recifrar hacia él en ambos sentidos: una
+ * recalibración que baja el coste también se aplica. Las réplicas que ya estaban arrancadas
+ * siguen con el coste anterior hasta que se reinician.
+ */
+public class CosteBCryptCompartido {
+
+    private static final Logger log = LoggerFactory.getLogger(CosteBCryptCompartido.class);
+
+    private static final String CLAVE = "seguridad.hash.coste";
+
+    private final JdbcTemplate jdbc;
+    private final Duration vigencia;
+    private final Clock reloj;
+
+    public CosteBCryptCompartido(JdbcTemplate jdbc, Duration vigencia, Clock reloj) {
+        this.jdbc = jdbc;
+        this.vigencia = vigencia;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Devuelve el coste compartido; si no hay ninguno vigente lo calcula con calibrar y lo guarda.
+     */
+    public int obtener(IntSupplier calibrar) {
+        Instant ahora = reloj.instant();
+        Instant caducidad = ahora.minus(vigencia);
+
+        Guardado guardado = leer();
+        if (guardado != null && guardado.actualizadoEn().isAfter(caducidad)) {
+            return guardado.coste();
+        }
+
+        int coste = calibrar.getAsInt();
+        if (guardado == null) {
+            try {
+                jdbc.update("INSERT INTO parametros_compartidos (clave, valor, actualizado_en) VALUES (?, ?, ?)",
+                    CLAVE, String.valueOf(coste), Timestamp.from(ahora));
+                log.info("Coste de BCrypt calibrado y guardado: {}", coste);
+                return coste;
+            } catch (DuplicateKeyException e) {
+                // Otra réplica lo ha guardado mientras se calibraba
+                return leer().coste();
+            }
+        }
+
+        // Solo actualiza quien ve todavía el valor caducado; el resto lee el que quedó
+        int actualizadas = jdbc.update(
+            "UPDATE parametros_compartidos SET valor = ?, actualizado_en = ? WHERE clave = ? AND actualizado_en <= ?",
+            String.valueOf(coste), Timestamp.from(ahora), CLAVE, Timestamp.from(caducidad));
+        if (actualizadas == 0) {
+            return leer().coste();
+        }
+        log.info("Coste de BCrypt recalibrado: {} -> {}", guardado.coste(), coste);
+        return coste;
+    }
+
+    private Guardado leer() {
+        List<Guardado> filas = jdbc.query(
+            "SELECT valor, actualizado_en FROM parametros_compartidos WHERE clave = ?",
+            (rs, i) -> new Guardado(Integer.parseInt(rs.getString("valor")), rs.getTimestamp("actualizado_en").toInstant()),
+            CLAVE);
+        return filas.isEmpty() ? null : filas.get(0);
+    }
+
+    private record Guardado(int coste, Instant actualizadoEn) {}
+}
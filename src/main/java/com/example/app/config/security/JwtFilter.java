@@ -2,11 +2,15 @@ package com.example.app.config.security;
 
 import com.example.app.model.Usuario;
 import com.example.app.repository.UsuarioRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,12 +23,17 @@ import java.io.IOException;
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CacheUsuariosAutenticados cacheUsuarios;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -44,28 +53,69 @@ public class JwtFilter extends OncePerRequestFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
+            Claims claims = verificar(token);
 
+            if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsuarioAutenticado principal = obtenerPrincipal(claims);
 
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                Usuario usuario = usuarioRepository.buscarPorEmail(email).orElse(null);
-
-                if (usuario != null && jwtUtil.isTokenValid(token, email)) {
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(usuario, null, null);
+                        new UsernamePasswordAuthenticationToken(principal, null, null);
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    System.out.println("Usuario autenticado correctamente: " + usuario.getEmail());
+                    log.debug("Usuario {} autenticado", principal.getId());
                 } else {
-                    System.out.println(" Token inválido o usuario no encontrado");
+                    log.debug("Token válido sin usuario asociado");
                 }
             }
         } else {
-            System.out.println("No se encontró cabecera Authorization válida");
+            log.debug("Petición sin cabecera Authorization Bearer");
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private Claims verificar(String token) {
+        try {
+            return jwtUtil.verificarToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token inválido: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private UsuarioAutenticado obtenerPrincipal(Claims claims) {
+        String email = claims.getSubject();
+        UsuarioAutenticado principal = cacheUsuarios.buscar(email, jwtUtil.extractUsuarioId(claims));
+        if (principal != null) {
+            return principal;
+        }
+
+        long generacion = cacheUsuarios.generacion();
+        Usuario usuario = buscarUsuario(claims);
+        if (usuario == null) {
+            return null;
+        }
+
+        principal = new UsuarioAutenticado(usuario.getId(), usuario.getEmail());
+        cacheUsuarios.guardar(email, principal, generacion);
+        return principal;
+    }
+
+    // Los tokens nuevos llevan el id del usuario y se resuelven por clave primaria;
+    // los emitidos antes de añadir el claim se siguen resolviendo por email
+    private Usuario buscarUsuario(Claims claims) {
+        String email = claims.getSubject();
+        Long usuarioId = jwtUtil.extractUsuarioId(claims);
+
+        if (usuarioId == null) {
+            return email != null ? usuarioRepository.buscarPorEmail(email).orElse(null) : null;
+        }
+
+        return usuarioRepository.buscarPorId(usuarioId)
+            .filter(usuario -> usuario.getEmail().equalsIgnoreCase(email))
+            .orElse(null);
+    }
 }
@@ -12,36 +12,39 @@ public class JwtUtil {
 
     private static final String SECRET_KEY = "k42Fh8$g7Wx!JzQ2p4@MsN3#A0LpD6vQxUeRm7^bY9XzFtH1"; 
 
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 horas
+    // Vida corta: los clientes renuevan con el refresh token en /auth/refresh
+    private static final long EXPIRATION_TIME = 1000 * 60 * 15; // 15 minutos
+    private static final String CLAIM_USUARIO_ID = "usuarioId";
+
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
-    public String generateToken(String email) {
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    public String generateToken(String email, Long usuarioId) {
         return Jwts.builder()
                 .setSubject(email)
+                .claim(CLAIM_USUARIO_ID, usuarioId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(key)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return parseClaims(token).getSubject();
-    }
-
-    public boolean isTokenValid(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return parseClaims(token).getExpiration().before(new Date());
+    /**
+     * Comprueba la firma y la caducidad del token una única vez y devuelve sus claims
+     * (subject = email, expiración y usuarioId). Lanza JwtException si el token no es válido.
+     */
+    public Claims verificarToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Devuelve el id de usuario del token, o null si se emitió antes de incluir ese claim.
+     */
+    public Long extractUsuarioId(Claims claims) {
+        return claims.get(CLAIM_USUARIO_ID, Long.class);
     }
 }
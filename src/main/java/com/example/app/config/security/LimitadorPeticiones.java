@@ -0,0 +1,110 @@
+package com.example.app.config.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cubo de tokens por clave sin bloqueos. Cada cubo es un único AtomicLong con el instante
+ * teórico en que volvería a estar lleno (algoritmo GCRA, equivalente a un token bucket):
+ * consumir un token es un compareAndSet y no hace falta un hilo que recargue los cubos.
+ *
+ * Un cubo que ya se ha recargado del todo no aporta nada, así que se descarta al limpiar;
+ * el número de claves está acotado por maxClaves. Si no queda sitio, una clave nueva pasa
+ * sin que se recuerde: rechazarla dejaría que cualquiera llenara el mapa con claves
+ * inventadas (emails falsos) y bloqueara a todos los usuarios. Mientras tanto sigue
+ * limitando la otra dimensión (la IP para el email y al revés).
+ */
+public class LimitadorPeticiones {
+
+    private final long nanosPorToken;
+    private final long rafagaNanos;
+    private final int maxClaves;
+    private final LongSupplier reloj;
+
+    private final ConcurrentHashMap<String, AtomicLong> cubos = new ConcurrentHashMap<>();
+    // Sitios ocupados en cubos: se reserva antes de insertar para no pasar nunca de maxClaves
+    private final AtomicInteger claves = new AtomicInteger();
+    private final AtomicLong ultimaLimpieza;
+
+    /**
+     * @param capacidad     peticiones que se admiten seguidas con el cubo lleno
+     * @param porMinuto     ritmo al que se recupera el cubo
+     * @param maxClaves     número máximo de claves (IP o email) que se recuerdan
+     */
+    public LimitadorPeticiones(int capacidad, int porMinuto, int maxClaves) {
+        this(capacidad, porMinuto, maxClaves, System::nanoTime);
+    }
+
+    public LimitadorPeticiones(int capacidad, int porMinuto, int maxClaves, LongSupplier reloj) {
+        this.nanosPorToken = TimeUnit.MINUTES.toNanos(1) / porMinuto;
+        this.rafagaNanos = nanosPorToken * capacidad;
+        this.maxClaves = maxClaves;
+        this.reloj = reloj;
+        this.ultimaLimpieza = new AtomicLong(reloj.getAsLong() - TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Intenta consumir un token de la clave. Devuelve 0 si la petición puede pasar o, si no,
+     * los nanosegundos que faltan para que haya un token disponible.
+     */
+    public long consumir(String clave) {
+        long ahora = reloj.getAsLong();
+
+        AtomicLong cubo = cubos.get(clave);
+        if (cubo == null) {
+            if (claves.get() >= maxClaves) {
+                limpiar(ahora);
+            }
+            cubo = cubos.computeIfAbsent(clave, k -> reservarSitio() ? new AtomicLong(ahora) : null);
+            if (cubo == null) {
+                // Sin sitio para más claves: pasa sin recordarla en lugar de rechazar a todos
+                return 0;
+            }
+        }
+
+        while (true) {
+            long lleno = cubo.get();
+            long siguiente = Math.max(lleno, ahora) + nanosPorToken;
+            long exceso = siguiente - ahora - rafagaNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (cubo.compareAndSet(lleno, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    private boolean reservarSitio() {
+        while (true) {
+            int ocupados = claves.get();
+            if (ocupados >= maxClaves) {
+                return false;
+            }
+            if (claves.compareAndSet(ocupados, ocupados + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Elimina los cubos que ya están llenos. Se ejecuta como mucho una vez por segundo.
+     */
+    private void limpiar(long ahora) {
+        long anterior = ultimaLimpieza.get();
+        if (ahora - anterior >= TimeUnit.SECONDS.toNanos(1) && ultimaLimpieza.compareAndSet(anterior, ahora)) {
+            cubos.forEach((clave, cubo) -> {
+                if (cubo.get() <= ahora && cubos.remove(clave, cubo)) {
+                    claves.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    public int getClaves() {
+        return cubos.size();
+    }
+}
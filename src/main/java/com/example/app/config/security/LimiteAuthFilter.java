@@ -0,0 +1,208 @@
+package com.example.app.config.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.app.model.Usuario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita los intentos contra /auth/login, /auth/register y /auth/google por IP y por email
+ * antes de que lleguen a BCrypt. Si se supera el límite responde 429 con Retry-After.
+ */
+@Component
+public class LimiteAuthFilter extends OncePerRequestFilter {
+
+    private static final Set<String> RUTAS_LIMITADAS = Set.of("/auth/login", "/auth/register", "/auth/google");
+
+    // Los cuerpos de login y registro son pequeños; no se lee más que esto para buscar el email
+    private static final int MAX_CUERPO = 16 * 1024;
+
+    private final boolean habilitado;
+    private final LimitadorPeticiones porIp;
+    private final LimitadorPeticiones porEmail;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public LimiteAuthFilter(
+            @Value("${seguridad.limite.habilitado:true}") boolean habilitado,
+            @Value("${seguridad.limite.ip.capacidad:30}") int capacidadIp,
+            @Value("${seguridad.limite.ip.por-minuto:30}") int porMinutoIp,
+            @Value("${seguridad.limite.email.capacidad:5}") int capacidadEmail,
+            @Value("${seguridad.limite.email.por-minuto:5}") int porMinutoEmail,
+            @Value("${seguridad.limite.max-claves:100000}") int maxClaves) {
+        this.habilitado = habilitado;
+        this.porIp = new LimitadorPeticiones(capacidadIp, porMinutoIp, maxClaves);
+        this.porEmail = new LimitadorPeticiones(capacidadEmail, porMinutoEmail, maxClaves);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado
+            || !"POST".equalsIgnoreCase(request.getMethod())
+            || !RUTAS_LIMITADAS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // getRemoteAddr es la IP del proxy si lo hay: activar server.forward-headers-strategy en ese caso
+        long espera = porIp.consumir("ip:" + request.getRemoteAddr());
+        if (espera > 0) {
+            rechazar(response, espera, "ip");
+            return;
+        }
+
+        byte[] cuerpo = request.getInputStream().readNBytes(MAX_CUERPO);
+        String email = extraerEmail(cuerpo);
+        if (email != null) {
+            espera = porEmail.consumir("email:" + email);
+            if (espera > 0) {
+                rechazar(response, espera, "email");
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CuerpoLeido(request, cuerpo), response);
+    }
+
+    private String extraerEmail(byte[] cuerpo) {
+        try {
+            JsonNode email = objectMapper.readTree(cuerpo).get("email");
+            if (email == null || !email.isTextual() || email.asText().isBlank()) {
+                return null;
+            }
+            return Usuario.normalizarEmail(email.asText());
+        } catch (IOException | RuntimeException e) {
+            // Cuerpo que no es JSON: el controlador responderá con el error correspondiente
+            return null;
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, long esperaNanos, String tipo) throws IOException {
+        registry.counter("auth.limite.rechazados", "tipo", tipo).increment();
+
+        long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(), Map.of(
+            "error", "Demasiados intentos, inténtalo de nuevo en " + segundos + " segundos"));
+    }
+
+    /**
+     * Devuelve a los controladores el cuerpo que ya se ha leído para buscar el email,
+     * seguido de lo que quede sin leer en la petición original.
+     */
+    private static class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final ServletInputStream entrada;
+
+        CuerpoLeido(HttpServletRequest request, byte[] leido) throws IOException {
+            super(request);
+            this.entrada = new EntradaConPrefijo(new ByteArrayInputStream(leido), request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return entrada;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(entrada, Charset.forName(charset)));
+        }
+    }
+
+    /**
+     * Lee primero los bytes ya leídos y después el resto de la entrada original. Con lectura
+     * asíncrona los avisos del contenedor llegan por la entrada original; si esta ya se había
+     * leído entera, el contenedor solo avisa del final, así que antes se avisa de que hay
+     * datos para que el listener lea lo que quedaba en memoria.
+     */
+    private static class EntradaConPrefijo extends ServletInputStream {
+
+        private final ByteArrayInputStream prefijo;
+        private final ServletInputStream resto;
+
+        EntradaConPrefijo(ByteArrayInputStream prefijo, ServletInputStream resto) {
+            this.prefijo = prefijo;
+            this.resto = resto;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return prefijo.available() > 0 ? prefijo.read() : resto.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return prefijo.available() > 0 ? prefijo.read(b, off, len) : resto.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return prefijo.available() == 0 && resto.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return prefijo.available() > 0 || resto.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            resto.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    listener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (prefijo.available() > 0) {
+                        listener.onDataAvailable();
+                    }
+                    listener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.app.config.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * PasswordEncoder que ejecuta el hash (BCrypt) en un pool propio y acotado en lugar de en los
+ * hilos de Tomcat. Si la cola está llena la petición se rechaza al momento, así un pico de
+ * logins solo puede ocupar hilos + cola hilos de Tomcat y el resto siguen atendiendo lecturas.
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor ejecutor;
+    private final long esperaMaximaMs;
+
+    private final Timer duracionEncode;
+    private final Timer duracionMatches;
+    private final Timer esperaEnCola;
+    private final Counter rechazados;
+
+    public PasswordEncoderAcotado(PasswordEncoder delegado, int hilos, int cola,
+                                  long esperaMaximaMs, MeterRegistry registry) {
+        this.delegado = delegado;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(cola),
+            tarea -> {
+                Thread hilo = new Thread(tarea, "hash-contrasenas-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hash.cola", ejecutor, e -> e.getQueue().size())
+            .description("Hashes de contraseña esperando un hilo libre")
+            .register(registry);
+        Gauge.builder("auth.hash.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashes de contraseña en ejecución")
+            .register(registry);
+        this.duracionEncode = Timer.builder("auth.hash.duracion").tag("operacion", "encode").register(registry);
+        this.duracionMatches = Timer.builder("auth.hash.duracion").tag("operacion", "matches").register(registry);
+        this.esperaEnCola = Timer.builder("auth.hash.espera").register(registry);
+        this.rechazados = Counter.builder("auth.hash.rechazados").register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence contrasena) {
+        return ejecutar(() -> delegado.encode(contrasena), duracionEncode);
+    }
+
+    @Override
+    public boolean matches(CharSequence contrasena, String hash) {
+        return ejecutar(() -> delegado.matches(contrasena, hash), duracionMatches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        return delegado.upgradeEncoding(hash);
+    }
+
+    private <T> T ejecutar(Callable<T> hash, Timer duracion) {
+        long encolado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = ejecutor.submit(() -> {
+                esperaEnCola.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return duracion.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new ColaLlenaException();
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazados.increment();
+            throw new TiempoAgotadoException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TiempoAgotadoException();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    @Override
+    public void close() {
+        ejecutor.shutdownNow();
+    }
+
+    public static class HashSaturadoException extends RuntimeException {
+        public HashSaturadoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    /** No queda sitio en la cola: el cliente debe reintentar más tarde (429). */
+    public static class ColaLlenaException extends HashSaturadoException {
+        public ColaLlenaException() {
+            super("Demasiadas peticiones de autenticación, inténtalo de nuevo en unos segundos");
+        }
+    }
+
+    /** La tarea entró en la cola pero no terminó a tiempo (503). */
+    public static class TiempoAgotadoException extends HashSaturadoException {
+        public TiempoAgotadoException() {
+            super("El servicio de autenticación está saturado, inténtalo de nuevo en unos segundos");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.app.config.security;
+
+/**
+ * Principal que el JwtFilter deja en el contexto de seguridad. Solo guarda los datos
+ * que necesitan los controladores para no tener que volver a buscar al usuario.
+ */
+public final class UsuarioAutenticado {
+
+    private final Long id;
+    private final String email;
+
+    public UsuarioAutenticado(Long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
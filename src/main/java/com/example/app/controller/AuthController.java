@@ -4,9 +4,11 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -14,8 +16,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.app.config.security.JwtUtil;
+import com.example.app.config.security.PasswordEncoderAcotado.ColaLlenaException;
+import com.example.app.config.security.PasswordEncoderAcotado.HashSaturadoException;
+import com.example.app.config.security.PasswordEncoderAcotado.TiempoAgotadoException;
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.model.Usuario;
 import com.example.app.service.AuthService;
+import com.example.app.service.AuthService.ResultadoLogin;
+import com.example.app.service.RefreshTokenService;
+import com.example.app.service.RefreshTokenService.RefreshTokenInvalidoException;
+import com.example.app.service.RefreshTokenService.Renovacion;
 
 import jakarta.validation.Valid;
 
@@ -28,18 +38,12 @@ public class AuthController {
 
     @Autowired
     private JwtUtil jwtUtil;
-    
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
     
-    private String getCorreoAutenticado() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (principal instanceof Usuario usuario) {
-            return usuario.getEmail();
-        }
 
-        return principal.toString();
-    }
+    
 
     @PostMapping("/register")
     public ResponseEntity<Map<String, String>> register(@Valid @RequestBody Usuario usuario) {
@@ -65,32 +69,18 @@ public class AuthController {
     	        ));
     	    }
     	
-    	boolean autenticado = authService.autenticarUsuario(
+    	ResultadoLogin resultado = authService.autenticar(
                 loginData.getEmail(),
                 loginData.getContrasena()
         );
 
-        Optional<Usuario> usuarioOpt = authService.buscarPorEmail(loginData.getEmail());
-
-        if (usuarioOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", "Usuario no encontrado"));
-        }
-        if (!autenticado) {
+        if (!resultado.isAutenticado()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Credenciales inválidas"));
         }
 
-        String token = jwtUtil.generateToken(loginData.getEmail());
-
-       
-
-        Usuario usuario = usuarioOpt.get();
-
-        return ResponseEntity.ok(Map.of(
-                "token", token,
-                "usuarioId", usuario.getId()
-        ));
+        Usuario usuario = resultado.getUsuario();
+        return ResponseEntity.ok(respuestaConTokens(usuario, refreshTokenService.emitir(usuario)));
     }
 
     @PostMapping("/google")
@@ -106,19 +96,37 @@ public class AuthController {
             usuario = usuarioOpt.get();
         }
 
-        String token = jwtUtil.generateToken(usuario.getEmail());
+        return ResponseEntity.ok(respuestaConTokens(usuario, refreshTokenService.emitir(usuario)));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> body) {
+        String refreshToken = body.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Falta el refresh token"));
+        }
+
+        try {
+            Renovacion renovacion = refreshTokenService.renovar(refreshToken);
+            return ResponseEntity.ok(respuestaConTokens(renovacion.getUsuario(), renovacion.getRefreshToken()));
+        } catch (RefreshTokenInvalidoException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "token", token,
+    private Map<String, Object> respuestaConTokens(Usuario usuario, String refreshToken) {
+        return Map.of(
+                "token", jwtUtil.generateToken(usuario.getEmail(), usuario.getId()),
+                "refreshToken", refreshToken,
                 "usuarioId", usuario.getId()
-        ));
+        );
     }
 
     
     @PutMapping("/cambiar-contrasena")
-    public ResponseEntity<String> cambiarContrasena(@RequestBody Map<String, String> body) {
+    public ResponseEntity<String> cambiarContrasena(@RequestBody Map<String, String> body, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String email = getCorreoAutenticado(); 
+            String email = autenticado.getEmail(); 
 
             String contrasenaActual = body.get("contrasenaActual");
             String nuevaContrasena = body.get("nuevaContrasena");
@@ -135,10 +143,26 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body("La contraseña actual no es válida");
             }
+        } catch (HashSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token inválido o expirado");
         }
     }
 
+    @ExceptionHandler(ColaLlenaException.class)
+    public ResponseEntity<Map<String, String>> colaDeHashLlena(ColaLlenaException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(TiempoAgotadoException.class)
+    public ResponseEntity<Map<String, String>> hashSaturado(TiempoAgotadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", e.getMessage()));
+    }
+
 
 }
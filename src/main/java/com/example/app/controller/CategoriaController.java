@@ -6,7 +6,7 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,14 +17,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.dto.CategoriaConPictogramas;
 import com.example.app.dto.CategoriaConPictogramasInput;
 import com.example.app.dto.CategoriaSimple;
 import com.example.app.dto.CategoriaUsuarioInput;
 import com.example.app.model.Categoria;
-import com.example.app.model.Usuario;
 import com.example.app.service.CategoriaService;
-import com.example.app.service.UsuarioService;
 
 @RestController
 @RequestMapping("/categorias")
@@ -33,18 +32,7 @@ public class CategoriaController {
     @Autowired
     private CategoriaService categoriaService;
 
-    @Autowired
-    private UsuarioService usuarioService;
-
-    private String getCorreoAutenticado() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-        if (principal instanceof Usuario usuario) {
-            return usuario.getEmail();
-        }
-        
-        return principal.toString();
-    }
     
     @PostMapping("/general")
     public ResponseEntity<CategoriaConPictogramas> crearCategoriaGeneral(@RequestBody CategoriaConPictogramasInput input) {
@@ -85,13 +73,13 @@ public class CategoriaController {
     @PutMapping("/{id}")
     public ResponseEntity<CategoriaConPictogramas> updateCategoria(
             @PathVariable Long id,
-            @RequestBody CategoriaConPictogramasInput input
+            @RequestBody CategoriaConPictogramasInput input,
+            @AuthenticationPrincipal UsuarioAutenticado autenticado
     ) {
     	if (input == null || input.getNombre() == null || input.getNombre().isBlank()) {
             return ResponseEntity.badRequest().build();
         }
-        String correo = getCorreoAutenticado();
-        Long idAutenticado = usuarioService.obtenerId(correo);
+        Long idAutenticado = autenticado.getId();
 
         Optional<Categoria> categoriaOpt = categoriaService.obtenerCategoriaPorId(id);
         if (categoriaOpt.isEmpty()) return ResponseEntity.notFound().build();
@@ -113,9 +101,8 @@ public class CategoriaController {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCategoria(@PathVariable Long id) {
-        String correo = getCorreoAutenticado();
-        Long idAutenticado = usuarioService.obtenerId(correo);
+    public ResponseEntity<Void> deleteCategoria(@PathVariable Long id, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long idAutenticado = autenticado.getId();
 
         try {
             categoriaService.eliminarCategoria(id, idAutenticado);
@@ -127,9 +114,8 @@ public class CategoriaController {
         }
     }
     @PostMapping("/usuario")
-    public ResponseEntity<CategoriaConPictogramas> crearCategoriaUsuario(@RequestBody CategoriaUsuarioInput input) {
-        String correo = getCorreoAutenticado();
-        Long idAutenticado = usuarioService.obtenerId(correo);
+    public ResponseEntity<CategoriaConPictogramas> crearCategoriaUsuario(@RequestBody CategoriaUsuarioInput input, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long idAutenticado = autenticado.getId();
 
         if (!idAutenticado.equals(input.getUsuarioId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -145,10 +131,9 @@ public class CategoriaController {
     }
   
     @GetMapping("/pictograma/{pictogramaId}")
-    public ResponseEntity<List<CategoriaSimple>> getCategoriasDePictograma(@PathVariable Long pictogramaId) {
+    public ResponseEntity<List<CategoriaSimple>> getCategoriasDePictograma(@PathVariable Long pictogramaId, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado();
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
             List<CategoriaSimple> categorias = categoriaService.obtenerCategoriasDePictogramaParaUsuario(pictogramaId, usuarioId);
 
             if (categorias.isEmpty()) {
@@ -161,10 +146,9 @@ public class CategoriaController {
         }
     }
     @GetMapping("/con-pictogramas")
-    public ResponseEntity<List<CategoriaConPictogramas>> obtenerCategoriasConPictogramas() {
+    public ResponseEntity<List<CategoriaConPictogramas>> obtenerCategoriasConPictogramas(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado();
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
             List<CategoriaConPictogramas> resultado = categoriaService.obtenerCategoriasConPictogramasVisibles(usuarioId);
 
             if (resultado.isEmpty()) {
@@ -5,7 +5,7 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,10 +15,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.dto.ConfiguracionSimple; // ¡Importa tu nuevo DTO!
 import com.example.app.model.Configuracion; // Necesario si mantienes los métodos POST/DELETE que operan con la entidad completa
 import com.example.app.model.TipoVoz;
-import com.example.app.model.Usuario;
 import com.example.app.service.ConfiguracionService;
 import com.example.app.service.UsuarioService;
 
@@ -32,21 +32,11 @@ public class ConfiguracionController {
     @Autowired
     private UsuarioService usuarioService;
     
-    private String getCorreoAutenticado() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (principal instanceof Usuario usuario) {
-            return usuario.getEmail();
-        }
-
-        return principal.toString();
-    }
     
     @GetMapping("/usuario/yo")
-    public ResponseEntity<ConfiguracionSimple> obtenerConfiguracionDelUsuarioAutenticado() {
+    public ResponseEntity<ConfiguracionSimple> obtenerConfiguracionDelUsuarioAutenticado(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado();
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
 
             Optional<ConfiguracionSimple> configuracionSimple = configuracionService.getConfiguracionSimpleByUsuarioId(usuarioId);
 
@@ -74,10 +64,9 @@ public class ConfiguracionController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Configuracion> actualizar(@PathVariable Integer id, @RequestBody Configuracion configuracionActualizada) {
+    public ResponseEntity<Configuracion> actualizar(@PathVariable Integer id, @RequestBody Configuracion configuracionActualizada, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado();
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
 
             configuracionActualizada.setId(id);
             configuracionActualizada.setUsuario(
@@ -5,7 +5,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,17 +13,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.dto.PictogramaConCategorias;
 import com.example.app.dto.PictogramaConCategoriasInput;
 import com.example.app.dto.PictogramaSimple;
-import com.example.app.model.Usuario;
 import com.example.app.service.PictogramaService;
 import com.example.app.service.PictogramaService.AccesoPictogramaDenegadoException;
 import com.example.app.service.PictogramaService.PictogramaGeneralNoEliminableException;
 import com.example.app.service.PictogramaService.PictogramaNoEncontradoException;
-import com.example.app.service.UsuarioService;
 
 @RestController
 @RequestMapping("/pictogramas")
@@ -31,19 +31,6 @@ public class PictogramaController {
 
     @Autowired
     private PictogramaService pictogramaService;
-
-    @Autowired
-    private UsuarioService usuarioService;
-
-    private String getCorreoAutenticado() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (principal instanceof Usuario usuario) {
-            return usuario.getEmail();
-        }
-
-        return principal.toString();
-    }
     
 
     @PostMapping("/general")
@@ -55,20 +42,18 @@ public class PictogramaController {
     }
     
     @PostMapping
-    public ResponseEntity<PictogramaConCategorias> createPictograma(@RequestBody PictogramaConCategoriasInput input) {
+    public ResponseEntity<PictogramaConCategorias> createPictograma(@RequestBody PictogramaConCategoriasInput input, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
         if (input.getNombre() == null || input.getTipo() == null) {
             return ResponseEntity.badRequest().build();
         }
 
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+        Long usuarioId = autenticado.getId();
         return ResponseEntity.ok(pictogramaService.crearPictograma(input, usuarioId));
     }
 
     @PostMapping("/yo")
-    public ResponseEntity<PictogramaConCategorias> createPictogramaUsuario(@RequestBody PictogramaConCategoriasInput input) {
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+    public ResponseEntity<PictogramaConCategorias> createPictogramaUsuario(@RequestBody PictogramaConCategoriasInput input, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.getId();
         return ResponseEntity.ok(pictogramaService.crearPictograma(input,usuarioId));
     }
 
@@ -90,9 +75,8 @@ public class PictogramaController {
 
     
     @GetMapping("/{id}")
-    public ResponseEntity<PictogramaConCategorias> getPictogramaById(@PathVariable Long id) {
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+    public ResponseEntity<PictogramaConCategorias> getPictogramaById(@PathVariable Long id, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.getId();
 
         return ResponseEntity.ok(pictogramaService.obtenerPictogramaConCategorias(id, usuarioId));
     }
@@ -101,13 +85,14 @@ public class PictogramaController {
     @PutMapping("/{id}")
     public ResponseEntity<PictogramaConCategorias> updatePictograma(
             @PathVariable Long id,
-            @RequestBody PictogramaConCategoriasInput input) {
+            @RequestBody PictogramaConCategoriasInput input,
+            @AuthenticationPrincipal UsuarioAutenticado autenticado
+    ) {
         
     	if (input.getNombre() == null || input.getTipo() == null) {
             return ResponseEntity.badRequest().build();
         }
-        String correo = getCorreoAutenticado();
-        Long idAutenticado = usuarioService.obtenerId(correo);
+        Long idAutenticado = autenticado.getId();
 
         PictogramaConCategorias actualizado = pictogramaService.actualizarPictograma(idAutenticado,id, input);
         return ResponseEntity.ok(actualizado);
@@ -115,9 +100,8 @@ public class PictogramaController {
 
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePictograma(@PathVariable Long id) {
-        String correo = getCorreoAutenticado();
-        Long idAutenticado = usuarioService.obtenerId(correo);
+    public ResponseEntity<Void> deletePictograma(@PathVariable Long id, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long idAutenticado = autenticado.getId();
 
         try {
             pictogramaService.eliminarPictograma(id, idAutenticado);
@@ -130,9 +114,8 @@ public class PictogramaController {
     }
 
     @GetMapping("/{id}/con-categorias")
-    public ResponseEntity<PictogramaConCategorias> getPictogramaConCategorias(@PathVariable Long id) {
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+    public ResponseEntity<PictogramaConCategorias> getPictogramaConCategorias(@PathVariable Long id, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.getId();
 
         try {
             PictogramaConCategorias dto = pictogramaService.obtenerPictogramaConCategorias(id, usuarioId);
@@ -149,10 +132,9 @@ public class PictogramaController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PictogramaSimple>> getPictogramasVisibles() {
+    public ResponseEntity<List<PictogramaSimple>> getPictogramasVisibles(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado();
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
             List<PictogramaSimple> pictogramas = pictogramaService.obtenerPictogramasVisibles(usuarioId);
             if (pictogramas.isEmpty()) {
                 return ResponseEntity.noContent().build();
@@ -164,12 +146,30 @@ public class PictogramaController {
         }
     }
     
+    @GetMapping("/buscar")
+    public ResponseEntity<List<PictogramaSimple>> buscarPictogramas(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limite,
+            @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        return ResponseEntity.ok(pictogramaService.buscarPictogramas(q, autenticado.getId(), limite));
+    }
+
+    // Tolera erratas ("pero" encuentra "perro")
+    @GetMapping("/parecidos")
+    public ResponseEntity<List<PictogramaSimple>> buscarPictogramasParecidos(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limite,
+            @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        return ResponseEntity.ok(pictogramaService.buscarPictogramasParecidos(q, autenticado.getId(), limite));
+    }
+
     @GetMapping("/por-categoria/{categoriaId}")
     public ResponseEntity<List<PictogramaSimple>> getPictogramasPorCategoria(
-        @PathVariable Long categoriaId) {
+        @PathVariable Long categoriaId,
+            @AuthenticationPrincipal UsuarioAutenticado autenticado
+    ) {
 
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+        Long usuarioId = autenticado.getId();
 
         List<PictogramaSimple> pictogramas = pictogramaService.obtenerPictogramasPorCategoria(categoriaId, usuarioId);
         
@@ -5,18 +5,18 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.dto.PictogramaConCategorias;
-import com.example.app.model.Usuario;
 import com.example.app.service.PictogramaOcultoService;
-import com.example.app.service.UsuarioService;
 
 @RestController
 @RequestMapping("/pictogramas-ocultos")
@@ -25,24 +25,12 @@ public class PictogramaOcultoController {
     @Autowired
     private PictogramaOcultoService pictogramaOcultoService;
     
-    @Autowired
-    private UsuarioService usuarioService;
 
     
-    private String getCorreoAutenticado() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (principal instanceof Usuario usuario) {
-            return usuario.getEmail();
-        }
-
-        return principal.toString();
-    }
     
     @PostMapping("/ocultar")
-    public ResponseEntity<String> ocultarPictograma(@RequestParam Long pictogramaId) {
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+    public ResponseEntity<String> ocultarPictograma(@RequestParam Long pictogramaId, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.getId();
 
         boolean resultado = pictogramaOcultoService.ocultarPorIds(pictogramaId, usuarioId);
         if (!resultado) {
@@ -52,9 +40,8 @@ public class PictogramaOcultoController {
     }
 
     @DeleteMapping("/desocultar")
-    public ResponseEntity<String> desocultarPictograma(@RequestParam Long pictogramaId) {
-        String correo = getCorreoAutenticado();
-        Long usuarioId = usuarioService.obtenerId(correo);
+    public ResponseEntity<String> desocultarPictograma(@RequestParam Long pictogramaId, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.getId();
 
         boolean resultado = pictogramaOcultoService.desocultarPorIds(pictogramaId, usuarioId);
         if (!resultado) {
@@ -63,7 +50,17 @@ public class PictogramaOcultoController {
         return ResponseEntity.ok("Pictograma desocultado correctamente");
     }
 
-    
+    // Para ocultar o mostrar de una vez muchos pictogramas; responden cuántos han cambiado
+    @PostMapping("/ocultar-varios")
+    public ResponseEntity<Integer> ocultarVarios(@RequestBody List<Long> pictogramaIds, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        return ResponseEntity.ok(pictogramaOcultoService.ocultarVarios(autenticado.getId(), pictogramaIds));
+    }
+
+    @PostMapping("/desocultar-varios")
+    public ResponseEntity<Integer> desocultarVarios(@RequestBody List<Long> pictogramaIds, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        return ResponseEntity.ok(pictogramaOcultoService.desocultarVarios(autenticado.getId(), pictogramaIds));
+    }
+
     @GetMapping("/es-oculto")
     public ResponseEntity<Boolean> estaOculto(@RequestParam Long pictogramaId, @RequestParam Long usuarioId) {
         boolean resultado = pictogramaOcultoService.estaOculto(pictogramaId, usuarioId);
@@ -71,10 +68,9 @@ public class PictogramaOcultoController {
     }
 
     @GetMapping("/usuario")
-    public ResponseEntity<List<PictogramaConCategorias>> getPictogramasOcultos() {
+    public ResponseEntity<List<PictogramaConCategorias>> getPictogramasOcultos(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
-            String correo = getCorreoAutenticado(); 
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
             List<PictogramaConCategorias> ocultos = pictogramaOcultoService.obtenerPictogramasOcultos(usuarioId);
             
             return ResponseEntity.ok(ocultos);
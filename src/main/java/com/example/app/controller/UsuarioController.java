@@ -5,7 +5,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.app.config.security.UsuarioAutenticado;
 import com.example.app.dto.UsuarioSimple;
 import com.example.app.model.Usuario;
 import com.example.app.service.UsuarioService;
@@ -22,22 +23,13 @@ import com.example.app.service.UsuarioService;
 public class UsuarioController {
 
 	
-	 private String getCorreoAutenticado() {
-	        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-	        if (principal instanceof Usuario usuario) {
-	            return usuario.getEmail();
-	        }
-
-	        return principal.toString();
-	    }
     @Autowired
     private UsuarioService usuarioService;
 
     
     @PutMapping("/yo")
-    public ResponseEntity<?> actualizarUsuario(@RequestBody UsuarioSimple datos) {
-        String correo = getCorreoAutenticado();
+    public ResponseEntity<?> actualizarUsuario(@RequestBody UsuarioSimple datos, @AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        String correo = autenticado.getEmail();
 
         return usuarioService.editarUsuario(correo, datos)
                 .map(usuario -> ResponseEntity.ok("Usuario actualizado"))
@@ -55,11 +47,10 @@ public class UsuarioController {
     }
 
     @GetMapping("/yo")
-    public ResponseEntity<UsuarioSimple> getUsuarioActual() {
+    public ResponseEntity<UsuarioSimple> getUsuarioActual(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
         try {
         	
-            String correo = getCorreoAutenticado(); 
-            Long usuarioId = usuarioService.obtenerId(correo);
+            Long usuarioId = autenticado.getId();
 
             return usuarioService.obtenerPorId(usuarioId)
                 .map(usuario -> {
@@ -78,8 +69,8 @@ public class UsuarioController {
 
 
     @DeleteMapping("/me")
-    public ResponseEntity<Object> eliminarMiCuenta() {
-        String correo = getCorreoAutenticado();
+    public ResponseEntity<Object> eliminarMiCuenta(@AuthenticationPrincipal UsuarioAutenticado autenticado) {
+        String correo = autenticado.getEmail();
         boolean eliminado = usuarioService.eliminarUsuario(correo);
 
         if (eliminado) {
@@ -10,7 +10,8 @@ public class Configuracion implements Serializable {
     private static final long serialVersionUID = 1L;
 
 	@Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "configuraciones_seq")
+    @SequenceGenerator(name = "configuraciones_seq", sequenceName = "configuraciones_seq", allocationSize = 50)
     @Column(name="id")
     private Integer id;
 
@@ -11,7 +11,8 @@ import jakarta.validation.constraints.NotNull;
 public class Frase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "frases_seq")
+    @SequenceGenerator(name = "frases_seq", sequenceName = "frases_seq", allocationSize = 50)
     @Column(name="id")
     private Long idFrase;
 
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -17,7 +18,8 @@ import jakarta.validation.constraints.NotNull;
 public class Pictograma {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pictogramas_seq")
+    @SequenceGenerator(name = "pictogramas_seq", sequenceName = "pictogramas_seq", allocationSize = 50)
     @Column(name="id")
     private Long id; 
 
@@ -3,11 +3,15 @@ package com.example.app.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "pictogramas_categoria")
+@Table(name = "pictogramas_categoria", indexes = {
+    @Index(name = "idx_pc_usuario_categoria", columnList = "usuario_id, categoria_id, eliminada, pictograma_id"),
+    @Index(name = "idx_pc_usuario_pictograma", columnList = "usuario_id, pictograma_id, categoria_id")
+})
 public class PictogramaCategoria {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pictogramas_categoria_seq")
+    @SequenceGenerator(name = "pictogramas_categoria_seq", sequenceName = "pictogramas_categoria_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -22,6 +26,10 @@ public class PictogramaCategoria {
     @JoinColumn(name = "categoria_id", nullable = false)
     private Categoria categoria;
 
+    // Solo en filas de usuario: marca una relación general que el usuario ha quitado de su tablero
+    @Column(name = "eliminada", nullable = false)
+    private boolean eliminada = false;
+
     public PictogramaCategoria() {}
 
     public PictogramaCategoria(Usuario usuario, Pictograma pictograma, Categoria categoria) {
@@ -46,6 +54,10 @@ public class PictogramaCategoria {
         return categoria;
     }
 
+    public boolean isEliminada() {
+        return eliminada;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -61,4 +73,8 @@ public class PictogramaCategoria {
     public void setCategoria(Categoria categoria) {
         this.categoria = categoria;
     }
+
+    public void setEliminada(boolean eliminada) {
+        this.eliminada = eliminada;
+    }
 }
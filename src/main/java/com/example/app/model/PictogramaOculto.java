@@ -8,11 +8,13 @@ import jakarta.persistence.*;
 })
 public class PictogramaOculto {
 
+    // Las filas solo se insertan con INSERT IGNORE desde PictogramaOcultoRepository, que no pasa por
+    // Hibernate: el id lo pone la base de datos
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", referencedColumnName = "id", nullable = false)
     private Usuario usuario;
 
@@ -0,0 +1,100 @@
+package com.example.app.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.*;
+
+/**
+ * Refresh token opaco. Solo se guarda el SHA-256 del token; todos los tokens que salen de
+ * un mismo login comparten familia, de modo que si se reutiliza uno ya rotado se puede
+ * revocar la familia entera.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_familia", columnList = "familia"),
+    @Index(name = "idx_refresh_tokens_expira_en", columnList = "expira_en")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuario;
+
+    @Column(name = "hash", length = 64, nullable = false, unique = true)
+    private String hash;
+
+    @Column(name = "familia", length = 36, nullable = false)
+    private String familia;
+
+    // Versión de sesión del usuario cuando se emitió el token
+    @Column(name = "version_sesion", nullable = false)
+    private int versionSesion;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    @Column(name = "usado", nullable = false)
+    private boolean usado = false;
+
+    @Column(name = "revocado", nullable = false)
+    private boolean revocado = false;
+
+    // Cuándo se rotó; pasada la ventana de reutilización la fila ya se puede borrar
+    @Column(name = "usado_en")
+    private Instant usadoEn;
+
+    public RefreshToken() {}
+
+    public RefreshToken(Usuario usuario, String hash, String familia, int versionSesion, Instant expiraEn) {
+        this.usuario = usuario;
+        this.hash = hash;
+        this.familia = familia;
+        this.versionSesion = versionSesion;
+        this.expiraEn = expiraEn;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getFamilia() {
+        return familia;
+    }
+
+    public int getVersionSesion() {
+        return versionSesion;
+    }
+
+    public Instant getExpiraEn() {
+        return expiraEn;
+    }
+
+    public boolean isUsado() {
+        return usado;
+    }
+
+    public boolean isRevocado() {
+        return revocado;
+    }
+
+    public Instant getUsadoEn() {
+        return usadoEn;
+    }
+}
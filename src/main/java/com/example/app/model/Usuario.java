@@ -2,6 +2,9 @@ package com.example.app.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -12,6 +15,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -21,7 +27,8 @@ import jakarta.validation.constraints.NotNull;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -35,11 +42,21 @@ public class Usuario {
     @Column(name = "correo", unique = true)
     private String email;
 
+    // Correo en minúsculas y sin espacios: es la columna por la que se busca (índice único)
+    @JsonIgnore
+    @Column(name = "correo_normalizado", unique = true)
+    private String emailNormalizado;
+
 
 
     @Column(name = "contrasena_hash")
     private String contrasena;
 
+    // Se incrementa al cambiar la contraseña: invalida de golpe todos los refresh tokens emitidos antes
+    @JsonIgnore
+    @Column(name = "version_sesion", nullable = false)
+    private int versionSesion = 0;
+
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PictogramaOculto> pictogramasOcultos = new ArrayList<>();
 
@@ -51,13 +68,13 @@ public class Usuario {
     public Usuario(Long id, String nombre, String email, String contrasenaHash, String metodoAutenticacion) {
         this.id = id;
         this.nombre = nombre;
-        this.email = email;
+        setEmail(email);
         this.contrasena = contrasenaHash;
     }
 
     public Usuario(String nombre, String email, String contrasenaHash, String metodoAutenticacion) {
         this.nombre = nombre;
-        this.email = email;
+        setEmail(email);
         this.contrasena = contrasenaHash;
     }
 
@@ -84,6 +101,21 @@ public class Usuario {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalizado = normalizarEmail(email);
+    }
+
+    public String getEmailNormalizado() {
+        return emailNormalizado;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void actualizarEmailNormalizado() {
+        this.emailNormalizado = normalizarEmail(email);
+    }
+
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
  
@@ -96,6 +128,14 @@ public class Usuario {
         this.contrasena = contrasenaHash;
     }
 
+    public int getVersionSesion() {
+        return versionSesion;
+    }
+
+    public void setVersionSesion(int versionSesion) {
+        this.versionSesion = versionSesion;
+    }
+
     public List<PictogramaOculto> getPictogramasOcultos() {
         return pictogramasOcultos;
     }
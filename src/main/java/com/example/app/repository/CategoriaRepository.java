@@ -17,9 +17,11 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     
 
     
+    // UNION ALL en lugar de OR: cada rama busca en el índice de usuario_id por separado
     @Query("""
-    	    SELECT c FROM Categoria c
-    	    WHERE c.usuario IS NULL OR c.usuario.id = :usuarioId
+    	    SELECT c FROM Categoria c WHERE c.usuario IS NULL
+    	    UNION ALL
+    	    SELECT c FROM Categoria c WHERE c.usuario.id = :usuarioId
     	""")
     	List<Categoria> findCategoriasVisiblesParaUsuario(@Param("usuarioId") Long usuarioId);
 
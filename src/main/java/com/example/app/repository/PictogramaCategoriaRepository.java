@@ -1,5 +1,6 @@
 package com.example.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,29 +16,45 @@ import jakarta.transaction.Transactional;
 
 public interface PictogramaCategoriaRepository extends JpaRepository<PictogramaCategoria, Long> {
 
+    /*
+     * Relaciones efectivas de un usuario: las que ha añadido (RELACION_PROPIA) más las generales
+     * que no ha quitado (RELACION_GENERAL_NO_QUITADA). Las filas de usuario con eliminada = true
+     * anulan la relación general equivalente. Cada consulta las junta con UNION ALL en lugar de
+     * un OR: con el OR la base de datos no puede buscar por usuario_id en el índice y recorre
+     * las relaciones de todos los usuarios; con dos ramas cada una busca en el índice por su
+     * usuario_id (= :usuarioId o IS NULL). Las ramas no se solapan, así que no hace falta UNION.
+     * Los pictogramas ocultos no se excluyen aquí: los filtra OcultosPorUsuario en memoria.
+     */
+    String RELACION_PROPIA = "pc.usuario.id = :usuarioId AND pc.eliminada = false";
+
+    String RELACION_GENERAL_NO_QUITADA = """
+        pc.usuario IS NULL AND NOT EXISTS (
+              SELECT t.id FROM PictogramaCategoria t
+              WHERE t.usuario.id = :usuarioId
+                AND t.eliminada = true
+                AND t.pictograma = pc.pictograma
+                AND t.categoria = pc.categoria)
+        """;
+
     @Query("""
         SELECT pc FROM PictogramaCategoria pc
         WHERE pc.usuario.id = :usuarioId
     """)
     List<PictogramaCategoria> findAllByUsuarioId(@Param("usuarioId") Long usuarioId);
 
-    @Query("""
-    	    SELECT pc FROM PictogramaCategoria pc
-    	    LEFT JOIN PictogramaOculto po ON po.pictograma.id = pc.pictograma.id AND po.usuario.id = :usuarioId
-    	    WHERE pc.categoria.id = :categoriaId
-    	      AND (pc.usuario.id = :usuarioId)
-    	      AND po.id IS NULL
-    	""")
+    @Query("SELECT pc FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND " + RELACION_GENERAL_NO_QUITADA)
     	List<PictogramaCategoria> findByCategoriaIdAndUsuarioId(
     	    @Param("categoriaId") Long categoriaId,
     	    @Param("usuarioId") Long usuarioId
     	);
 
-  
-    @Query("""
-        SELECT pc FROM PictogramaCategoria pc
-        WHERE pc.pictograma.id = :pictogramaId AND pc.usuario.id = :usuarioId
-    """)
+    @Query("SELECT pc FROM PictogramaCategoria pc JOIN FETCH pc.pictograma JOIN FETCH pc.categoria WHERE " + RELACION_PROPIA
+        + " UNION ALL SELECT pc FROM PictogramaCategoria pc JOIN FETCH pc.pictograma JOIN FETCH pc.categoria WHERE " + RELACION_GENERAL_NO_QUITADA)
+    	List<PictogramaCategoria> buscarRelacionesEfectivasDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query("SELECT pc FROM PictogramaCategoria pc WHERE pc.pictograma.id = :pictogramaId AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc FROM PictogramaCategoria pc WHERE pc.pictograma.id = :pictogramaId AND " + RELACION_GENERAL_NO_QUITADA)
     List<PictogramaCategoria> findByPictogramaIdAndUsuarioId(
         @Param("pictogramaId") Long pictogramaId,
         @Param("usuarioId") Long usuarioId
@@ -52,49 +69,79 @@ public interface PictogramaCategoriaRepository extends JpaRepository<PictogramaC
         @Param("categoriaId") Long categoriaId,
         @Param("usuarioId") Long usuarioId
     );
-    @Query("SELECT pc FROM PictogramaCategoria pc WHERE pc.usuario.id = :usuarioId")
+    @Query("SELECT pc FROM PictogramaCategoria pc WHERE " + RELACION_PROPIA
+        + " UNION ALL SELECT pc FROM PictogramaCategoria pc WHERE " + RELACION_GENERAL_NO_QUITADA)
     List<PictogramaCategoria> buscarPorUsuario(@Param("usuarioId") Long usuarioId);
 
-    @Modifying
-    @Query("""
-        DELETE FROM PictogramaCategoria pc
-        WHERE pc.pictograma.id = :pictogramaId
-        AND pc.categoria.id = :categoriaId
-        AND pc.usuario.id = :usuarioId
-    """)
-    void eliminarRelacionPorUsuario(
-        @Param("pictogramaId") Long pictogramaId,
-        @Param("categoriaId") Long categoriaId,
-        @Param("usuarioId") Long usuarioId
-    );
-    
     @Query("SELECT pc FROM PictogramaCategoria pc WHERE pc.usuario IS NULL")
     List<PictogramaCategoria> findAllGenerales();
 
+    @Query("SELECT pc.categoria.id, pc.pictograma.id FROM PictogramaCategoria pc WHERE pc.usuario IS NULL")
+    List<Object[]> findIdsRelacionesGenerales();
+
+    @Query("SELECT COUNT(pc) > 0 FROM PictogramaCategoria pc WHERE pc.usuario IS NULL AND pc.pictograma.id = :pictogramaId AND pc.categoria.id = :categoriaId")
+    boolean existeRelacionGeneral(@Param("pictogramaId") Long pictogramaId, @Param("categoriaId") Long categoriaId);
+
+    @Query("SELECT pc.pictograma.id FROM PictogramaCategoria pc WHERE pc.usuario IS NULL AND pc.categoria.id = :categoriaId")
+    List<Long> buscarIdsPictogramasGeneralesDeCategoria(@Param("categoriaId") Long categoriaId);
+
+    @Query("SELECT pc.categoria.id FROM PictogramaCategoria pc WHERE pc.usuario IS NULL AND pc.pictograma.id = :pictogramaId")
+    List<Long> buscarIdsCategoriasGeneralesDePictograma(@Param("pictogramaId") Long pictogramaId);
+
     @Modifying
     @Query("DELETE FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND ( pc.usuario.id = :usuarioId)")
     void eliminarRelacionesPorCategoriaYUsuario(@Param("categoriaId") Long categoriaId, @Param("usuarioId") Long usuarioId);
 
+    @Modifying
+    @Query("DELETE FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND pc.usuario IS NULL")
+    void eliminarRelacionesGeneralesPorCategoria(@Param("categoriaId") Long categoriaId);
+
+    // Relaciones añadidas por usuarios que ya son generales (la categoría general ganó el pictograma después)
+    @Query("""
+        SELECT pc.id FROM PictogramaCategoria pc
+        WHERE pc.categoria.id = :categoriaId
+          AND pc.usuario IS NOT NULL
+          AND pc.eliminada = false
+          AND EXISTS (
+              SELECT g.id FROM PictogramaCategoria g
+              WHERE g.usuario IS NULL
+                AND g.categoria = pc.categoria
+                AND g.pictograma = pc.pictograma)
+    """)
+    List<Long> buscarCopiasDeRelacionesGenerales(@Param("categoriaId") Long categoriaId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM PictogramaCategoria pc WHERE pc.usuario.id = :usuarioId AND pc.pictograma.id = :pictogramaId")
     void eliminarPorUsuarioYPictograma(@Param("usuarioId") Long usuarioId, @Param("pictogramaId") Long pictogramaId);
     
-    @Query("SELECT pc.categoria FROM PictogramaCategoria pc WHERE pc.pictograma.id = :pictogramaId AND pc.usuario.id = :usuarioId")
+    @Query("SELECT pc.categoria FROM PictogramaCategoria pc WHERE pc.pictograma.id = :pictogramaId AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc.categoria FROM PictogramaCategoria pc WHERE pc.pictograma.id = :pictogramaId AND " + RELACION_GENERAL_NO_QUITADA)
     List<Categoria> buscarCategoriasDePictogramaPorUsuario(@Param("pictogramaId") Long pictogramaId, @Param("usuarioId") Long usuarioId);
 
-    @Query("""
-    	    SELECT pc.pictograma FROM PictogramaCategoria pc
-    	    LEFT JOIN PictogramaOculto po ON po.pictograma = pc.pictograma AND po.usuario.id = :usuarioId
-    	    WHERE pc.categoria.id = :categoriaId
-    	      AND pc.usuario.id = :usuarioId
-    	      AND po.id IS NULL
-    	""")
+    @Query("SELECT pc.pictograma.id, c FROM PictogramaCategoria pc JOIN pc.categoria c"
+        + " WHERE pc.pictograma.id IN :pictogramaIds AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc.pictograma.id, c FROM PictogramaCategoria pc JOIN pc.categoria c"
+        + " WHERE pc.pictograma.id IN :pictogramaIds AND " + RELACION_GENERAL_NO_QUITADA)
+    	List<Object[]> buscarCategoriasDePictogramasPorUsuario(
+    	    @Param("pictogramaIds") Collection<Long> pictogramaIds,
+    	    @Param("usuarioId") Long usuarioId
+    	);
+
+    @Query("SELECT pc.pictograma FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc.pictograma FROM PictogramaCategoria pc WHERE pc.categoria.id = :categoriaId AND " + RELACION_GENERAL_NO_QUITADA)
     	List<Pictograma> obtenerPictogramasDeCategoriaPorUsuario(
     	    @Param("categoriaId") Long categoriaId,
     	    @Param("usuarioId") Long usuarioId
     	);
 
+    @Query("SELECT pc.categoria.id, pc.pictograma FROM PictogramaCategoria pc WHERE pc.categoria.id IN :categoriaIds AND " + RELACION_PROPIA
+        + " UNION ALL SELECT pc.categoria.id, pc.pictograma FROM PictogramaCategoria pc WHERE pc.categoria.id IN :categoriaIds AND " + RELACION_GENERAL_NO_QUITADA)
+    	List<Object[]> obtenerPictogramasDeCategoriasPorUsuario(
+    	    @Param("categoriaIds") Collection<Long> categoriaIds,
+    	    @Param("usuarioId") Long usuarioId
+    	);
+
 
 
 }
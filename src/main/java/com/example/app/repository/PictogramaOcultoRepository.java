@@ -1,5 +1,6 @@
 package com.example.app.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,9 +32,26 @@ public interface PictogramaOcultoRepository extends JpaRepository<PictogramaOcul
     
     boolean existsByPictogramaIdAndUsuarioId(Long pictogramaId, Long usuarioId);
     
-    @Query("SELECT po FROM PictogramaOculto po WHERE po.usuario.id = :idUsuario")
+    @Query("SELECT po FROM PictogramaOculto po JOIN FETCH po.pictograma WHERE po.usuario.id = :idUsuario")
     List<PictogramaOculto> obtenerPictogramasOcultosPorUsuario(@Param("idUsuario") Long usuarioId);
 
+    @Query("SELECT p.pictograma.id FROM PictogramaOculto p WHERE p.usuario.id = :usuarioId")
+    List<Long> buscarIdsPictogramasOcultos(@Param("usuarioId") Long usuarioId);
+
+    // Una sola sentencia e idempotente: los ya ocultos se ignoran y los ids que no existen no se insertan
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO pictogramas_ocultos (usuario_id, pictograma_id)
+        SELECT :usuarioId, p.id FROM pictogramas p WHERE p.id IN (:pictogramaIds)
+        """, nativeQuery = true)
+    int ocultar(@Param("usuarioId") Long usuarioId, @Param("pictogramaIds") Collection<Long> pictogramaIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PictogramaOculto p WHERE p.usuario.id = :usuarioId AND p.pictograma.id IN :pictogramaIds")
+    int desocultar(@Param("usuarioId") Long usuarioId, @Param("pictogramaIds") Collection<Long> pictogramaIds);
+
 
 
 }
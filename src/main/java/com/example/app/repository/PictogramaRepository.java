@@ -26,16 +26,19 @@ public interface PictogramaRepository extends JpaRepository<Pictograma, Long> {
 
     @Query("""
     	    SELECT p FROM Pictograma p
-    	    LEFT JOIN PictogramaOculto po ON po.pictograma.id = p.id AND po.usuario.id = :usuarioId
     	    WHERE (p.usuario IS NULL OR p.usuario.id = :usuarioId)
-    	    AND po.id IS NULL
     	""")
-    	List<Pictograma> findPictogramasVisiblesParaUsuario(@Param("usuarioId") Long usuarioId);
+    	List<Pictograma> findPictogramasGeneralesYPersonalizados(@Param("usuarioId") Long usuarioId);
+
+	// Datos mínimos de los pictogramas para el índice de búsqueda por nombre
+	@Query("SELECT p.id, p.nombre, p.imagen, p.tipo FROM Pictograma p WHERE p.usuario IS NULL")
+	List<Object[]> buscarDatosParaIndiceGeneral();
+
+	@Query("SELECT p.id, p.nombre, p.imagen, p.tipo FROM Pictograma p WHERE p.usuario.id = :usuarioId")
+	List<Object[]> buscarDatosParaIndiceDeUsuario(@Param("usuarioId") Long usuarioId);
 
 	Optional<Pictograma> findByUsuarioIsNull();
 	
-	@Query("SELECT COUNT(p) > 0 FROM Pictograma p WHERE LOWER(p.nombre) = LOWER(:nombre) AND p.usuario IS NULL")
-	boolean existsPictogramaGeneralByNombre(@Param("nombre") String nombre);
 
 
  
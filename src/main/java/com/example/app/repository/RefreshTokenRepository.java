@@ -0,0 +1,43 @@
+package com.example.app.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.app.model.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+	@Query("SELECT r FROM RefreshToken r JOIN FETCH r.usuario WHERE r.hash = :hash")
+	Optional<RefreshToken> buscarPorHash(@Param("hash") String hash);
+
+	// Marca el token como usado solo si nadie lo ha hecho antes (0 filas = ya se había usado)
+	@Modifying
+	@Query("UPDATE RefreshToken r SET r.usado = true, r.usadoEn = :ahora WHERE r.id = :id AND r.usado = false")
+	int marcarUsado(@Param("id") Long id, @Param("ahora") Instant ahora);
+
+	@Modifying
+	@Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.familia = :familia")
+	int revocarFamilia(@Param("familia") String familia);
+
+	// Tokens ya rotados de la familia cuya ventana de reutilización ha pasado
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.familia = :familia AND r.usado = true AND r.usadoEn < :limite")
+	int borrarUsadosDeFamilia(@Param("familia") String familia, @Param("limite") Instant limite);
+
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.expiraEn < :ahora")
+	int borrarCaducados(@Param("ahora") Instant ahora);
+
+	// Un token revocado o rotado hace tiempo ya no sirve; si alguien lo presenta no se encuentra
+	// y se rechaza igual
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.revocado = true OR (r.usado = true AND r.usadoEn < :limite)")
+	int borrarRevocadosYUsados(@Param("limite") Instant limite);
+}
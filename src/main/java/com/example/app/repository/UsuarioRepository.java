@@ -1,5 +1,6 @@
 package com.example.app.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,9 +10,19 @@ import org.springframework.data.repository.query.Param;
 import com.example.app.model.Usuario;
 public interface UsuarioRepository extends JpaRepository<Usuario,Long>{
 
-	@Query("SELECT u FROM Usuario u WHERE LOWER(u.email) = LOWER(:email)")
-	Optional<Usuario> buscarPorEmail(@Param("email") String email);
+	// Igualdad sobre la columna normalizada para que MySQL use el índice único
+	@Query("SELECT u FROM Usuario u WHERE u.emailNormalizado = :emailNormalizado")
+	Optional<Usuario> buscarPorEmailNormalizado(@Param("emailNormalizado") String emailNormalizado);
+
+	default Optional<Usuario> buscarPorEmail(String email) {
+		return email == null ? Optional.empty() : buscarPorEmailNormalizado(Usuario.normalizarEmail(email));
+	}
 
 	@Query("SELECT u FROM Usuario u WHERE u.id = :id")
     Optional<Usuario> buscarPorId(@Param("id") Long id);
+
+	// Prefijo "$2a$NN$" de las contraseñas BCrypt, del coste más usado al menos usado
+	@Query("SELECT SUBSTRING(u.contrasena, 1, 7) FROM Usuario u WHERE u.contrasena LIKE '$2%' "
+		+ "GROUP BY SUBSTRING(u.contrasena, 1, 7) ORDER BY COUNT(u) DESC")
+	List<String> buscarPrefijosDeContrasenaPorFrecuencia();
 }
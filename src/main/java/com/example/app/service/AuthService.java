@@ -1,28 +1,27 @@
 package com.example.app.service;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // <--- IMPORTE IMPORTANTE
 
+import com.example.app.config.security.BCryptAdaptativo;
+import com.example.app.config.security.CacheUsuariosAutenticados;
 import com.example.app.model.Configuracion;     // <--- IMPORTE IMPORTANTE
-import com.example.app.model.PictogramaCategoria;
 import com.example.app.model.TipoVoz;          // <--- IMPORTE IMPORTANTE
 import com.example.app.model.Usuario;
 import com.example.app.repository.ConfiguracionRepository; // <--- IMPORTE IMPORTANTE
-import com.example.app.repository.PictogramaCategoriaRepository;
 import com.example.app.repository.UsuarioRepository;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class AuthService {
 
-	
-	@Autowired
-	private PictogramaCategoriaRepository pictogramaCategoriaRepository;
     @Autowired
     private UsuarioRepository usuarioRepository;
 
@@ -31,6 +30,30 @@ public class AuthService {
 
     @Autowired
     private ConfiguracionRepository configuracionRepository; 
+
+    @Autowired
+    private CacheUsuariosAutenticados cacheUsuarios;
+
+    // Hash con el que se compara cuando el correo no existe
+    private String hashFicticio;
+
+    /**
+     * Genera al arrancar el hash ficticio con el coste que tienen la mayoría de contraseñas
+     * guardadas, no con el del encoder: hasta que cada usuario vuelve a entrar su hash conserva
+     * el coste antiguo, y un correo inexistente no debe tardar más que una contraseña errónea.
+     * Sin contraseñas guardadas se usa el coste del encoder.
+     */
+    @PostConstruct
+    public void prepararHashFicticio() {
+        String aleatoria = UUID.randomUUID().toString();
+        int coste = usuarioRepository.buscarPrefijosDeContrasenaPorFrecuencia().stream()
+            .findFirst()
+            .map(BCryptAdaptativo::costeDe)
+            .orElse(-1);
+        hashFicticio = coste > 0
+            ? new BCryptPasswordEncoder(coste).encode(aleatoria)
+            : passwordEncoder.encode(aleatoria);
+    }
     
     private boolean esContrasenaSegura(String contrasena) {
         if (contrasena == null) return false;
@@ -64,18 +87,34 @@ public class AuthService {
 
         nuevoUsuario.setConfiguracion(configuracionDefault);
 
-        inicializarRelacionesParaUsuarioNuevo(nuevoUsuario);
-
         return true; 
     }
 
-    public boolean autenticarUsuario(String email, String contrasenaPlano) {
-        Optional<Usuario> usuarioOpt = usuarioRepository.buscarPorEmail(email);
-        if (usuarioOpt.isEmpty()) return false;
+    /**
+     * Comprueba las credenciales con una sola búsqueda del usuario. Si el correo no existe
+     * (o la cuenta no tiene contraseña) se compara igualmente contra un hash ficticio para que
+     * la respuesta tarde lo mismo y no se pueda averiguar qué correos están registrados.
+     */
+    public ResultadoLogin autenticar(String email, String contrasenaPlano) {
+        Usuario usuario = usuarioRepository.buscarPorEmail(email).orElse(null);
+        String hash = usuario != null ? usuario.getContrasena() : null;
+
+        if (hash == null || hash.isBlank()) {
+            passwordEncoder.matches(contrasenaPlano, hashFicticio);
+            return ResultadoLogin.fallo(MotivoFalloLogin.CREDENCIALES_INVALIDAS);
+        }
+
+        if (!passwordEncoder.matches(contrasenaPlano, hash)) {
+            return ResultadoLogin.fallo(MotivoFalloLogin.CREDENCIALES_INVALIDAS);
+        }
 
-        Usuario usuario = usuarioOpt.get();
+        // Solo ahora se conoce la contraseña en claro: si se cifró con otro coste se actualiza
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            usuario.setContrasena(passwordEncoder.encode(contrasenaPlano));
+            usuarioRepository.save(usuario);
+        }
 
-        return passwordEncoder.matches(contrasenaPlano, usuario.getContrasena());
+        return ResultadoLogin.exito(usuario);
     }
 
     @Transactional 
@@ -103,27 +142,6 @@ public class AuthService {
         return usuarioRepository.buscarPorEmail(email);
     }
     
-    @Transactional
-    private void inicializarRelacionesParaUsuarioNuevo(Usuario usuario) {
-        if (usuario == null || usuario.getId() == null) {
-            throw new IllegalArgumentException("Usuario no válido para inicializar relaciones.");
-        }
-
-        List<PictogramaCategoria> relacionesGenerales = pictogramaCategoriaRepository.findAllGenerales();
-
-        List<PictogramaCategoria> nuevasRelaciones = new ArrayList<>(relacionesGenerales.size());
-
-        for (PictogramaCategoria general : relacionesGenerales) {
-            PictogramaCategoria relacion = new PictogramaCategoria();
-            relacion.setCategoria(general.getCategoria());
-            relacion.setPictograma(general.getPictograma());
-            relacion.setUsuario(usuario);
-            nuevasRelaciones.add(relacion);
-        }
-
-        pictogramaCategoriaRepository.saveAll(nuevasRelaciones);
-    }
-
     
     @Transactional
     public boolean cambiarContrasena(String email, String contrasenaActual, String nuevaContrasena) {
@@ -138,11 +156,45 @@ public class AuthService {
 
         String contrasenaEncriptada = passwordEncoder.encode(nuevaContrasena);
         usuario.setContrasena(contrasenaEncriptada);
+        // Revoca en O(1) todos los refresh tokens anteriores: dejan de coincidir con la versión
+        usuario.setVersionSesion(usuario.getVersionSesion() + 1);
         usuarioRepository.save(usuario);
+        cacheUsuarios.invalidar(usuario.getEmail());
 
         return true;
     }
 
-     
-    
-}
\ No newline at end of file
+    public enum MotivoFalloLogin {
+        CREDENCIALES_INVALIDAS
+    }
+
+    public static final class ResultadoLogin {
+        private final Usuario usuario;
+        private final MotivoFalloLogin motivo;
+
+        private ResultadoLogin(Usuario usuario, MotivoFalloLogin motivo) {
+            this.usuario = usuario;
+            this.motivo = motivo;
+        }
+
+        static ResultadoLogin exito(Usuario usuario) {
+            return new ResultadoLogin(usuario, null);
+        }
+
+        static ResultadoLogin fallo(MotivoFalloLogin motivo) {
+            return new ResultadoLogin(null, motivo);
+        }
+
+        public boolean isAutenticado() {
+            return usuario != null;
+        }
+
+        public Usuario getUsuario() {
+            return usuario;
+        }
+
+        public MotivoFalloLogin getMotivo() {
+            return motivo;
+        }
+    }
+}
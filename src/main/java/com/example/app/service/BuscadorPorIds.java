@@ -0,0 +1,54 @@
+package com.example.app.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resuelve listas de ids con consultas IN por lotes y devuelve los resultados
+ * en el mismo orden en que se pidieron.
+ */
+final class BuscadorPorIds {
+
+    // Tamaño de cada IN para no superar los límites de parámetros de la base de datos
+    static final int TAMANO_LOTE = 1000;
+
+    private BuscadorPorIds() {}
+
+    static <T> List<T> buscarEnOrden(List<Long> ids,
+                                     Function<List<Long>, List<T>> consulta,
+                                     Function<T, Long> obtenerId) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        LinkedHashSet<Long> unicos = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                unicos.add(id);
+            }
+        }
+
+        List<Long> pendientes = new ArrayList<>(unicos);
+        Map<Long, T> encontrados = new HashMap<>(pendientes.size() * 2);
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANO_LOTE) {
+            List<Long> lote = pendientes.subList(desde, Math.min(desde + TAMANO_LOTE, pendientes.size()));
+            for (T entidad : consulta.apply(lote)) {
+                encontrados.put(obtenerId.apply(entidad), entidad);
+            }
+        }
+
+        // Se respeta el orden (y las repeticiones) de la petición; los ids inexistentes se omiten
+        List<T> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entidad = id != null ? encontrados.get(id) : null;
+            if (entidad != null) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+}
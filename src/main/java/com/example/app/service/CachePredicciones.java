@@ -0,0 +1,148 @@
+package com.example.app.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sugerencias ya validadas por frase (plegada con NormalizadorTexto), para no llamar al modelo
+ * cada vez que alguien empieza con "quiero" o "yo quiero comer". LRU acotada por capacidad y
+ * con caducidad.
+ *
+ * La validación depende del catálogo general, así que cada entrada recuerda la foto del
+ * catálogo con la que se validó y solo sirve a quien consulta con esa misma foto. Cuando
+ * llega una foto de una generación posterior se vacía la caché entera; las de generaciones
+ * anteriores (peticiones que empezaron antes de una recarga) ni leen ni guardan, para que no
+ * devuelvan la caché a la foto vieja.
+ */
+@Component
+public class CachePredicciones {
+
+    private final int capacidad;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    // LinkedHashMap en orden de acceso: al superar la capacidad se descarta la frase menos usada
+    private final Map<String, Entrada> entradas;
+    private CatalogoGeneral catalogoActual;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    @Autowired
+    public CachePredicciones(
+            @Value("${prediccion.cache.capacidad:5000}") int capacidad,
+            @Value("${prediccion.cache.ttl-segundos:600}") long ttlSegundos,
+            MeterRegistry registry) {
+        this(capacidad, ttlSegundos, registry, System::nanoTime);
+    }
+
+    public CachePredicciones(int capacidad, long ttlSegundos, MeterRegistry registry, LongSupplier reloj) {
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.reloj = reloj;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > CachePredicciones.this.capacidad;
+            }
+        };
+
+        FunctionCounter.builder("prediccion.cache.aciertos", aciertos, LongAdder::sum).register(registry);
+        FunctionCounter.builder("prediccion.cache.fallos", fallos, LongAdder::sum).register(registry);
+        Gauge.builder("prediccion.cache.tasa-aciertos", this, CachePredicciones::getTasaAciertos)
+            .description("Aciertos sobre el total de consultas a la caché de predicciones")
+            .register(registry);
+        Gauge.builder("prediccion.cache.tamano", this, CachePredicciones::getTamano).register(registry);
+    }
+
+    public Optional<String> obtener(String frase, CatalogoGeneral catalogo) {
+        Optional<String> sugerencia = comprobar(frase, catalogo);
+        if (sugerencia.isPresent()) {
+            aciertos.increment();
+        } else {
+            fallos.increment();
+        }
+        return sugerencia;
+    }
+
+    /** Como obtener() pero sin contar en las métricas: para volver a mirar una consulta ya contada. */
+    public Optional<String> comprobar(String frase, CatalogoGeneral catalogo) {
+        synchronized (entradas) {
+            if (!avanzarCatalogo(catalogo)) {
+                return Optional.empty();
+            }
+            Entrada entrada = entradas.get(frase);
+            if (entrada != null && entrada.catalogo == catalogo && reloj.getAsLong() - entrada.guardadaEn < ttlNanos) {
+                return Optional.of(entrada.sugerencia);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Guarda la sugerencia ya validada con 'catalogo'. */
+    public void guardar(String frase, CatalogoGeneral catalogo, String sugerencia) {
+        synchronized (entradas) {
+            // Si mientras se llamaba al modelo ha cambiado el catálogo, la validación ya no vale
+            if (!avanzarCatalogo(catalogo)) {
+                return;
+            }
+            entradas.put(frase, new Entrada(sugerencia, catalogo, reloj.getAsLong()));
+        }
+    }
+
+    /**
+     * Pasa a 'catalogo' si es más reciente que el actual. Devuelve false si es una foto
+     * anterior, que ya no debe leer ni escribir en la caché.
+     */
+    private boolean avanzarCatalogo(CatalogoGeneral catalogo) {
+        if (catalogoActual == null || catalogo.getGeneracion() > catalogoActual.getGeneracion()) {
+            entradas.clear();
+            catalogoActual = catalogo;
+        }
+        return catalogo == catalogoActual;
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public double getTasaAciertos() {
+        long a = aciertos.sum();
+        long total = a + fallos.sum();
+        return total == 0 ? 0.0 : (double) a / total;
+    }
+
+    public int getTamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private static final class Entrada {
+        private final String sugerencia;
+        private final CatalogoGeneral catalogo;
+        private final long guardadaEn;
+
+        private Entrada(String sugerencia, CatalogoGeneral catalogo, long guardadaEn) {
+            this.sugerencia = sugerencia;
+            this.catalogo = catalogo;
+            this.guardadaEn = guardadaEn;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.app.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.app.dto.CategoriaSimple;
+import com.example.app.dto.PictogramaSimple;
+import com.example.app.model.Categoria;
+import com.example.app.model.Pictograma;
+
+/**
+ * Foto inmutable del catálogo general (pictogramas, categorías y relaciones sin usuario).
+ * Los métodos de lectura devuelven copias de los DTO para que nadie pueda modificar la foto.
+ *
+ * Cada foto lleva un número de generación creciente. CatalogoGeneralService crea las fotos de
+ * una en una, así que una generación mayor es siempre una foto más reciente.
+ */
+public final class CatalogoGeneral {
+
+    private static final AtomicLong GENERACIONES = new AtomicLong();
+
+    private final long generacion = GENERACIONES.incrementAndGet();
+
+    private final Map<Long, PictogramaSimple> pictogramasPorId;
+    private final Map<Long, CategoriaSimple> categoriasPorId;
+    private final Map<Long, List<Long>> pictogramasPorCategoria;
+    private final Map<Long, List<Long>> categoriasPorPictograma;
+    // Nombre de cada pictograma general indexado por su forma plegada y por su lema, los dos
+    // conservando la ñ
+    private final Map<String, String> nombresPorPlegado;
+    private final Map<String, String> nombresPorLema;
+
+    /**
+     * @param relaciones pares {categoriaId, pictogramaId} de las relaciones generales
+     */
+    public CatalogoGeneral(List<Pictograma> pictogramas, List<Categoria> categorias, List<Object[]> relaciones) {
+        Map<Long, PictogramaSimple> pictos = new LinkedHashMap<>();
+        for (Pictograma p : pictogramas) {
+            pictos.put(p.getId(), new PictogramaSimple(p.getId(), p.getNombre(), p.getImagen(), p.getTipo()));
+        }
+
+        Map<String, String> porPlegado = new HashMap<>();
+        Map<String, String> porLema = new HashMap<>();
+        for (PictogramaSimple p : pictos.values()) {
+            if (p.getNombre() == null) {
+                continue;
+            }
+            porPlegado.putIfAbsent(NormalizadorTexto.plegarConEnie(p.getNombre()), p.getNombre());
+            porLema.putIfAbsent(NormalizadorTexto.lema(p.getNombre()), p.getNombre());
+        }
+
+        Map<Long, CategoriaSimple> cats = new LinkedHashMap<>();
+        for (Categoria c : categorias) {
+            cats.put(c.getId(), new CategoriaSimple(c.getId(), c.getNombre(), c.getImagen(), null));
+        }
+
+        Map<Long, Set<Long>> porCategoria = new HashMap<>();
+        Map<Long, Set<Long>> porPictograma = new HashMap<>();
+        for (Object[] fila : relaciones) {
+            Long categoriaId = (Long) fila[0];
+            Long pictogramaId = (Long) fila[1];
+            if (!cats.containsKey(categoriaId) || !pictos.containsKey(pictogramaId)) {
+                continue;
+            }
+            porCategoria.computeIfAbsent(categoriaId, k -> new LinkedHashSet<>()).add(pictogramaId);
+            porPictograma.computeIfAbsent(pictogramaId, k -> new LinkedHashSet<>()).add(categoriaId);
+        }
+
+        this.pictogramasPorId = Collections.unmodifiableMap(pictos);
+        this.categoriasPorId = Collections.unmodifiableMap(cats);
+        this.pictogramasPorCategoria = inmutable(porCategoria);
+        this.categoriasPorPictograma = inmutable(porPictograma);
+        this.nombresPorPlegado = Map.copyOf(porPlegado);
+        this.nombresPorLema = Map.copyOf(porLema);
+    }
+
+    public long getGeneracion() {
+        return generacion;
+    }
+
+    private static Map<Long, List<Long>> inmutable(Map<Long, Set<Long>> mapa) {
+        Map<Long, List<Long>> copia = new HashMap<>();
+        mapa.forEach((k, v) -> copia.put(k, List.copyOf(v)));
+        return Map.copyOf(copia);
+    }
+
+    public List<PictogramaSimple> getPictogramas() {
+        List<PictogramaSimple> resultado = new ArrayList<>(pictogramasPorId.size());
+        for (PictogramaSimple p : pictogramasPorId.values()) {
+            resultado.add(copiar(p));
+        }
+        return resultado;
+    }
+
+    public List<CategoriaSimple> getCategorias() {
+        List<CategoriaSimple> resultado = new ArrayList<>(categoriasPorId.size());
+        for (CategoriaSimple c : categoriasPorId.values()) {
+            resultado.add(copiar(c));
+        }
+        return resultado;
+    }
+
+    public List<String> getNombresPictogramas() {
+        List<String> nombres = new ArrayList<>(pictogramasPorId.size());
+        for (PictogramaSimple p : pictogramasPorId.values()) {
+            nombres.add(p.getNombre());
+        }
+        return nombres;
+    }
+
+    /**
+     * Nombre tal como está en el catálogo del pictograma general que se llama como 'nombre', sin
+     * tener en cuenta tildes, mayúsculas ni número ("perros" encuentra "Perro"). Si no hay
+     * ninguno se prueba con la forma masculina ("perras" encuentra "Perro"), que solo vale
+     * cuando ese masculino está en el catálogo: "caso" nunca encuentra "Casa". Gana siempre la
+     * coincidencia más literal.
+     */
+    public Optional<String> buscarNombrePictograma(String nombre) {
+        String plegado = NormalizadorTexto.plegarConEnie(nombre);
+        if (plegado.isEmpty()) {
+            return Optional.empty();
+        }
+        String exacto = nombresPorPlegado.get(plegado);
+        if (exacto != null) {
+            return Optional.of(exacto);
+        }
+        String lema = NormalizadorTexto.lema(plegado);
+        String porLema = nombresPorLema.get(lema);
+        if (porLema != null) {
+            return Optional.of(porLema);
+        }
+        return Optional.ofNullable(nombresPorLema.get(NormalizadorTexto.masculino(lema)));
+    }
+
+    public boolean contienePictograma(Long pictogramaId) {
+        return pictogramasPorId.containsKey(pictogramaId);
+    }
+
+    public boolean contieneRelacion(Long categoriaId, Long pictogramaId) {
+        return pictogramasPorCategoria.getOrDefault(categoriaId, List.of()).contains(pictogramaId);
+    }
+
+    public List<Long> getIdsPictogramasDeCategoria(Long categoriaId) {
+        return pictogramasPorCategoria.getOrDefault(categoriaId, List.of());
+    }
+
+    public List<Long> getIdsCategoriasDePictograma(Long pictogramaId) {
+        return categoriasPorPictograma.getOrDefault(pictogramaId, List.of());
+    }
+
+    public List<PictogramaSimple> getPictogramasDeCategoria(Long categoriaId) {
+        List<Long> ids = pictogramasPorCategoria.getOrDefault(categoriaId, List.of());
+        List<PictogramaSimple> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            resultado.add(copiar(pictogramasPorId.get(id)));
+        }
+        return resultado;
+    }
+
+    public List<CategoriaSimple> getCategoriasDePictograma(Long pictogramaId) {
+        List<Long> ids = categoriasPorPictograma.getOrDefault(pictogramaId, List.of());
+        List<CategoriaSimple> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            resultado.add(copiar(categoriasPorId.get(id)));
+        }
+        return resultado;
+    }
+
+    private static PictogramaSimple copiar(PictogramaSimple p) {
+        return new PictogramaSimple(p.getId(), p.getNombre(), p.getImagen(), p.getTipo());
+    }
+
+    private static CategoriaSimple copiar(CategoriaSimple c) {
+        return new CategoriaSimple(c.getId(), c.getNombre(), c.getImagen(), c.getUsuarioId());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.app.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.app.repository.CategoriaRepository;
+import com.example.app.repository.PictogramaCategoriaRepository;
+import com.example.app.repository.PictogramaRepository;
+
+/**
+ * Mantiene en memoria la foto del catálogo general. Se carga la primera vez que se pide
+ * y se sustituye de forma atómica cada vez que un administrador modifica el catálogo.
+ */
+@Service
+public class CatalogoGeneralService {
+
+    @Autowired
+    private PictogramaRepository pictogramaRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private PictogramaCategoriaRepository pictogramaCategoriaRepository;
+
+    private final AtomicReference<CatalogoGeneral> actual = new AtomicReference<>();
+
+    public CatalogoGeneral obtener() {
+        CatalogoGeneral catalogo = actual.get();
+        if (catalogo == null) {
+            synchronized (this) {
+                catalogo = actual.get();
+                if (catalogo == null) {
+                    catalogo = cargar();
+                    actual.set(catalogo);
+                }
+            }
+        }
+        return catalogo;
+    }
+
+    /**
+     * Vuelve a leer el catálogo general. Si hay una transacción en curso, la recarga se hace
+     * después del commit para no publicar cambios que todavía pueden deshacerse.
+     */
+    public void recargar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recargarAhora();
+                }
+            });
+        } else {
+            recargarAhora();
+        }
+    }
+
+    private synchronized void recargarAhora() {
+        actual.set(cargar());
+    }
+
+    private CatalogoGeneral cargar() {
+        return new CatalogoGeneral(
+            pictogramaRepository.findAllGenerales(),
+            categoriaRepository.findAllGenerales(),
+            pictogramaCategoriaRepository.findIdsRelacionesGenerales()
+        );
+    }
+}
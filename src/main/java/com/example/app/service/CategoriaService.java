@@ -1,8 +1,11 @@
 package com.example.app.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -17,11 +20,9 @@ import com.example.app.dto.PictogramaSimple;
 import com.example.app.model.Categoria;
 import com.example.app.model.Pictograma;
 import com.example.app.model.PictogramaCategoria;
-import com.example.app.model.PictogramaOculto;
 import com.example.app.model.Usuario;
 import com.example.app.repository.CategoriaRepository;
 import com.example.app.repository.PictogramaCategoriaRepository;
-import com.example.app.repository.PictogramaOcultoRepository;
 import com.example.app.repository.PictogramaRepository;
 import com.example.app.repository.UsuarioRepository;
 
@@ -41,9 +42,15 @@ public class CategoriaService {
 
     @Autowired
     private PictogramaRepository pictogramaRepository;
-    
+
+    @Autowired
+    private CatalogoGeneralService catalogoGeneralService;
+
+    @Autowired
+    private PictogramaCategoriaService pictogramaCategoriaService;
+
     @Autowired
-    private PictogramaOcultoRepository pictogramaOcultoRepository;
+    private OcultosPorUsuario ocultosPorUsuario;
 
 
     @Transactional
@@ -56,7 +63,7 @@ public class CategoriaService {
         Categoria guardada = categoriaRepository.save(categoria);
 
         if (input.getPictogramas() != null && !input.getPictogramas().isEmpty()) {
-            for (Long pictogramaId : input.getPictogramas()) {
+            for (Long pictogramaId : new LinkedHashSet<>(input.getPictogramas())) {
                 PictogramaCategoria relacion = new PictogramaCategoria();
                 relacion.setCategoria(guardada);
                 relacion.setPictograma(pictogramaRepository.buscarPorId(pictogramaId));
@@ -65,29 +72,33 @@ public class CategoriaService {
             }
         }
 
+        catalogoGeneralService.recargar();
+
         List<Pictograma> pictosFiltrados = obtenerPictogramasCategoriaParaUsuario(guardada.getId(), null);
         return convertirADTOConPictogramasFiltrados(guardada, pictosFiltrados);
     }
 
 
     public List<CategoriaConPictogramas> obtenerCategoriasGeneralesConPictogramas() {
-        List<Categoria> categorias = categoriaRepository.findAllGenerales();
-        List<CategoriaConPictogramas> resultado = new ArrayList<>();
-        for (Categoria c : categorias) {
-            List<Pictograma> pictos = obtenerPictogramasCategoriaParaUsuario(c.getId(), null);
-            resultado.add(convertirADTOConPictogramasFiltrados(c, pictos));
+        CatalogoGeneral catalogo = catalogoGeneralService.obtener();
+        List<CategoriaSimple> categorias = catalogo.getCategorias();
+
+        List<CategoriaConPictogramas> resultado = new ArrayList<>(categorias.size());
+        for (CategoriaSimple c : categorias) {
+            resultado.add(new CategoriaConPictogramas(
+                c.getId(),
+                c.getNombre(),
+                c.getImagen(),
+                catalogo.getPictogramasDeCategoria(c.getId()),
+                null
+            ));
         }
         return resultado;
     }
 
     public List<CategoriaConPictogramas> obtenerCategoriasPersonalizadasConPictogramas(Long usuarioId) {
         List<Categoria> categorias = categoriaRepository.findByUsuario_Id(usuarioId);
-        List<CategoriaConPictogramas> resultado = new ArrayList<>();
-        for (Categoria c : categorias) {
-            List<Pictograma> pictos = obtenerPictogramasCategoriaParaUsuario(c.getId(), usuarioId);
-            resultado.add(convertirADTOConPictogramasFiltrados(c, pictos));
-        }
-        return resultado;
+        return convertirListaADTOConPictogramas(categorias, usuarioId);
     }
 
     public Optional<CategoriaConPictogramas> obtenerCategoriaConPictogramasOpt(Long id, Long usuarioId) {
@@ -116,9 +127,14 @@ public class CategoriaService {
 
             Long usuarioId = categoria.getUsuario() != null ? categoria.getUsuario().getId() : null;
 
-            pictogramaCategoriaRepository.eliminarRelacionesPorCategoriaYUsuario(id, usuarioId);
+            // "usuario.id = null" no encuentra nada: las relaciones generales se borran aparte
+            if (usuarioId == null) {
+                pictogramaCategoriaRepository.eliminarRelacionesGeneralesPorCategoria(id);
+            } else {
+                pictogramaCategoriaRepository.eliminarRelacionesPorCategoriaYUsuario(id, usuarioId);
+            }
             if (input.getPictogramas() != null && !input.getPictogramas().isEmpty()) {
-                for (Long pictogramaId : input.getPictogramas()) {
+                for (Long pictogramaId : new LinkedHashSet<>(input.getPictogramas())) {
                     PictogramaCategoria relacion = new PictogramaCategoria();
                     relacion.setCategoria(actualizada);
                     relacion.setPictograma(pictogramaRepository.buscarPorId(pictogramaId));
@@ -127,6 +143,13 @@ public class CategoriaService {
                 }
             }
 
+            if (usuarioId == null) {
+                // Una relación que pasa a ser general no puede quedar repetida en las filas de usuario
+                pictogramaCategoriaRepository.deleteAllByIdInBatch(
+                    pictogramaCategoriaRepository.buscarCopiasDeRelacionesGenerales(id));
+                catalogoGeneralService.recargar();
+            }
+
             List<Pictograma> pictosFiltrados = obtenerPictogramasCategoriaParaUsuario(id, usuarioId);
 
             return convertirADTOConPictogramasFiltrados(actualizada, pictosFiltrados);
@@ -182,8 +205,40 @@ public class CategoriaService {
         );
     }
 
+    private List<CategoriaConPictogramas> convertirListaADTOConPictogramas(List<Categoria> categorias, Long usuarioId) {
+        Map<Long, List<Pictograma>> pictosPorCategoria = obtenerPictogramasCategoriasParaUsuario(categorias, usuarioId);
+
+        List<CategoriaConPictogramas> resultado = new ArrayList<>(categorias.size());
+        for (Categoria c : categorias) {
+            List<Pictograma> pictos = pictosPorCategoria.getOrDefault(c.getId(), List.of());
+            resultado.add(convertirADTOConPictogramasFiltrados(c, pictos));
+        }
+        return resultado;
+    }
+
+    private Map<Long, List<Pictograma>> obtenerPictogramasCategoriasParaUsuario(List<Categoria> categorias, Long usuarioId) {
+        Map<Long, List<Pictograma>> pictosPorCategoria = new HashMap<>();
+        if (categorias.isEmpty()) {
+            return pictosPorCategoria;
+        }
+
+        Set<Long> categoriaIds = new HashSet<>();
+        for (Categoria c : categorias) {
+            categoriaIds.add(c.getId());
+        }
+
+        List<Object[]> filas = ocultosPorUsuario.filtrarVisibles(usuarioId,
+            pictogramaCategoriaRepository.obtenerPictogramasDeCategoriasPorUsuario(categoriaIds, usuarioId),
+            fila -> ((Pictograma) fila[1]).getId());
+        for (Object[] fila : filas) {
+            pictosPorCategoria.computeIfAbsent((Long) fila[0], k -> new ArrayList<>()).add((Pictograma) fila[1]);
+        }
+        return pictosPorCategoria;
+    }
+
     public List<Pictograma> obtenerPictogramasCategoriaParaUsuario(Long categoriaId, Long usuarioId) {
-        return pictogramaCategoriaRepository.obtenerPictogramasDeCategoriaPorUsuario(categoriaId, usuarioId);
+        return ocultosPorUsuario.filtrarVisibles(usuarioId,
+            pictogramaCategoriaRepository.obtenerPictogramasDeCategoriaPorUsuario(categoriaId, usuarioId), Pictograma::getId);
     }
 
     public CategoriaConPictogramas crearCategoriaDeUsuario(CategoriaUsuarioInput input) {
@@ -198,7 +253,7 @@ public class CategoriaService {
         Categoria guardada = categoriaRepository.save(categoria);
 
         if (input.getPictogramas() != null && !input.getPictogramas().isEmpty()) {
-            for (Long pictoId : input.getPictogramas()) {
+            for (Long pictoId : new LinkedHashSet<>(input.getPictogramas())) {
                 Pictograma pictograma = pictogramaRepository.buscarPorId(pictoId);
 
                 PictogramaCategoria relacion = new PictogramaCategoria();
@@ -225,7 +280,7 @@ public class CategoriaService {
 
 
     public List<CategoriaSimple> obtenerCategoriasPorIds(List<Long> ids) {
-        List<Categoria> entidades = categoriaRepository.findAllById(ids);
+        List<Categoria> entidades = BuscadorPorIds.buscarEnOrden(ids, categoriaRepository::findAllById, Categoria::getId);
         return entidades.stream()
             .map(c -> {
                 Long usuarioId = null;
@@ -268,72 +323,47 @@ public class CategoriaService {
         if (pictogramaIds == null) {
             pictogramaIds = List.of(); // lista vacía
         }
-        pictogramaCategoriaRepository.eliminarRelacionesPorCategoriaYUsuario(categoriaId, usuarioId);
 
         Usuario usuario = new Usuario();
         usuario.setId(usuarioId);
 
-        for (Long pictogramaId : pictogramaIds) {
-            Pictograma pictograma = pictogramaRepository.buscarPorId(pictogramaId);
-
-            PictogramaCategoria nuevaRelacion = new PictogramaCategoria();
-            nuevaRelacion.setCategoria(categoria);
-            nuevaRelacion.setPictograma(pictograma);
-            nuevaRelacion.setUsuario(usuario);
-
-            pictogramaCategoriaRepository.save(nuevaRelacion);
-        }
+        pictogramaCategoriaService.reemplazarPictogramasDeCategoria(categoria, pictogramaIds, usuario);
     }
     public List<CategoriaConPictogramas> obtenerCategoriasConPictogramasVisibles(Long usuarioId) {
         List<Categoria> categorias = categoriaRepository.findCategoriasVisiblesParaUsuario(usuarioId);
 
-        List<PictogramaOculto> ocultos = pictogramaOcultoRepository.findByUsuarioId(usuarioId);
-        Set<Long> pictogramasOcultos = new HashSet<>();
-        for (PictogramaOculto po : ocultos) {
-            if (po.getPictograma() != null) {
-                pictogramasOcultos.add(po.getPictograma().getId());
+        // Una sola consulta para todas las relaciones del usuario; los ocultos se quitan en memoria
+        List<PictogramaCategoria> relaciones = ocultosPorUsuario.filtrarVisibles(usuarioId,
+            pictogramaCategoriaRepository.buscarRelacionesEfectivasDeUsuario(usuarioId),
+            rel -> rel.getPictograma() != null ? rel.getPictograma().getId() : null);
+
+        // La restricción única de pictogramas_categoria garantiza que no hay relaciones repetidas
+        Map<Long, List<PictogramaSimple>> pictosPorCategoria = new HashMap<>();
+
+        for (PictogramaCategoria rel : relaciones) {
+            Pictograma p = rel.getPictograma();
+            if (p == null || rel.getCategoria() == null) {
+                continue;
             }
+            Long categoriaId = rel.getCategoria().getId();
+            pictosPorCategoria.computeIfAbsent(categoriaId, k -> new ArrayList<>())
+                .add(new PictogramaSimple(p.getId(), p.getNombre(), p.getImagen(), p.getTipo()));
         }
 
-        List<CategoriaConPictogramas> resultado = new ArrayList<>();
+        List<CategoriaConPictogramas> resultado = new ArrayList<>(categorias.size());
 
         for (Categoria categoria : categorias) {
-            try {
-                List<PictogramaCategoria> relaciones = pictogramaCategoriaRepository
-                    .findByCategoriaIdAndUsuarioId(categoria.getId(), usuarioId);
-
-                Set<Long> idsAnadidos = new HashSet<>();
-                List<PictogramaSimple> pictos = new ArrayList<>();
-
-                for (PictogramaCategoria rel : relaciones) {
-                    Pictograma p = rel.getPictograma();
-                    if (p != null && !pictogramasOcultos.contains(p.getId()) && idsAnadidos.add(p.getId())) {
-                        PictogramaSimple dto = new PictogramaSimple(
-                            p.getId(),
-                            p.getNombre(),
-                            p.getImagen(),
-                            p.getTipo()
-                        );
-                        pictos.add(dto);
-                    }
-                }
-
-                Long usuarioCatId = (categoria.getUsuario() != null)
-                    ? categoria.getUsuario().getId()
-                    : null;
-
-                CategoriaConPictogramas dto = new CategoriaConPictogramas(
-                    categoria.getId(),
-                    categoria.getNombre(),
-                    categoria.getImagen(),
-                    pictos,
-                    usuarioCatId
-                );
-
-                resultado.add(dto);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            Long usuarioCatId = (categoria.getUsuario() != null)
+                ? categoria.getUsuario().getId()
+                : null;
+
+            resultado.add(new CategoriaConPictogramas(
+                categoria.getId(),
+                categoria.getNombre(),
+                categoria.getImagen(),
+                pictosPorCategoria.getOrDefault(categoria.getId(), new ArrayList<>()),
+                usuarioCatId
+            ));
         }
 
         return resultado;
@@ -0,0 +1,118 @@
+package com.example.app.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.app.dto.PrediccionSimple;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Llamadas al modelo de predicción (FastAPI). Nunca lanza excepción: si el modelo falla, tarda
+ * más que el timeout del RestTemplate o no se le puede llamar, devuelve vacío y quien llama
+ * usa su sugerencia por defecto.
+ *
+ * Como mucho 'maxConcurrentes' llamadas a la vez (bulkhead); las que no caben se rechazan sin
+ * esperar. Tras varios fallos seguidos el InterruptorCircuito deja de llamar al modelo durante
+ * un tiempo, así un contenedor caído no cuesta un timeout por petición.
+ */
+@Component
+public class ClienteModelo {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+    private final Semaphore permisos;
+    private final InterruptorCircuito interruptor;
+
+    private final Timer duracionOk;
+    private final Timer duracionError;
+    private final Counter rechazadosConcurrencia;
+    private final Counter rechazadosCircuito;
+
+    @Autowired
+    public ClienteModelo(RestTemplate restTemplate,
+            @Value("${prediccion.modelo.url:http://modelo:8000/predecir}") String url,
+            @Value("${prediccion.modelo.max-concurrentes:16}") int maxConcurrentes,
+            @Value("${prediccion.modelo.fallos-para-abrir:5}") int fallosParaAbrir,
+            @Value("${prediccion.modelo.segundos-abierto:30}") long segundosAbierto,
+            MeterRegistry registry) {
+        this(restTemplate, url, maxConcurrentes,
+            new InterruptorCircuito(fallosParaAbrir, segundosAbierto, TimeUnit.SECONDS), registry);
+    }
+
+    public ClienteModelo(RestTemplate restTemplate, String url, int maxConcurrentes,
+                         InterruptorCircuito interruptor, MeterRegistry registry) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+        this.permisos = new Semaphore(maxConcurrentes);
+        this.interruptor = interruptor;
+
+        this.duracionOk = Timer.builder("prediccion.modelo.duracion").tag("resultado", "ok").register(registry);
+        this.duracionError = Timer.builder("prediccion.modelo.duracion").tag("resultado", "error").register(registry);
+        this.rechazadosConcurrencia = Counter.builder("prediccion.modelo.rechazados").tag("motivo", "concurrencia").register(registry);
+        this.rechazadosCircuito = Counter.builder("prediccion.modelo.rechazados").tag("motivo", "circuito").register(registry);
+        Gauge.builder("prediccion.modelo.en-curso", permisos, p -> maxConcurrentes - p.availablePermits())
+            .description("Llamadas al modelo en curso")
+            .register(registry);
+        Gauge.builder("prediccion.modelo.circuito", interruptor, i -> i.getEstado().ordinal())
+            .description("Estado del circuito: 0 cerrado, 1 abierto, 2 semiabierto")
+            .register(registry);
+    }
+
+    /** Sugerencia del modelo para la frase, o vacío si no se ha podido obtener. */
+    public Optional<String> predecir(String frase) {
+        if (!permisos.tryAcquire()) {
+            rechazadosConcurrencia.increment();
+            return Optional.empty();
+        }
+        try {
+            // Después del semáforo: una llamada de prueba concedida tiene que llegar a ejecutarse
+            if (!interruptor.permitir()) {
+                rechazadosCircuito.increment();
+                return Optional.empty();
+            }
+            return llamar(frase);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private Optional<String> llamar(String frase) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, String>> request = new HttpEntity<>(Map.of("frase", frase), headers);
+
+        long inicio = System.nanoTime();
+        try {
+            ResponseEntity<PrediccionSimple> respuesta = restTemplate.postForEntity(url, request, PrediccionSimple.class);
+            Optional<String> sugerencia = Optional.ofNullable(respuesta.getBody()).map(PrediccionSimple::getSugerencia);
+            duracionOk.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            interruptor.exito();
+            return sugerencia;
+        } catch (RuntimeException e) {
+            // No solo RestClientException: cualquier error tiene que llegar al interruptor, o una
+            // llamada de prueba que falle así lo dejaría semiabierto y sin llamar nunca más
+            duracionError.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            interruptor.fallo();
+            return Optional.empty();
+        }
+    }
+
+    public InterruptorCircuito.Estado getEstadoCircuito() {
+        return interruptor.getEstado();
+    }
+}
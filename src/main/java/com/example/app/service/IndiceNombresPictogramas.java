@@ -0,0 +1,457 @@
+package com.example.app.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.app.dto.PictogramaSimple;
+import com.example.app.model.Pictograma;
+import com.example.app.repository.PictogramaRepository;
+
+/**
+ * Índice en memoria de los nombres de los pictogramas para buscar por prefijo. Cada nombre se
+ * guarda plegado con NormalizadorTexto y una vez por cada palabra con la que empieza un
+ * sufijo, así "fre" encuentra "helado de fresa". Es un mapa ordenado: las coincidencias de un
+ * prefijo son un rango contiguo y salen en orden alfabético.
+ *
+ * Para las búsquedas con erratas ("pero" por "perro") guarda además un TrieDifuso con el nombre
+ * plegado y cada una de sus palabras.
+ *
+ * Los pictogramas generales van en un índice común que se carga la primera vez que alguien
+ * busca. Los de cada usuario van en un índice pequeño aparte que se carga al buscar ese usuario
+ * y se descarta como en OcultosPorUsuario (por capacidad y por antigüedad); cada búsqueda mezcla
+ * los dos, así que su coste no depende de los pictogramas del resto de usuarios. Después
+ * PictogramaService mantiene los índices cargados al crear, editar o borrar pictogramas.
+ */
+@Component
+public class IndiceNombresPictogramas {
+
+    @Autowired
+    private PictogramaRepository pictogramaRepository;
+
+    @Autowired
+    private OcultosPorUsuario ocultosPorUsuario;
+
+    private static final Comparator<Clave> ORDEN =
+        Comparator.comparing(Clave::texto).thenComparingLong(Clave::pictogramaId);
+
+    // Erratas admitidas como máximo; las consultas cortas admiten menos porque en ellas una o
+    // dos letras cambiadas ya dan otra palabra ("sol", "col", "sal")
+    private static final int DISTANCIA_MAXIMA = 2;
+
+    private final Indice general = new Indice();
+    private volatile boolean generalCargado;
+
+    private final int capacidad;
+    private final long ttlNanos;
+
+    // LinkedHashMap en orden de acceso: al superar la capacidad se descarta el usuario menos usado.
+    // Mientras se carga un usuario su entrada es un marcador sin índice; un cambio de ese usuario
+    // quita el marcador y la carga solo se guarda si al terminar sigue encontrando el suyo
+    private final Map<Long, IndiceUsuario> porUsuario;
+
+    public IndiceNombresPictogramas(
+            @Value("${pictogramas.indice.capacidad:10000}") int capacidad,
+            @Value("${pictogramas.indice.ttl-segundos:3600}") long ttlSegundos) {
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.porUsuario = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, IndiceUsuario> eldest) {
+                return size() > IndiceNombresPictogramas.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Hasta 'limite' pictogramas visibles para el usuario (generales y suyos, sin los que ha
+     * ocultado) con alguna palabra que empiece por la consulta.
+     */
+    public List<PictogramaSimple> buscar(String consulta, Long usuarioId, int limite) {
+        String prefijo = NormalizadorTexto.plegar(consulta);
+        if (prefijo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Iterator<Map.Entry<Clave, Entrada>> propios = usuarioId != null
+            ? deUsuario(usuarioId).prefijo(prefijo)
+            : Collections.emptyIterator();
+        Iterator<Entrada> coincidencias = new Mezcla(general().prefijo(prefijo), propios);
+
+        List<PictogramaSimple> resultado = new ArrayList<>(limite);
+        Set<Long> vistos = new HashSet<>();
+        while (resultado.size() < limite && coincidencias.hasNext()) {
+            // Los ocultos se descartan por tandas para no consultar el mapa de bits uno a uno
+            List<Entrada> tanda = new ArrayList<>(limite);
+            while (tanda.size() < limite && coincidencias.hasNext()) {
+                Entrada entrada = coincidencias.next();
+                if (vistos.add(entrada.id)) {
+                    tanda.add(entrada);
+                }
+            }
+            for (Entrada entrada : ocultosPorUsuario.filtrarVisibles(usuarioId, tanda, e -> e.id)) {
+                if (resultado.size() == limite) {
+                    break;
+                }
+                resultado.add(new PictogramaSimple(entrada.id, entrada.nombre, entrada.imagen, entrada.tipo));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Como buscar(), pero tolerando erratas: pictogramas cuyo nombre, o alguna de sus palabras,
+     * está a una distancia de edición de la consulta de 1 (consultas de 3 a 5 letras) o de 2 (más
+     * largas), sin tener en cuenta tildes ni mayúsculas. Primero los más parecidos. Sin usuario
+     * solo busca entre los generales.
+     */
+    public List<PictogramaSimple> buscarParecidos(String consulta, Long usuarioId, int limite) {
+        String plegada = NormalizadorTexto.plegar(consulta);
+        if (plegada.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        int distancia = distanciaPermitida(plegada.length());
+
+        // Mejor puntuación de cada pictograma: la distancia, y a igual distancia el nombre entero
+        // antes que una de sus palabras
+        Map<Entrada, Integer> puntuaciones = new HashMap<>();
+        general().puntuar(plegada, distancia, puntuaciones);
+        if (usuarioId != null) {
+            deUsuario(usuarioId).puntuar(plegada, distancia, puntuaciones);
+        }
+
+        List<Entrada> candidatas = new ArrayList<>(puntuaciones.keySet());
+        candidatas.sort(Comparator.<Entrada>comparingInt(puntuaciones::get)
+            .thenComparing(e -> e.plegado)
+            .thenComparing(e -> e.id));
+
+        List<PictogramaSimple> resultado = new ArrayList<>(Math.min(limite, candidatas.size()));
+        for (Entrada entrada : ocultosPorUsuario.filtrarVisibles(usuarioId, candidatas, e -> e.id)) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            resultado.add(new PictogramaSimple(entrada.id, entrada.nombre, entrada.imagen, entrada.tipo));
+        }
+        return resultado;
+    }
+
+    private static int distanciaPermitida(int longitud) {
+        if (longitud <= 2) {
+            return 0;
+        }
+        return longitud <= 5 ? 1 : DISTANCIA_MAXIMA;
+    }
+
+    /**
+     * Añade o actualiza el pictograma. Los datos se copian ya; si hay una transacción en curso
+     * se publican tras el commit.
+     */
+    public void guardado(Pictograma pictograma) {
+        Long usuarioId = usuarioDe(pictograma);
+        Entrada entrada = new Entrada(pictograma.getId(), pictograma.getNombre(), pictograma.getImagen(),
+            pictograma.getTipo());
+        alConfirmar(() -> aplicar(usuarioId, entrada.id, entrada));
+    }
+
+    public void eliminado(Pictograma pictograma) {
+        Long usuarioId = usuarioDe(pictograma);
+        Long id = pictograma.getId();
+        alConfirmar(() -> aplicar(usuarioId, id, null));
+    }
+
+    /** Pictogramas en memoria: los generales y los de los usuarios cargados. */
+    public int getTamano() {
+        int tamano = general.tamano();
+        synchronized (porUsuario) {
+            for (IndiceUsuario indice : porUsuario.values()) {
+                if (!indice.cargando()) {
+                    tamano += indice.indice.tamano();
+                }
+            }
+        }
+        return tamano;
+    }
+
+    public int getUsuariosCargados() {
+        synchronized (porUsuario) {
+            return porUsuario.size();
+        }
+    }
+
+    private static Long usuarioDe(Pictograma pictograma) {
+        return pictograma.getUsuario() != null ? pictograma.getUsuario().getId() : null;
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private void aplicar(Long usuarioId, Long id, Entrada nueva) {
+        if (usuarioId == null) {
+            aplicarGeneral(id, nueva);
+            return;
+        }
+
+        IndiceUsuario cargado;
+        synchronized (porUsuario) {
+            cargado = porUsuario.get(usuarioId);
+            // Una carga en curso puede haber leído antes del cambio: que no se guarde
+            if (cargado != null && cargado.cargando()) {
+                porUsuario.remove(usuarioId);
+                return;
+            }
+        }
+        // Si el usuario no está cargado no hay nada que actualizar: la próxima carga ya lo lee
+        if (cargado != null) {
+            cargado.indice.poner(id, nueva);
+        }
+    }
+
+    // Mientras no se ha cargado no hay nada que actualizar: la carga ya lee el cambio confirmado.
+    // Se sincroniza con la carga para que un cambio confirmado durante ella no se pierda.
+    private synchronized void aplicarGeneral(Long id, Entrada nueva) {
+        if (generalCargado) {
+            general.poner(id, nueva);
+        }
+    }
+
+    private Indice general() {
+        if (generalCargado) {
+            return general;
+        }
+        synchronized (this) {
+            if (!generalCargado) {
+                for (Object[] fila : pictogramaRepository.buscarDatosParaIndiceGeneral()) {
+                    Entrada entrada = new Entrada((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3]);
+                    general.poner(entrada.id, entrada);
+                }
+                generalCargado = true;
+            }
+        }
+        return general;
+    }
+
+    private Indice deUsuario(Long usuarioId) {
+        IndiceUsuario marcador = new IndiceUsuario(null, 0);
+        synchronized (porUsuario) {
+            IndiceUsuario cargado = porUsuario.get(usuarioId);
+            if (cargado != null && !cargado.cargando() && System.nanoTime() - cargado.cargadoEn < ttlNanos) {
+                return cargado.indice;
+            }
+            porUsuario.put(usuarioId, marcador);
+        }
+
+        Indice indice = new Indice();
+        for (Object[] fila : pictogramaRepository.buscarDatosParaIndiceDeUsuario(usuarioId)) {
+            Entrada entrada = new Entrada((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3]);
+            indice.poner(entrada.id, entrada);
+        }
+
+        synchronized (porUsuario) {
+            if (porUsuario.get(usuarioId) == marcador) {
+                porUsuario.put(usuarioId, new IndiceUsuario(indice, System.nanoTime()));
+            }
+        }
+        return indice;
+    }
+
+    // Nombre plegado y cada sufijo que empieza en una palabra: "helado de fresa", "de fresa", "fresa"
+    private static List<String> sufijosDePalabra(String plegado) {
+        List<String> sufijos = new ArrayList<>();
+        if (plegado.isEmpty()) {
+            return sufijos;
+        }
+        sufijos.add(plegado);
+        for (int i = plegado.indexOf(' '); i >= 0; i = plegado.indexOf(' ', i + 1)) {
+            sufijos.add(plegado.substring(i + 1));
+        }
+        return sufijos;
+    }
+
+    /**
+     * Claves por prefijo y trie difuso de un conjunto de pictogramas. Las escrituras se
+     * serializan; las búsquedas leen en paralelo.
+     */
+    private static final class Indice {
+
+        private final ConcurrentSkipListMap<Clave, Entrada> claves = new ConcurrentSkipListMap<>(ORDEN);
+
+        // Entrada actual de cada pictograma, para poder quitar sus claves al editarlo o borrarlo
+        private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+
+        private final TrieDifuso<Long> trie = new TrieDifuso<>();
+        private final ReadWriteLock cerrojoTrie = new ReentrantReadWriteLock();
+
+        private Iterator<Map.Entry<Clave, Entrada>> prefijo(String prefijo) {
+            return claves
+                .subMap(new Clave(prefijo, Long.MIN_VALUE), new Clave(prefijo + Character.MAX_VALUE, Long.MIN_VALUE))
+                .entrySet().iterator();
+        }
+
+        private void puntuar(String plegada, int distancia, Map<Entrada, Integer> puntuaciones) {
+            List<TrieDifuso.Coincidencia<Long>> coincidencias;
+            cerrojoTrie.readLock().lock();
+            try {
+                coincidencias = trie.buscar(plegada, distancia);
+            } finally {
+                cerrojoTrie.readLock().unlock();
+            }
+
+            for (TrieDifuso.Coincidencia<Long> coincidencia : coincidencias) {
+                for (Long id : coincidencia.valores()) {
+                    Entrada entrada = porId.get(id);
+                    if (entrada == null) {
+                        continue;
+                    }
+                    int puntuacion = coincidencia.distancia() * 2 + (coincidencia.clave().equals(entrada.plegado) ? 0 : 1);
+                    puntuaciones.merge(entrada, puntuacion, Math::min);
+                }
+            }
+        }
+
+        /** Sustituye la entrada del pictograma; con nueva == null lo quita. */
+        private synchronized void poner(Long id, Entrada nueva) {
+            Entrada anterior = nueva != null ? porId.put(id, nueva) : porId.remove(id);
+            if (anterior != null) {
+                for (String texto : anterior.textos) {
+                    claves.remove(new Clave(texto, id));
+                }
+                cerrojoTrie.writeLock().lock();
+                try {
+                    for (String termino : anterior.terminos) {
+                        trie.quitar(termino, id);
+                    }
+                } finally {
+                    cerrojoTrie.writeLock().unlock();
+                }
+            }
+            if (nueva != null) {
+                for (String texto : nueva.textos) {
+                    claves.put(new Clave(texto, nueva.id), nueva);
+                }
+                cerrojoTrie.writeLock().lock();
+                try {
+                    for (String termino : nueva.terminos) {
+                        trie.anadir(termino, nueva.id);
+                    }
+                } finally {
+                    cerrojoTrie.writeLock().unlock();
+                }
+            }
+        }
+
+        private int tamano() {
+            return porId.size();
+        }
+    }
+
+    /**
+     * Recorre en orden dos rangos de claves ya ordenados (generales y del usuario).
+     */
+    private static final class Mezcla implements Iterator<Entrada> {
+
+        private final Iterator<Map.Entry<Clave, Entrada>> a;
+        private final Iterator<Map.Entry<Clave, Entrada>> b;
+        private Map.Entry<Clave, Entrada> siguienteA;
+        private Map.Entry<Clave, Entrada> siguienteB;
+
+        private Mezcla(Iterator<Map.Entry<Clave, Entrada>> a, Iterator<Map.Entry<Clave, Entrada>> b) {
+            this.a = a;
+            this.b = b;
+            this.siguienteA = a.hasNext() ? a.next() : null;
+            this.siguienteB = b.hasNext() ? b.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguienteA != null || siguienteB != null;
+        }
+
+        @Override
+        public Entrada next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entrada entrada;
+            if (siguienteB == null || (siguienteA != null && ORDEN.compare(siguienteA.getKey(), siguienteB.getKey()) <= 0)) {
+                entrada = siguienteA.getValue();
+                siguienteA = a.hasNext() ? a.next() : null;
+            } else {
+                entrada = siguienteB.getValue();
+                siguienteB = b.hasNext() ? b.next() : null;
+            }
+            return entrada;
+        }
+    }
+
+    private record Clave(String texto, long pictogramaId) {}
+
+    private static final class IndiceUsuario {
+        private final Indice indice;
+        private final long cargadoEn;
+
+        private IndiceUsuario(Indice indice, long cargadoEn) {
+            this.indice = indice;
+            this.cargadoEn = cargadoEn;
+        }
+
+        private boolean cargando() {
+            return indice == null;
+        }
+    }
+
+    private static final class Entrada {
+        private final Long id;
+        private final String nombre;
+        private final String imagen;
+        private final String tipo;
+        private final String plegado;
+        private final List<String> textos;
+        // Nombre plegado y sus palabras sueltas, para el trie difuso
+        private final Set<String> terminos;
+
+        private Entrada(Long id, String nombre, String imagen, String tipo) {
+            this.id = Objects.requireNonNull(id);
+            this.nombre = nombre;
+            this.imagen = imagen;
+            this.tipo = tipo;
+            this.plegado = NormalizadorTexto.plegar(nombre);
+            this.textos = sufijosDePalabra(plegado);
+            this.terminos = new LinkedHashSet<>();
+            if (!plegado.isEmpty()) {
+                terminos.add(plegado);
+                terminos.addAll(List.of(plegado.split(" ")));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.app.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por fallos consecutivos. Cerrado deja pasar todas las llamadas; tras
+ * 'fallosParaAbrir' fallos seguidos se abre y las rechaza durante 'tiempoAbierto'. Pasado ese
+ * tiempo deja pasar una sola llamada de prueba (semiabierto): si va bien se cierra y si falla
+ * vuelve a abrirse.
+ *
+ * Quien obtiene permiso con permitir() tiene que informar después con exito() o fallo().
+ */
+public class InterruptorCircuito {
+
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final int fallosParaAbrir;
+    private final long nanosAbierto;
+    private final LongSupplier reloj;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoDesde;
+
+    public InterruptorCircuito(int fallosParaAbrir, long tiempoAbierto, TimeUnit unidad) {
+        this(fallosParaAbrir, tiempoAbierto, unidad, System::nanoTime);
+    }
+
+    public InterruptorCircuito(int fallosParaAbrir, long tiempoAbierto, TimeUnit unidad, LongSupplier reloj) {
+        this.fallosParaAbrir = fallosParaAbrir;
+        this.nanosAbierto = unidad.toNanos(tiempoAbierto);
+        this.reloj = reloj;
+    }
+
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case CERRADO:
+                return true;
+            case ABIERTO:
+                if (reloj.getAsLong() - abiertoDesde >= nanosAbierto) {
+                    estado = Estado.SEMIABIERTO;
+                    return true;
+                }
+                return false;
+            default:
+                // Ya hay una llamada de prueba en curso
+                return false;
+        }
+    }
+
+    public synchronized void exito() {
+        fallosSeguidos = 0;
+        estado = Estado.CERRADO;
+    }
+
+    public synchronized void fallo() {
+        fallosSeguidos++;
+        if (estado == Estado.SEMIABIERTO || fallosSeguidos >= fallosParaAbrir) {
+            estado = Estado.ABIERTO;
+            abiertoDesde = reloj.getAsLong();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.app.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Conjunto de ids comprimido al estilo Roaring: los ids se agrupan por sus bits altos
+ * (id >>> 16) y cada grupo guarda los 16 bits bajos en el contenedor que ocupa menos.
+ * Con pocos ids el contenedor es un array ordenado de char (2 bytes por id) y, a partir
+ * de 4096 ids, un mapa de 65536 bits (8 KB fijos). Los ids de pictograma salen de una
+ * secuencia, así que casi siempre caben en uno o dos grupos.
+ *
+ * No es seguro para hilos: quien lo comparta tiene que sincronizar el acceso.
+ */
+public final class MapaBitsIds {
+
+    // Por encima de este tamaño el mapa de bits ocupa menos que el array
+    private static final int MAX_ARRAY = 4096;
+
+    private long[] claves = new long[0];
+    private Contenedor[] contenedores = new Contenedor[0];
+    private int grupos;
+    private int cardinalidad;
+
+    public static MapaBitsIds de(Collection<Long> ids) {
+        MapaBitsIds mapa = new MapaBitsIds();
+        for (Long id : ids) {
+            if (id != null) {
+                mapa.anadir(id);
+            }
+        }
+        return mapa;
+    }
+
+    public boolean contiene(long id) {
+        int i = Arrays.binarySearch(claves, 0, grupos, id >>> 16);
+        return i >= 0 && contenedores[i].contiene((char) id);
+    }
+
+    /** Devuelve true si el id no estaba. */
+    public boolean anadir(long id) {
+        long clave = id >>> 16;
+        int i = Arrays.binarySearch(claves, 0, grupos, clave);
+        if (i < 0) {
+            i = -i - 1;
+            insertarGrupo(i, clave);
+        }
+        int antes = contenedores[i].cardinalidad();
+        contenedores[i] = contenedores[i].anadir((char) id);
+        boolean anadido = contenedores[i].cardinalidad() != antes;
+        if (anadido) {
+            cardinalidad++;
+        }
+        return anadido;
+    }
+
+    /** Devuelve true si el id estaba. */
+    public boolean quitar(long id) {
+        int i = Arrays.binarySearch(claves, 0, grupos, id >>> 16);
+        if (i < 0) {
+            return false;
+        }
+        int antes = contenedores[i].cardinalidad();
+        contenedores[i] = contenedores[i].quitar((char) id);
+        if (contenedores[i].cardinalidad() == antes) {
+            return false;
+        }
+        cardinalidad--;
+        if (contenedores[i].cardinalidad() == 0) {
+            borrarGrupo(i);
+        }
+        return true;
+    }
+
+    public int cardinalidad() {
+        return cardinalidad;
+    }
+
+    /** Memoria aproximada de los contenedores, para dimensionar la caché. */
+    public long bytes() {
+        long total = (long) claves.length * (Long.BYTES + 4);
+        for (int i = 0; i < grupos; i++) {
+            total += contenedores[i].bytes();
+        }
+        return total;
+    }
+
+    private void insertarGrupo(int i, long clave) {
+        if (grupos == claves.length) {
+            int capacidad = Math.max(4, grupos * 2);
+            claves = Arrays.copyOf(claves, capacidad);
+            contenedores = Arrays.copyOf(contenedores, capacidad);
+        }
+        System.arraycopy(claves, i, claves, i + 1, grupos - i);
+        System.arraycopy(contenedores, i, contenedores, i + 1, grupos - i);
+        claves[i] = clave;
+        contenedores[i] = new ContenedorArray();
+        grupos++;
+    }
+
+    private void borrarGrupo(int i) {
+        System.arraycopy(claves, i + 1, claves, i, grupos - i - 1);
+        System.arraycopy(contenedores, i + 1, contenedores, i, grupos - i - 1);
+        grupos--;
+        contenedores[grupos] = null;
+    }
+
+    private interface Contenedor {
+        boolean contiene(char bajo);
+
+        // Devuelven el contenedor resultante, que puede ser de otro tipo
+        Contenedor anadir(char bajo);
+
+        Contenedor quitar(char bajo);
+
+        int cardinalidad();
+
+        long bytes();
+    }
+
+    private static final class ContenedorArray implements Contenedor {
+        private char[] valores = new char[4];
+        private int n;
+
+        @Override
+        public boolean contiene(char bajo) {
+            return Arrays.binarySearch(valores, 0, n, bajo) >= 0;
+        }
+
+        @Override
+        public Contenedor anadir(char bajo) {
+            int i = Arrays.binarySearch(valores, 0, n, bajo);
+            if (i >= 0) {
+                return this;
+            }
+            if (n == MAX_ARRAY) {
+                return new ContenedorBits(this).anadir(bajo);
+            }
+            i = -i - 1;
+            if (n == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(MAX_ARRAY, n * 2));
+            }
+            System.arraycopy(valores, i, valores, i + 1, n - i);
+            valores[i] = bajo;
+            n++;
+            return this;
+        }
+
+        @Override
+        public Contenedor quitar(char bajo) {
+            int i = Arrays.binarySearch(valores, 0, n, bajo);
+            if (i >= 0) {
+                System.arraycopy(valores, i + 1, valores, i, n - i - 1);
+                n--;
+            }
+            return this;
+        }
+
+        @Override
+        public int cardinalidad() {
+            return n;
+        }
+
+        @Override
+        public long bytes() {
+            return (long) valores.length * Character.BYTES;
+        }
+    }
+
+    private static final class ContenedorBits implements Contenedor {
+        private final long[] palabras = new long[65536 / 64];
+        private int n;
+
+        ContenedorBits(ContenedorArray array) {
+            for (int i = 0; i < array.n; i++) {
+                anadir(array.valores[i]);
+            }
+        }
+
+        @Override
+        public boolean contiene(char bajo) {
+            return (palabras[bajo >>> 6] & (1L << bajo)) != 0;
+        }
+
+        @Override
+        public Contenedor anadir(char bajo) {
+            long antes = palabras[bajo >>> 6];
+            palabras[bajo >>> 6] = antes | (1L << bajo);
+            if (palabras[bajo >>> 6] != antes) {
+                n++;
+            }
+            return this;
+        }
+
+        @Override
+        public Contenedor quitar(char bajo) {
+            long antes = palabras[bajo >>> 6];
+            palabras[bajo >>> 6] = antes & ~(1L << bajo);
+            if (palabras[bajo >>> 6] == antes) {
+                return this;
+            }
+            n--;
+            return n > MAX_ARRAY ? this : aArray();
+        }
+
+        private ContenedorArray aArray() {
+            ContenedorArray array = new ContenedorArray();
+            array.valores = new char[Math.max(4, n)];
+            for (int palabra = 0; palabra < palabras.length; palabra++) {
+                long bits = palabras[palabra];
+                while (bits != 0) {
+                    array.valores[array.n++] = (char) (palabra * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return array;
+        }
+
+        @Override
+        public int cardinalidad() {
+            return n;
+        }
+
+        @Override
+        public long bytes() {
+            return (long) palabras.length * Long.BYTES;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.app.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Forma canónica de los textos que se comparan al buscar: sin tildes ni diéresis, en
+ * minúsculas y con los espacios colapsados, así "Camión", "camion" y " CAMIÓN " coinciden.
+ * plegar() también pliega la ñ a n, que es como se escribe cuando el teclado no la tiene;
+ * plegarConEnie() la conserva para cuando "año" y "ano" no pueden ser lo mismo.
+ *
+ * lema() va un paso más allá y pliega además el número de cada palabra, así "perros" y
+ * "Perro" dan la misma clave. El género no entra en el lema porque "casa" y "caso" no son
+ * la misma palabra: masculino() propone la forma masculina y es quien la usa el que decide
+ * si existe.
+ */
+public final class NormalizadorTexto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private NormalizadorTexto() {}
+
+    public static String plegar(String texto) {
+        return plegar(texto, false);
+    }
+
+    public static String plegarConEnie(String texto) {
+        return plegar(texto, true);
+    }
+
+    private static String plegar(String texto, boolean conservarEnie) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        if (conservarEnie) {
+            descompuesto = descompuesto.replace("n\u0303", "ñ");
+        }
+        String sinMarcas = MARCAS.matcher(descompuesto).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas).replaceAll(" ").trim();
+    }
+
+    /**
+     * Texto plegado (conservando la ñ) con cada palabra reducida a una raíz común para singular
+     * y plural. La raíz no tiene por qué ser una palabra ("flores" y "flor" dan "flor", pero
+     * "madre" da "madr"): solo sirve como clave para comparar.
+     */
+    public static String lema(String texto) {
+        return porPalabras(plegarConEnie(texto), NormalizadorTexto::lemaDePalabra);
+    }
+
+    /**
+     * Lema con cada palabra femenina pasada a masculino ("perra" -> "perro", "profesora" ->
+     * "profesor"). Recibe un lema, no texto libre. Es una regla a ciegas que también convierte
+     * "casa" en "caso", así que el resultado solo vale si se encuentra tal cual en un índice.
+     */
+    public static String masculino(String lema) {
+        return porPalabras(lema, NormalizadorTexto::masculinoDePalabra);
+    }
+
+    private static String porPalabras(String texto, UnaryOperator<String> regla) {
+        if (texto.isEmpty()) {
+            return texto;
+        }
+        StringBuilder resultado = new StringBuilder(texto.length());
+        for (String palabra : texto.split(" ")) {
+            if (resultado.length() > 0) {
+                resultado.append(' ');
+            }
+            resultado.append(regla.apply(palabra));
+        }
+        return resultado.toString();
+    }
+
+    // Reglas sencillas del español; las palabras de tres letras o menos se dejan como están
+    // para no confundir "mes", "gas" o "dos" con plurales
+    private static String lemaDePalabra(String palabra) {
+        String raiz = palabra;
+        if (raiz.length() > 3 && raiz.endsWith("s")) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        // Plurales en -es: "flores", "camiones", "reyes", "peces". Se quita la e también del
+        // singular ("madre") para que las dos formas lleguen a la misma raíz
+        if (raiz.length() > 3 && raiz.endsWith("ce")) {
+            raiz = raiz.substring(0, raiz.length() - 2) + "z";
+        } else if (raiz.length() > 3 && raiz.endsWith("e") && "dlnrjyz".indexOf(raiz.charAt(raiz.length() - 2)) >= 0) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        return raiz;
+    }
+
+    private static String masculinoDePalabra(String palabra) {
+        if (palabra.length() > 3 && palabra.endsWith("ora")) {
+            return palabra.substring(0, palabra.length() - 1);
+        }
+        if (palabra.length() > 3 && palabra.endsWith("a")) {
+            return palabra.substring(0, palabra.length() - 1) + "o";
+        }
+        return palabra;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.app.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.app.repository.PictogramaOcultoRepository;
+
+/**
+ * Pictogramas ocultos de cada usuario en memoria, como un mapa de bits comprimido sobre los
+ * ids de pictograma. Se carga la primera vez que se consulta a un usuario y después se
+ * actualiza en el sitio al ocultar o desocultar, así que los tableros filtran los ocultos
+ * sin hacer el LEFT JOIN con pictogramas_ocultos.
+ */
+@Component
+public class OcultosPorUsuario {
+
+    private final PictogramaOcultoRepository pictogramaOcultoRepository;
+    private final int capacidad;
+    private final long ttlNanos;
+
+    // LinkedHashMap en orden de acceso: al superar la capacidad se descarta el usuario menos usado.
+    // Mientras se carga un usuario su entrada es un marcador sin ocultos; un cambio de ese usuario
+    // quita el marcador y la carga solo se guarda si al terminar sigue encontrando el suyo
+    private final Map<Long, Entrada> entradas;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public OcultosPorUsuario(
+            PictogramaOcultoRepository pictogramaOcultoRepository,
+            @Value("${pictogramas.ocultos.capacidad:10000}") int capacidad,
+            @Value("${pictogramas.ocultos.ttl-segundos:3600}") long ttlSegundos) {
+        this.pictogramaOcultoRepository = pictogramaOcultoRepository;
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                return size() > OcultosPorUsuario.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Devuelve los elementos de la lista cuyo pictograma no ha ocultado el usuario, en el
+     * mismo orden. Sin usuario no hay nada oculto y la lista se devuelve tal cual.
+     */
+    public <T> List<T> filtrarVisibles(Long usuarioId, List<T> elementos, Function<T, Long> pictogramaId) {
+        if (usuarioId == null || elementos.isEmpty()) {
+            return elementos;
+        }
+
+        MapaBitsIds ocultos = obtener(usuarioId);
+        synchronized (ocultos) {
+            if (ocultos.cardinalidad() == 0) {
+                return elementos;
+            }
+            List<T> visibles = new ArrayList<>(elementos.size());
+            for (T elemento : elementos) {
+                Long id = pictogramaId.apply(elemento);
+                if (id == null || !ocultos.contiene(id)) {
+                    visibles.add(elemento);
+                }
+            }
+            return visibles;
+        }
+    }
+
+    public boolean estaOculto(Long usuarioId, Long pictogramaId) {
+        if (usuarioId == null || pictogramaId == null) {
+            return false;
+        }
+        MapaBitsIds ocultos = obtener(usuarioId);
+        synchronized (ocultos) {
+            return ocultos.contiene(pictogramaId);
+        }
+    }
+
+    /**
+     * Marca los pictogramas como ocultos para el usuario. Si hay una transacción en curso el
+     * cambio se aplica tras el commit, para que nadie vea un oculto que luego se deshace.
+     */
+    public void ocultados(Long usuarioId, Collection<Long> pictogramaIds) {
+        alConfirmar(() -> aplicar(usuarioId, pictogramaIds, true));
+    }
+
+    public void desocultados(Long usuarioId, Collection<Long> pictogramaIds) {
+        alConfirmar(() -> aplicar(usuarioId, pictogramaIds, false));
+    }
+
+    /**
+     * Descarta lo cargado para el usuario (tras el commit si hay transacción); la próxima
+     * consulta lo vuelve a leer de la base de datos.
+     */
+    public void olvidar(Long usuarioId) {
+        alConfirmar(() -> {
+            synchronized (entradas) {
+                entradas.remove(usuarioId);
+            }
+        });
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private void aplicar(Long usuarioId, Collection<Long> pictogramaIds, boolean ocultar) {
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(usuarioId);
+            // Una carga en curso puede haber leído antes del cambio: que no se guarde
+            if (entrada != null && entrada.cargando()) {
+                entradas.remove(usuarioId);
+                return;
+            }
+        }
+        // Si el usuario no está cargado no hay nada que actualizar: la próxima carga ya lo lee
+        if (entrada == null) {
+            return;
+        }
+        synchronized (entrada.ocultos) {
+            for (Long id : pictogramaIds) {
+                if (id == null) {
+                    continue;
+                }
+                if (ocultar) {
+                    entrada.ocultos.anadir(id);
+                } else {
+                    entrada.ocultos.quitar(id);
+                }
+            }
+        }
+    }
+
+    private MapaBitsIds obtener(Long usuarioId) {
+        Entrada marcador = new Entrada(null, 0);
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(usuarioId);
+            if (entrada != null && !entrada.cargando() && System.nanoTime() - entrada.cargadaEn < ttlNanos) {
+                aciertos.increment();
+                return entrada.ocultos;
+            }
+            entradas.put(usuarioId, marcador);
+        }
+        fallos.increment();
+
+        MapaBitsIds ocultos = MapaBitsIds.de(pictogramaOcultoRepository.buscarIdsPictogramasOcultos(usuarioId));
+
+        synchronized (entradas) {
+            if (entradas.get(usuarioId) == marcador) {
+                entradas.put(usuarioId, new Entrada(ocultos, System.nanoTime()));
+            }
+        }
+        return ocultos;
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public int getTamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private static final class Entrada {
+        private final MapaBitsIds ocultos;
+        private final long cargadaEn;
+
+        private Entrada(MapaBitsIds ocultos, long cargadaEn) {
+            this.ocultos = ocultos;
+            this.cargadaEn = cargadaEn;
+        }
+
+        private boolean cargando() {
+            return ocultos == null;
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.example.app.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,6 +22,15 @@ import com.example.app.repository.PictogramaRepository;
 
 import jakarta.transaction.Transactional;
 
+/**
+ * Los usuarios heredan las relaciones generales sin copiarlas. Solo se guardan sus diferencias:
+ * relaciones añadidas (filas de usuario) y relaciones generales quitadas (filas con eliminada = true).
+ *
+ * Qué filas escribir se decide con las relaciones generales leídas de la base de datos dentro de
+ * la propia transacción, no con la instantánea de {@link CatalogoGeneralService}: esa puede ir
+ * por detrás de otra réplica o de una recarga en curso, y una diferencia mal calculada se queda
+ * guardada para siempre.
+ */
 @Service
 public class PictogramaCategoriaService {
 
@@ -35,22 +51,145 @@ public class PictogramaCategoriaService {
         Categoria categoria = categoriaRepository.findById(categoriaId)
             .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
 
-        PictogramaCategoria relacion = new PictogramaCategoria();
-        relacion.setPictograma(pictograma);
-        relacion.setCategoria(categoria);
-        relacion.setUsuario(usuario);
+        // Solo se escribe si falta: asignar dos veces la misma relación no añade otra fila
+        PictogramaCategoria existente = pictogramaCategoriaRepository
+            .findByPictogramaCategoriaUsuario(pictogramaId, categoriaId, usuario.getId());
 
-        pictogramaCategoriaRepository.save(relacion);
+        if (pictogramaCategoriaRepository.existeRelacionGeneral(pictogramaId, categoriaId)) {
+            // Relación general: basta con quitar la marca de eliminada si la hay
+            if (existente != null) {
+                pictogramaCategoriaRepository.delete(existente);
+            }
+        } else if (existente == null) {
+            pictogramaCategoriaRepository.save(new PictogramaCategoria(usuario, pictograma, categoria));
+        } else if (existente.isEliminada()) {
+            // Marca que quedó de cuando la relación era general: la fila pasa a ser una relación
+            // añadida por el usuario
+            existente.setEliminada(false);
+            pictogramaCategoriaRepository.save(existente);
+        }
     }
 
     @Transactional
     public void eliminarRelacion(Long pictogramaId, Long categoriaId, Usuario usuario) {
-        pictogramaCategoriaRepository.eliminarRelacionPorUsuario(
-            pictogramaId, categoriaId, usuario.getId()
-        );
+        PictogramaCategoria existente = pictogramaCategoriaRepository
+            .findByPictogramaCategoriaUsuario(pictogramaId, categoriaId, usuario.getId());
+
+        if (pictogramaCategoriaRepository.existeRelacionGeneral(pictogramaId, categoriaId)) {
+            if (existente == null) {
+                pictogramaCategoriaRepository.save(relacionEliminada(usuario,
+                    pictogramaRepository.getReferenceById(pictogramaId),
+                    categoriaRepository.getReferenceById(categoriaId)));
+            } else if (!existente.isEliminada()) {
+                existente.setEliminada(true);
+                pictogramaCategoriaRepository.save(existente);
+            }
+        } else if (existente != null) {
+            pictogramaCategoriaRepository.delete(existente);
+        }
     }
 
     public List<PictogramaCategoria> obtenerRelacionesDeUsuario(Usuario usuario) {
         return pictogramaCategoriaRepository.buscarPorUsuario(usuario.getId());
     }
+
+    /**
+     * Categorías que ve el usuario de cada pictograma de la lista, por id de pictograma. Hace
+     * una consulta por lote de ids en lugar de una por pictograma; los pictogramas sin
+     * categorías no aparecen en el mapa.
+     */
+    public Map<Long, List<Categoria>> buscarCategoriasPorPictograma(Collection<Pictograma> pictogramas, Long usuarioId) {
+        Map<Long, List<Categoria>> categoriasPorPictograma = new HashMap<>();
+        Set<Long> unicos = new LinkedHashSet<>();
+        for (Pictograma p : pictogramas) {
+            unicos.add(p.getId());
+        }
+
+        List<Long> ids = new ArrayList<>(unicos);
+        for (int desde = 0; desde < ids.size(); desde += BuscadorPorIds.TAMANO_LOTE) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + BuscadorPorIds.TAMANO_LOTE, ids.size()));
+            for (Object[] fila : pictogramaCategoriaRepository.buscarCategoriasDePictogramasPorUsuario(lote, usuarioId)) {
+                categoriasPorPictograma.computeIfAbsent((Long) fila[0], k -> new ArrayList<>()).add((Categoria) fila[1]);
+            }
+        }
+        return categoriasPorPictograma;
+    }
+
+    /**
+     * Deja en la categoría exactamente los pictogramas indicados para el usuario, guardando solo
+     * la diferencia con las relaciones generales de esa categoría.
+     */
+    @Transactional
+    public void reemplazarPictogramasDeCategoria(Categoria categoria, Collection<Long> pictogramaIds, Usuario usuario) {
+        pictogramaCategoriaRepository.eliminarRelacionesPorCategoriaYUsuario(categoria.getId(), usuario.getId());
+
+        Set<Long> deseados = new LinkedHashSet<>(pictogramaIds);
+        Set<Long> generales = new HashSet<>(
+            pictogramaCategoriaRepository.buscarIdsPictogramasGeneralesDeCategoria(categoria.getId()));
+
+        List<Long> anadidos = new ArrayList<>();
+        for (Long pictogramaId : deseados) {
+            if (!generales.contains(pictogramaId)) {
+                anadidos.add(pictogramaId);
+            }
+        }
+        // Los ids añadidos vienen de la petición: se comprueba que existan con una sola consulta
+        List<Pictograma> pictogramas = BuscadorPorIds.buscarEnOrden(anadidos, pictogramaRepository::findAllById, Pictograma::getId);
+        if (pictogramas.size() != anadidos.size()) {
+            throw new RuntimeException("Pictograma no encontrado");
+        }
+
+        List<PictogramaCategoria> cambios = new ArrayList<>();
+        for (Pictograma pictograma : pictogramas) {
+            cambios.add(new PictogramaCategoria(usuario, pictograma, categoria));
+        }
+        // Los generales se acaban de leer de la base de datos, así que existen
+        for (Long pictogramaId : generales) {
+            if (!deseados.contains(pictogramaId)) {
+                cambios.add(relacionEliminada(usuario, pictogramaRepository.getReferenceById(pictogramaId), categoria));
+            }
+        }
+        pictogramaCategoriaRepository.saveAll(cambios);
+    }
+
+    /**
+     * Deja el pictograma exactamente en las categorías indicadas para el usuario, guardando solo
+     * la diferencia con las relaciones generales de ese pictograma.
+     */
+    @Transactional
+    public void reemplazarCategoriasDePictograma(Pictograma pictograma, Collection<Long> categoriaIds, Usuario usuario) {
+        pictogramaCategoriaRepository.eliminarPorUsuarioYPictograma(usuario.getId(), pictograma.getId());
+
+        Set<Long> deseadas = new LinkedHashSet<>(categoriaIds);
+        Set<Long> generales = new HashSet<>(
+            pictogramaCategoriaRepository.buscarIdsCategoriasGeneralesDePictograma(pictograma.getId()));
+
+        List<Long> anadidas = new ArrayList<>();
+        for (Long categoriaId : deseadas) {
+            if (!generales.contains(categoriaId)) {
+                anadidas.add(categoriaId);
+            }
+        }
+        List<Categoria> categorias = BuscadorPorIds.buscarEnOrden(anadidas, categoriaRepository::findAllById, Categoria::getId);
+        if (categorias.size() != anadidas.size()) {
+            throw new RuntimeException("Categoría no encontrada");
+        }
+
+        List<PictogramaCategoria> cambios = new ArrayList<>();
+        for (Categoria categoria : categorias) {
+            cambios.add(new PictogramaCategoria(usuario, pictograma, categoria));
+        }
+        for (Long categoriaId : generales) {
+            if (!deseadas.contains(categoriaId)) {
+                cambios.add(relacionEliminada(usuario, pictograma, categoriaRepository.getReferenceById(categoriaId)));
+            }
+        }
+        pictogramaCategoriaRepository.saveAll(cambios);
+    }
+
+    private PictogramaCategoria relacionEliminada(Usuario usuario, Pictograma pictograma, Categoria categoria) {
+        PictogramaCategoria relacion = new PictogramaCategoria(usuario, pictograma, categoria);
+        relacion.setEliminada(true);
+        return relacion;
+    }
 }
@@ -1,22 +1,20 @@
 package com.example.app.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.app.dto.CategoriaSimple;
 import com.example.app.dto.PictogramaConCategorias;
 import com.example.app.model.Categoria;
 import com.example.app.model.Pictograma;
 import com.example.app.model.PictogramaOculto;
-import com.example.app.model.Usuario;
-import com.example.app.repository.PictogramaCategoriaRepository;
 import com.example.app.repository.PictogramaOcultoRepository;
-import com.example.app.repository.PictogramaRepository;
-import com.example.app.repository.UsuarioRepository;
 
 @Service
 public class PictogramaOcultoService {
@@ -25,54 +23,72 @@ public class PictogramaOcultoService {
     private PictogramaOcultoRepository repository;
 
     @Autowired
-    private PictogramaRepository pictogramaRepository;
+    private PictogramaCategoriaService pictogramaCategoriaService;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private OcultosPorUsuario ocultosPorUsuario;
 
-    
-    @Autowired
-    private PictogramaCategoriaRepository pictogramaCategoriaRepository;
+    public boolean ocultarPorIds(Long pictogramaId, Long usuarioId) {
+        return ocultarVarios(usuarioId, List.of(pictogramaId)) > 0;
+    }
 
-    public boolean ocultarPictograma(Pictograma pictograma, Usuario usuario) {
-        if (repository.existsByUsuarioIdAndPictogramaId(usuario.getId(), pictograma.getId())) {
-            return false;
-        }
-        repository.save(new PictogramaOculto(usuario, pictograma));
-        return true;
+    public boolean desocultarPorIds(Long pictogramaId, Long usuarioId) {
+        return desocultarVarios(usuarioId, List.of(pictogramaId)) > 0;
     }
 
-    public boolean desocultarPictograma(Pictograma pictograma, Usuario usuario) {
-        Optional<PictogramaOculto> oculto = repository.findByPictogramaIdAndUsuarioId(pictograma.getId(), usuario.getId());
-        if (oculto.isPresent()) {
-            repository.delete(oculto.get());
-            return true;
+    /**
+     * Oculta de una vez todos los pictogramas de la lista que existan. Es idempotente: los que ya
+     * estaban ocultos no cuentan. Devuelve cuántos se han ocultado ahora.
+     */
+    @Transactional
+    public int ocultarVarios(Long usuarioId, List<Long> pictogramaIds) {
+        List<Long> ids = idsUnicos(pictogramaIds);
+        int ocultados = 0;
+        for (int desde = 0; desde < ids.size(); desde += BuscadorPorIds.TAMANO_LOTE) {
+            ocultados += repository.ocultar(usuarioId, ids.subList(desde, Math.min(desde + BuscadorPorIds.TAMANO_LOTE, ids.size())));
+        }
+
+        if (ocultados == ids.size()) {
+            ocultosPorUsuario.ocultados(usuarioId, ids);
+        } else if (ocultados > 0) {
+            // No se sabe cuáles de la lista no existían: el mapa de ocultos se vuelve a leer
+            ocultosPorUsuario.olvidar(usuarioId);
         }
-        return false;
+        return ocultados;
     }
 
-    public boolean ocultarPorIds(Long pictogramaId, Long usuarioId) {
-        Optional<Pictograma> pictogramaOpt = pictogramaRepository.findById(pictogramaId);
-        Optional<Usuario> usuarioOpt = usuarioRepository.buscarPorId(usuarioId);
-        if (pictogramaOpt.isEmpty() || usuarioOpt.isEmpty()) return false;
-        return ocultarPictograma(pictogramaOpt.get(), usuarioOpt.get());
+    @Transactional
+    public int desocultarVarios(Long usuarioId, List<Long> pictogramaIds) {
+        List<Long> ids = idsUnicos(pictogramaIds);
+        int desocultados = 0;
+        for (int desde = 0; desde < ids.size(); desde += BuscadorPorIds.TAMANO_LOTE) {
+            desocultados += repository.desocultar(usuarioId, ids.subList(desde, Math.min(desde + BuscadorPorIds.TAMANO_LOTE, ids.size())));
+        }
+
+        if (desocultados > 0) {
+            ocultosPorUsuario.desocultados(usuarioId, ids);
+        }
+        return desocultados;
     }
 
-    public boolean desocultarPorIds(Long pictogramaId, Long usuarioId) {
-        Optional<Pictograma> pictogramaOpt = pictogramaRepository.findById(pictogramaId);
-        Optional<Usuario> usuarioOpt = usuarioRepository.buscarPorId(usuarioId);
-        if (pictogramaOpt.isEmpty() || usuarioOpt.isEmpty()) return false;
-        return desocultarPictograma(pictogramaOpt.get(), usuarioOpt.get());
+    private static List<Long> idsUnicos(List<Long> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        LinkedHashSet<Long> unicos = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                unicos.add(id);
+            }
+        }
+        return new ArrayList<>(unicos);
     }
 
     public boolean estaOculto(Long pictogramaId, Long usuarioId) {
-        return repository.existsByPictogramaIdAndUsuarioId(pictogramaId, usuarioId);
+        return ocultosPorUsuario.estaOculto(usuarioId, pictogramaId);
     }
 
-    private PictogramaConCategorias convertirADTO(Pictograma p, Long usuarioId) {
-
-        List<Categoria> categorias = pictogramaCategoriaRepository
-            .buscarCategoriasDePictogramaPorUsuario(p.getId(), usuarioId);
+    private PictogramaConCategorias convertirADTO(Pictograma p, List<Categoria> categorias, Long usuarioId) {
 
         List<CategoriaSimple> categoriasDTO = new ArrayList<>();
         for (Categoria c : categorias) {
@@ -92,9 +108,12 @@ public class PictogramaOcultoService {
 
 
     private List<PictogramaConCategorias> convertirListaADTO(List<Pictograma> lista, Long usuarioId) {
-        List<PictogramaConCategorias> resultado = new ArrayList<>();
+        Map<Long, List<Categoria>> categoriasPorPictograma =
+            pictogramaCategoriaService.buscarCategoriasPorPictograma(lista, usuarioId);
+
+        List<PictogramaConCategorias> resultado = new ArrayList<>(lista.size());
         for (Pictograma p : lista) {
-            resultado.add(convertirADTO(p,usuarioId));
+            resultado.add(convertirADTO(p, categoriasPorPictograma.getOrDefault(p.getId(), List.of()), usuarioId));
         }
         return resultado;
     }
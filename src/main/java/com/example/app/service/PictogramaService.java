@@ -1,7 +1,9 @@
 package com.example.app.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,8 @@ import jakarta.transaction.Transactional;
 @Service
 public class PictogramaService {
 
+    // Tope de resultados de /pictogramas/buscar y /parecidos, pida lo que pida el cliente
+    private static final int MAX_RESULTADOS_BUSQUEDA = 100;
 
     @Autowired
     private PictogramaCategoriaRepository pictogramaCategoriaRepository;
@@ -37,6 +41,18 @@ public class PictogramaService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CatalogoGeneralService catalogoGeneralService;
+
+    @Autowired
+    private PictogramaCategoriaService pictogramaCategoriaService;
+
+    @Autowired
+    private OcultosPorUsuario ocultosPorUsuario;
+
+    @Autowired
+    private IndiceNombresPictogramas indiceNombres;
+
     public PictogramaConCategorias crearPictograma(PictogramaConCategoriasInput input, Long usuarioId) {
         Pictograma pictograma = new Pictograma();
         pictograma.setNombre(input.getNombre());
@@ -48,8 +64,9 @@ public class PictogramaService {
             pictograma.setUsuario(null);
         }
         Pictograma guardado = pictogramaRepository.save(pictograma);
+        indiceNombres.guardado(guardado);
         if (input.getCategorias() != null) {
-            for (Long categoriaId : input.getCategorias()) {
+            for (Long categoriaId : new LinkedHashSet<>(input.getCategorias())) {
                 Categoria categoria = categoriaRepository.findById(categoriaId)
                     .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + categoriaId));
 
@@ -64,6 +81,9 @@ public class PictogramaService {
                 pictogramaCategoriaRepository.save(relacion);
             }
         }
+        if (usuarioId == null) {
+            catalogoGeneralService.recargar();
+        }
         return convertirADTO(guardado, usuarioId);
     }
     public PictogramaConCategorias actualizarPictograma(Long usuarioid, Long id, PictogramaConCategoriasInput input) {
@@ -75,8 +95,12 @@ public class PictogramaService {
         pictograma.setImagen(input.getImagen());
 
         Pictograma actualizado = pictogramaRepository.save(pictograma);
+        indiceNombres.guardado(actualizado);
 
         actualizarCategoriasDePictograma(usuarioid,actualizado.getId(), input.getCategorias());
+        if (actualizado.getUsuario() == null) {
+            catalogoGeneralService.recargar();
+        }
 
         return convertirADTO(actualizado,usuarioid);
     }
@@ -87,8 +111,21 @@ public class PictogramaService {
         return convertirADTO(pictograma, usuarioId);
     }
     public List<PictogramaConCategorias> obtenerTodosConCategorias() {
-        List<Pictograma> pictogramas = pictogramaRepository.findAllGenerales();
-        return convertirListaADTO(pictogramas,null);
+        CatalogoGeneral catalogo = catalogoGeneralService.obtener();
+        List<PictogramaSimple> pictogramas = catalogo.getPictogramas();
+
+        List<PictogramaConCategorias> resultado = new ArrayList<>(pictogramas.size());
+        for (PictogramaSimple p : pictogramas) {
+            resultado.add(new PictogramaConCategorias(
+                p.getId(),
+                p.getNombre(),
+                p.getImagen(),
+                p.getTipo(),
+                null,
+                catalogo.getCategoriasDePictograma(p.getId())
+            ));
+        }
+        return resultado;
     }
     public List<PictogramaConCategorias> obtenerPictogramasDeUsuarioConCategorias(Long usuarioId) {
         List<Pictograma> pictogramas = pictogramaRepository.findAllPersonalizados(usuarioId);
@@ -117,20 +154,26 @@ public class PictogramaService {
         }
 
         pictogramaRepository.delete(pictograma);
+        indiceNombres.eliminado(pictograma);
     }
 //----------------------- Métodos auxiliares ---------------------------------
     private List<PictogramaConCategorias> convertirListaADTO(List<Pictograma> lista, Long usuarioId) {
-        List<PictogramaConCategorias> resultado = new ArrayList<>();
+        Map<Long, List<Categoria>> categoriasPorPictograma =
+            pictogramaCategoriaService.buscarCategoriasPorPictograma(lista, usuarioId);
+
+        List<PictogramaConCategorias> resultado = new ArrayList<>(lista.size());
         for (Pictograma p : lista) {
-            resultado.add(convertirADTO(p,usuarioId));
+            resultado.add(convertirADTO(p, categoriasPorPictograma.getOrDefault(p.getId(), List.of())));
         }
         return resultado;
     }
     private PictogramaConCategorias convertirADTO(Pictograma p, Long usuarioIdParaFiltrarRelaciones) {
-        List<CategoriaSimple> categoriasDTO = new ArrayList<>();
         List<Categoria> categorias = pictogramaCategoriaRepository
             .buscarCategoriasDePictogramaPorUsuario(p.getId(), usuarioIdParaFiltrarRelaciones);
-
+        return convertirADTO(p, categorias);
+    }
+    private PictogramaConCategorias convertirADTO(Pictograma p, List<Categoria> categorias) {
+        List<CategoriaSimple> categoriasDTO = new ArrayList<>();
         for (Categoria c : categorias) {
             Long usuarioIdCategoria = (c.getUsuario() != null) ? c.getUsuario().getId() : null;
             categoriasDTO.add(new CategoriaSimple(c.getId(), c.getNombre(), c.getImagen(), usuarioIdCategoria));
@@ -147,13 +190,11 @@ public class PictogramaService {
         );
     }
     public List<PictogramaSimple> obtenerPictogramasPorIds(List<Long> ids) {
-        List<PictogramaSimple> resultado = new ArrayList<>();
+        List<Pictograma> pictogramas = BuscadorPorIds.buscarEnOrden(ids, pictogramaRepository::buscarPorIds, Pictograma::getId);
 
-        for (Long id : ids) {
-            Pictograma p = pictogramaRepository.buscarPorId(id);
-            if (p != null) {
-                resultado.add(convertirASimple(p));
-            }
+        List<PictogramaSimple> resultado = new ArrayList<>(pictogramas.size());
+        for (Pictograma p : pictogramas) {
+            resultado.add(convertirASimple(p));
         }
         return resultado;
     }
@@ -173,25 +214,13 @@ public class PictogramaService {
 
         Usuario usuario = usuarioRepository.buscarPorId(usuarioId)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        pictogramaCategoriaRepository.eliminarPorUsuarioYPictograma(usuarioId, pictogramaId);
-        if (nuevasCategoriaIds == null || nuevasCategoriaIds.isEmpty()) {
-            return; 
-        }
-
-        for (Long categoriaId : nuevasCategoriaIds) {
-            Categoria categoria = categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-
-            PictogramaCategoria relacion = new PictogramaCategoria();
-            relacion.setUsuario(usuario);
-            relacion.setPictograma(pictograma);
-            relacion.setCategoria(categoria);
 
-            pictogramaCategoriaRepository.save(relacion);
-        }
+        pictogramaCategoriaService.reemplazarCategoriasDePictograma(
+            pictograma, nuevasCategoriaIds != null ? nuevasCategoriaIds : List.of(), usuario);
     }
     public List<PictogramaSimple> obtenerPictogramasVisibles(Long usuarioId) {
-        List<Pictograma> pictogramas = pictogramaRepository.findPictogramasVisiblesParaUsuario(usuarioId);
+        List<Pictograma> pictogramas = ocultosPorUsuario.filtrarVisibles(usuarioId,
+            pictogramaRepository.findPictogramasGeneralesYPersonalizados(usuarioId), Pictograma::getId);
         List<PictogramaSimple> resultado = new ArrayList<>();
 
         for (Pictograma pictograma : pictogramas) {
@@ -199,8 +228,17 @@ public class PictogramaService {
         }
         return resultado;
     }
+    public List<PictogramaSimple> buscarPictogramas(String consulta, Long usuarioId, int limite) {
+        return indiceNombres.buscar(consulta, usuarioId, Math.min(limite, MAX_RESULTADOS_BUSQUEDA));
+    }
+
+    public List<PictogramaSimple> buscarPictogramasParecidos(String consulta, Long usuarioId, int limite) {
+        return indiceNombres.buscarParecidos(consulta, usuarioId, Math.min(limite, MAX_RESULTADOS_BUSQUEDA));
+    }
+
     public List<PictogramaSimple> obtenerPictogramasPorCategoria(Long categoriaId, Long usuarioId) {
-        List<Pictograma> pictos = pictogramaCategoriaRepository.obtenerPictogramasDeCategoriaPorUsuario(categoriaId, usuarioId);
+        List<Pictograma> pictos = ocultosPorUsuario.filtrarVisibles(usuarioId,
+            pictogramaCategoriaRepository.obtenerPictogramasDeCategoriaPorUsuario(categoriaId, usuarioId), Pictograma::getId);
         List<PictogramaSimple> resultado = new ArrayList<>();
 
         for (Pictograma pictograma : pictos) {
@@ -211,10 +249,7 @@ public class PictogramaService {
     }
 
     public List<String> obtenerNombresPictogramasGenerales() {
-        return pictogramaRepository.findAllGenerales()
-            .stream()
-            .map(Pictograma::getNombre)
-            .toList();
+        return catalogoGeneralService.obtener().getNombresPictogramas();
     }
     @Transactional
     public PictogramaConCategorias crearPictogramaUsuario(Long usuarioId, PictogramaConCategoriasInput input) {
@@ -231,9 +266,10 @@ public class PictogramaService {
         pictograma.setUsuario(usuario);
 
         pictograma = pictogramaRepository.save(pictograma);
+        indiceNombres.guardado(pictograma);
 
         if (input.getCategorias() != null && !input.getCategorias().isEmpty()) {
-            for (Long categoriaId : input.getCategorias()) {
+            for (Long categoriaId : new LinkedHashSet<>(input.getCategorias())) {
                 Categoria categoria = categoriaRepository.findById(categoriaId)
                     .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
 
@@ -246,6 +282,10 @@ public class PictogramaService {
             }
         }
 
+        if (usuario == null) {
+            catalogoGeneralService.recargar();
+        }
+
         Long idUsuario = (usuario != null) ? usuario.getId() : null;
         return convertirADTO(pictograma, idUsuario);
     }
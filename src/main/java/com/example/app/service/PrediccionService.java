@@ -1,42 +1,91 @@
 package com.example.app.service;
 
-import com.example.app.dto.PrediccionSimple;
-import com.example.app.repository.PictogramaRepository;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Map;
 
 @Service
 public class PrediccionService {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private ClienteModelo clienteModelo;
+
+    @Autowired
+    private CatalogoGeneralService catalogoGeneralService;
 
     @Autowired
-    private PictogramaRepository pictogramaRepository;
+    private CachePredicciones cachePredicciones;
 
-    private static final String URL_FASTAPI = "http://modelo:8000/predecir";
     private static final String DEFAULT_SUGERENCIA = "Hola";
 
+    // Llamada al modelo en curso por frase plegada: quien llega con la misma frase mientras otra
+    // petición espera al modelo se queda con su resultado en lugar de hacer otra llamada
+    private final ConcurrentHashMap<String, CompletableFuture<String>> enCurso = new ConcurrentHashMap<>();
+    private final LongAdder agrupadas = new LongAdder();
+
     public String obtenerSugerencia(String frase) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        String clave = NormalizadorTexto.plegar(frase);
+        CatalogoGeneral catalogo = catalogoGeneralService.obtener();
+        Optional<String> enCache = cachePredicciones.obtener(clave, catalogo);
+        if (enCache.isPresent()) {
+            return enCache.get();
+        }
 
-        Map<String, String> cuerpo = Map.of("frase", frase);
-        HttpEntity<Map<String, String>> request = new HttpEntity<>(cuerpo, headers);
+        CompletableFuture<String> propia = new CompletableFuture<>();
+        CompletableFuture<String> ajena = enCurso.putIfAbsent(clave, propia);
+        if (ajena != null) {
+            agrupadas.increment();
+            return esperar(ajena);
+        }
+        try {
+            // La petición anterior con esta frase puede haber guardado su resultado y salido de
+            // enCurso entre la consulta a la caché y el putIfAbsent
+            String sugerencia = cachePredicciones.comprobar(clave, catalogo)
+                .orElseGet(() -> predecirYValidar(frase, clave, catalogo));
+            propia.complete(sugerencia);
+            return sugerencia;
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
 
-        ResponseEntity<PrediccionSimple> respuesta = restTemplate.postForEntity(
-                URL_FASTAPI, request, PrediccionSimple.class);
+    private String predecirYValidar(String frase, String clave, CatalogoGeneral catalogo) {
+        // Si el modelo no responde (caído, lento o con el circuito abierto) se usa la sugerencia
+        // por defecto, pero no se guarda: la próxima petición vuelve a intentarlo
+        Optional<String> sugerencia = clienteModelo.predecir(frase);
+        if (sugerencia.isEmpty()) {
+            return DEFAULT_SUGERENCIA;
+        }
 
-        String sugerencia = respuesta.getBody() != null ? respuesta.getBody().getSugerencia() : null;
+        // Se valida contra el catálogo general en memoria y se devuelve el nombre tal como está
+        // en él, aunque el modelo lo haya dado en plural, en femenino o sin tildes
+        String validada = catalogo.buscarNombrePictograma(sugerencia.get()).orElse(DEFAULT_SUGERENCIA);
+        cachePredicciones.guardar(clave, catalogo, validada);
+        return validada;
+    }
 
-        if (sugerencia != null && pictogramaRepository.existsPictogramaGeneralByNombre(sugerencia)) {
-            return sugerencia;
-        } else {
-            return DEFAULT_SUGERENCIA;
+    // La espera está acotada por los timeouts del cliente del modelo, que usa quien hace la llamada
+    private static String esperar(CompletableFuture<String> llamada) {
+        try {
+            return llamada.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
     }
+
+    /** Peticiones que se han servido con la llamada al modelo de otra petición idéntica. */
+    public long getPeticionesAgrupadas() {
+        return agrupadas.sum();
     }
-   }
+}
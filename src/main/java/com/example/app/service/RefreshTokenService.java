@@ -0,0 +1,136 @@
+package com.example.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.app.model.RefreshToken;
+import com.example.app.model.Usuario;
+import com.example.app.repository.RefreshTokenRepository;
+
+/**
+ * Emite y rota los refresh tokens. Renovar no toca la contraseña: basta con buscar el hash
+ * del token (índice único) y comprobar que sigue siendo válido.
+ *
+ * Un token rotado se guarda durante la ventana de reutilización para detectar si alguien lo
+ * vuelve a presentar; después se borra, igual que los caducados y los revocados.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${seguridad.refresh.dias:30}")
+    private long diasValidez = 30;
+
+    @Value("${seguridad.refresh.ventana-reutilizacion-horas:24}")
+    private long horasVentanaReutilizacion = 24;
+
+    /** Emite el primer token de una familia nueva (un login en un dispositivo). */
+    @Transactional
+    public String emitir(Usuario usuario) {
+        return emitir(usuario, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Cambia un refresh token válido por otro nuevo de la misma familia. Si el token ya se
+     * había usado se entiende que lo han robado y se revoca toda la familia.
+     */
+    @Transactional(noRollbackFor = RefreshTokenInvalidoException.class)
+    public Renovacion renovar(String token) {
+        RefreshToken actual = refreshTokenRepository.buscarPorHash(hash(token))
+            .orElseThrow(RefreshTokenInvalidoException::new);
+        Usuario usuario = actual.getUsuario();
+
+        if (actual.isRevocado()
+                || actual.getExpiraEn().isBefore(Instant.now())
+                || actual.getVersionSesion() != usuario.getVersionSesion()) {
+            throw new RefreshTokenInvalidoException();
+        }
+
+        Instant ahora = Instant.now();
+        if (actual.isUsado() || refreshTokenRepository.marcarUsado(actual.getId(), ahora) == 0) {
+            refreshTokenRepository.revocarFamilia(actual.getFamilia());
+            throw new RefreshTokenInvalidoException();
+        }
+
+        // Cada renovación deja en la familia solo los rotados que aún pueden delatar un robo
+        refreshTokenRepository.borrarUsadosDeFamilia(actual.getFamilia(), limiteReutilizacion(ahora));
+        return new Renovacion(usuario, emitir(usuario, actual.getFamilia()));
+    }
+
+    /**
+     * Borra los tokens caducados, los revocados y los rotados fuera de la ventana de
+     * reutilización. Devuelve cuántas filas ha borrado.
+     */
+    @Scheduled(fixedDelayString = "${seguridad.refresh.limpieza-ms:3600000}",
+               initialDelayString = "${seguridad.refresh.limpieza-ms:3600000}")
+    @Transactional
+    public int purgar() {
+        Instant ahora = Instant.now();
+        return refreshTokenRepository.borrarCaducados(ahora)
+            + refreshTokenRepository.borrarRevocadosYUsados(limiteReutilizacion(ahora));
+    }
+
+    private Instant limiteReutilizacion(Instant ahora) {
+        return ahora.minus(Duration.ofHours(horasVentanaReutilizacion));
+    }
+
+    private String emitir(Usuario usuario, String familia) {
+        byte[] bytes = new byte[32];
+        ALEATORIO.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(usuario, hash(token), familia,
+            usuario.getVersionSesion(), Instant.now().plus(Duration.ofDays(diasValidez))));
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Renovacion {
+        private final Usuario usuario;
+        private final String refreshToken;
+
+        Renovacion(Usuario usuario, String refreshToken) {
+            this.usuario = usuario;
+            this.refreshToken = refreshToken;
+        }
+
+        public Usuario getUsuario() {
+            return usuario;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+
+    public static class RefreshTokenInvalidoException extends RuntimeException {
+        public RefreshTokenInvalidoException() {
+            super("Refresh token no válido");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trie sobre el que se buscan claves a distancia de Levenshtein acotada. La búsqueda recorre
+ * el trie en profundidad llevando la fila de la matriz de distancias de cada prefijo (es lo
+ * que haría un autómata de Levenshtein simulado sobre el trie): los prefijos comunes se
+ * calculan una sola vez y una rama se abandona en cuanto el mínimo de su fila supera el radio.
+ *
+ * Cada clave guarda un conjunto de valores. Quitar un valor no borra los nodos, solo deja la
+ * clave sin valores para que no aparezca en los resultados.
+ *
+ * No es seguro para hilos: quien lo comparta tiene que sincronizar el acceso.
+ */
+public final class TrieDifuso<T> {
+
+    private final Nodo<T> raiz = new Nodo<>();
+
+    public void anadir(String clave, T valor) {
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < clave.length(); i++) {
+            nodo = nodo.hijoOCrear(clave.charAt(i));
+        }
+        if (nodo.valores == null) {
+            nodo.valores = new LinkedHashSet<>(2);
+        }
+        nodo.valores.add(valor);
+    }
+
+    /** Devuelve true si la clave tenía ese valor. */
+    public boolean quitar(String clave, T valor) {
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < clave.length() && nodo != null; i++) {
+            nodo = nodo.hijo(clave.charAt(i));
+        }
+        return nodo != null && nodo.valores != null && nodo.valores.remove(valor);
+    }
+
+    /**
+     * Claves a distancia menor o igual que 'distanciaMaxima' de la consulta, con sus valores.
+     * El orden no está definido.
+     */
+    public List<Coincidencia<T>> buscar(String consulta, int distanciaMaxima) {
+        List<Coincidencia<T>> resultado = new ArrayList<>();
+        int[] primeraFila = new int[consulta.length() + 1];
+        for (int j = 0; j < primeraFila.length; j++) {
+            primeraFila[j] = j;
+        }
+        if (raiz.valores != null && !raiz.valores.isEmpty() && primeraFila[consulta.length()] <= distanciaMaxima) {
+            resultado.add(new Coincidencia<>("", primeraFila[consulta.length()], Set.copyOf(raiz.valores)));
+        }
+        List<int[]> filas = new ArrayList<>();
+        filas.add(primeraFila);
+        recorrer(raiz, consulta, distanciaMaxima, new StringBuilder(), filas, resultado);
+        return resultado;
+    }
+
+    private void recorrer(Nodo<T> nodo, String consulta, int distanciaMaxima, StringBuilder prefijo,
+                          List<int[]> filas, List<Coincidencia<T>> resultado) {
+        int profundidad = prefijo.length();
+        int[] anterior = filas.get(profundidad);
+        // Una fila por profundidad, reutilizada entre ramas hermanas
+        if (filas.size() == profundidad + 1) {
+            filas.add(new int[anterior.length]);
+        }
+        int[] fila = filas.get(profundidad + 1);
+        int n = consulta.length();
+
+        for (int h = 0; h < nodo.numHijos; h++) {
+            char letra = nodo.letras[h];
+            fila[0] = anterior[0] + 1;
+            int minimo = fila[0];
+            for (int j = 1; j <= n; j++) {
+                int coste = consulta.charAt(j - 1) == letra ? 0 : 1;
+                fila[j] = Math.min(Math.min(fila[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + coste);
+                minimo = Math.min(minimo, fila[j]);
+            }
+            // Ni este prefijo ni nada que cuelgue de él puede quedar dentro del radio
+            if (minimo > distanciaMaxima) {
+                continue;
+            }
+
+            Nodo<T> hijo = nodo.hijos[h];
+            prefijo.append(letra);
+            if (hijo.valores != null && !hijo.valores.isEmpty() && fila[n] <= distanciaMaxima) {
+                resultado.add(new Coincidencia<>(prefijo.toString(), fila[n], Set.copyOf(hijo.valores)));
+            }
+            if (hijo.numHijos > 0) {
+                recorrer(hijo, consulta, distanciaMaxima, prefijo, filas, resultado);
+            }
+            prefijo.setLength(profundidad);
+        }
+    }
+
+    /**
+     * Distancia de Levenshtein entre a y b, o maxima + 1 en cuanto se sabe que la supera. Solo
+     * calcula la banda de la matriz a menos de 'maxima' de la diagonal: fuera de ella cualquier
+     * camino ya cuesta más que el máximo.
+     */
+    public static int distancia(String a, String b, int maxima) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > maxima) {
+            return maxima + 1;
+        }
+        // La distancia nunca pasa de la longitud mayor; así tope no se desborda con MAX_VALUE
+        int m = Math.min(maxima, Math.max(la, lb));
+        int tope = m + 1;
+
+        int[] anterior = new int[lb + 1];
+        int[] actual = new int[lb + 1];
+        for (int j = 0; j <= lb; j++) {
+            anterior[j] = j <= m ? j : tope;
+        }
+        for (int i = 1; i <= la; i++) {
+            int desde = Math.max(1, i - m);
+            int hasta = Math.min(lb, i + m);
+            actual[desde - 1] = desde == 1 && i <= m ? i : tope;
+            int minimoFila = actual[desde - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = desde; j <= hasta; j++) {
+                int coste = ca == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + coste);
+                actual[j] = Math.min(valor, tope);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (hasta < lb) {
+                actual[hasta + 1] = tope;
+            }
+            // Ninguna celda de las filas siguientes puede bajar del mínimo de esta
+            if (minimoFila > m) {
+                return maxima + 1;
+            }
+            int[] tmp = anterior;
+            anterior = actual;
+            actual = tmp;
+        }
+        return anterior[lb] > m ? maxima + 1 : anterior[lb];
+    }
+
+    public record Coincidencia<T>(String clave, int distancia, Set<T> valores) {}
+
+    private static final class Nodo<T> {
+        // Hijos en arrays paralelos ordenados por letra: casi todos los nodos tienen uno o dos
+        private char[] letras = new char[0];
+        @SuppressWarnings("unchecked")
+        private Nodo<T>[] hijos = new Nodo[0];
+        private int numHijos;
+        private Set<T> valores;
+
+        private Nodo<T> hijo(char letra) {
+            int i = Arrays.binarySearch(letras, 0, numHijos, letra);
+            return i >= 0 ? hijos[i] : null;
+        }
+
+        private Nodo<T> hijoOCrear(char letra) {
+            int i = Arrays.binarySearch(letras, 0, numHijos, letra);
+            if (i >= 0) {
+                return hijos[i];
+            }
+            i = -i - 1;
+            if (numHijos == letras.length) {
+                int capacidad = Math.max(2, numHijos * 2);
+                letras = Arrays.copyOf(letras, capacidad);
+                hijos = Arrays.copyOf(hijos, capacidad);
+            }
+            System.arraycopy(letras, i, letras, i + 1, numHijos - i);
+            System.arraycopy(hijos, i, hijos, i + 1, numHijos - i);
+            letras[i] = letra;
+            hijos[i] = new Nodo<>();
+            numHijos++;
+            return hijos[i];
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.example.app.config.security.CacheUsuariosAutenticados;
 import com.example.app.dto.UsuarioSimple;
 import com.example.app.model.Usuario;
 import com.example.app.repository.PictogramaCategoriaRepository;
@@ -22,6 +23,9 @@ public class UsuarioService {
     
     @Autowired PictogramaCategoriaRepository pictogramaCategoriaRepository;
 
+    @Autowired
+    private CacheUsuariosAutenticados cacheUsuarios;
+
     public List<Usuario> obtenerTodos() {
         return usuarioRepository.findAll();
     }
@@ -38,15 +42,10 @@ public class UsuarioService {
         }
         System.out.println("Voy a eliminar a : "+ correo);
         usuarioRepository.deleteById(usuarioOpt.get().getId());
+        cacheUsuarios.invalidar(usuarioOpt.get().getEmail());
         return true;
     }
 
-    public Long obtenerId(String correo) {
-        return usuarioRepository.buscarPorEmail(correo.trim())
-            .map(Usuario::getId)
-            .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + correo));
-    }
-    
     public Optional<Usuario> editarUsuario(String correo, UsuarioSimple datos) {
         return usuarioRepository.buscarPorEmail(correo).map(usuario -> {
             
@@ -54,7 +53,9 @@ public class UsuarioService {
                 usuario.setNombre(datos.getNombre());
             }
 
-            return usuarioRepository.save(usuario);
+            Usuario guardado = usuarioRepository.save(usuario);
+            cacheUsuarios.invalidar(usuario.getEmail());
+            return guardado;
         });
     }
 
@@ -0,0 +1,6 @@
+-- Momento en que se rotó cada refresh token, para borrarlo cuando pasa la ventana de
+-- reutilización, e índice para borrar los caducados sin recorrer la tabla.
+
+ALTER TABLE refresh_tokens ADD COLUMN usado_en DATETIME(6);
+
+CREATE INDEX idx_refresh_tokens_expira_en ON refresh_tokens (expira_en);
@@ -0,0 +1,8 @@
+-- Valores que calcula la aplicación al arrancar y que todas las réplicas deben compartir,
+-- como el coste de BCrypt calibrado.
+
+CREATE TABLE parametros_compartidos (
+    clave VARCHAR(64) NOT NULL PRIMARY KEY,
+    valor VARCHAR(255) NOT NULL,
+    actualizado_en DATETIME(6) NOT NULL
+);
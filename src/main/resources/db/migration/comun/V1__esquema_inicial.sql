@@ -0,0 +1,97 @@
+-- Esquema de partida: el que creaba ddl-auto=update antes de versionar las migraciones.
+-- Una base de datos que ya lo tenga se marca como versión 1 sin ejecutar este script
+-- (ver esquema.migraciones.version-base).
+
+CREATE TABLE usuarios (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    contrasena_hash VARCHAR(255),
+    correo VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE categorias (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    usuario_id BIGINT,
+    imagen VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE configuraciones (
+    botones_por_pantalla INTEGER,
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    mostrar_por_categoria BIT,
+    usuario_id BIGINT NOT NULL,
+    tipo_voz ENUM('masculina','femenina'),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE frases (
+    fecha DATETIME(6) NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    texto VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE pictogramas (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    usuario_id BIGINT,
+    imagen VARCHAR(255),
+    nombre VARCHAR(255) NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE pictogramas_categoria (
+    categoria_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    pictograma_id BIGINT NOT NULL,
+    usuario_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE pictogramas_ocultos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    pictograma_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+ALTER TABLE configuraciones
+    ADD CONSTRAINT UK96akloofpcibww6c73wi6fq5s UNIQUE (usuario_id);
+
+-- También sirve al anti-join de pictogramas ocultos (usuario_id, pictograma_id)
+ALTER TABLE pictogramas_ocultos
+    ADD CONSTRAINT UKex76e9imitll31y5p6e099v3g UNIQUE (usuario_id, pictograma_id);
+
+ALTER TABLE usuarios
+    ADD CONSTRAINT UKcdmw5hxlfj78uf4997i3qyyw5 UNIQUE (correo);
+
+ALTER TABLE categorias
+    ADD CONSTRAINT FK7lnxm7e5lqkbw5qe0fy2pntl9 FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+
+ALTER TABLE configuraciones
+    ADD CONSTRAINT FKa6kh4orcyegy0u9bvihkp4ndy FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+
+ALTER TABLE frases
+    ADD CONSTRAINT FKd8jpt7r59ouedgmg9qsroq29r FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+
+ALTER TABLE pictogramas
+    ADD CONSTRAINT FK3toaql6x4qe5t69bda0y9iijo FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+
+ALTER TABLE pictogramas_categoria
+    ADD CONSTRAINT FKl3w09mjeyh100ayw2uch0tgg2 FOREIGN KEY (categoria_id) REFERENCES categorias (id);
+
+ALTER TABLE pictogramas_categoria
+    ADD CONSTRAINT FKiip7wu7hkacnn7hf0fwetaskd FOREIGN KEY (pictograma_id) REFERENCES pictogramas (id);
+
+ALTER TABLE pictogramas_categoria
+    ADD CONSTRAINT FKmwu5txqaos70ncw4q2qpx7o9l FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+
+ALTER TABLE pictogramas_ocultos
+    ADD CONSTRAINT FKjv58ixoev0peeywdfn1vhyla1 FOREIGN KEY (pictograma_id) REFERENCES pictogramas (id);
+
+ALTER TABLE pictogramas_ocultos
+    ADD CONSTRAINT FK6ct1hw37g53xqbbw1wk2qvxcc FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
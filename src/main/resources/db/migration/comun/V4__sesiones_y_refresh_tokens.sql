@@ -0,0 +1,24 @@
+-- Versión de sesión del usuario (se incrementa al cambiar la contraseña) y refresh tokens
+-- rotatorios. Cada token se guarda como hash SHA-256; familia agrupa las rotaciones de un login.
+
+ALTER TABLE usuarios ADD COLUMN version_sesion INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE refresh_tokens (
+    revocado BIT NOT NULL,
+    usado BIT NOT NULL,
+    version_sesion INTEGER NOT NULL,
+    expira_en DATETIME(6) NOT NULL,
+    id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    familia VARCHAR(36) NOT NULL,
+    hash VARCHAR(64) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_refresh_tokens_familia ON refresh_tokens (familia);
+
+ALTER TABLE refresh_tokens
+    ADD CONSTRAINT UKil9742ttis7wo2plp3l58ldfy UNIQUE (hash);
+
+ALTER TABLE refresh_tokens
+    ADD CONSTRAINT FKpdrw1klic7bvvhhkjojwu64t2 FOREIGN KEY (usuario_id) REFERENCES usuarios (id) ON DELETE CASCADE;
@@ -0,0 +1,34 @@
+-- Añade la columna correo_normalizado (correo en minúsculas y sin espacios) por la que se
+-- buscan los usuarios, la rellena a partir de correo y crea su índice único.
+--
+-- Si dos cuentas solo se diferencian en mayúsculas o espacios no pueden compartir el
+-- valor normalizado: se rellena la más antigua (menor id) y las demás quedan a NULL,
+-- sin poder iniciar sesión, hasta que se revisen a mano con el informe del paso 2
+-- (sus filas salen en el log al aplicar la migración).
+
+ALTER TABLE usuarios ADD COLUMN correo_normalizado VARCHAR(255) NULL;
+
+-- 1. Relleno: el menor id de cada correo normalizado
+UPDATE usuarios
+SET correo_normalizado = LOWER(TRIM(correo))
+WHERE id IN (
+    SELECT id FROM (
+        SELECT MIN(id) AS id
+        FROM usuarios
+        WHERE correo IS NOT NULL
+        GROUP BY LOWER(TRIM(correo))
+    ) primeros
+);
+
+-- 2. Informe de colisiones: cuentas que se han quedado sin correo normalizado
+SELECT LOWER(TRIM(correo)) AS correo_normalizado,
+       COUNT(*) AS cuentas,
+       GROUP_CONCAT(id ORDER BY id) AS ids,
+       GROUP_CONCAT(correo ORDER BY id SEPARATOR ' | ') AS correos
+FROM usuarios
+WHERE correo IS NOT NULL
+GROUP BY LOWER(TRIM(correo))
+HAVING COUNT(*) > 1;
+
+-- 3. Índice único; MySQL admite varios NULL, así que las colisiones no lo impiden
+CREATE UNIQUE INDEX uk_usuarios_correo_normalizado ON usuarios (correo_normalizado);
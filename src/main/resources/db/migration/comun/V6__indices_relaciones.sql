@@ -0,0 +1,13 @@
+-- Índice compuesto para las consultas de PictogramaCategoriaRepository por categoría; el de
+-- (usuario_id, pictograma_id, categoria_id) lo crea la V2 (DiferenciasRelaciones) antes de
+-- convertir las copias, que lo necesita para cada comprobación. Los dos empiezan por
+-- usuario_id porque todas filtran por el usuario (o por usuario_id IS NULL para las
+-- relaciones generales) y después por la categoría o por el pictograma. Con eliminada y
+-- la otra columna de la relación, el NOT EXISTS que comprueba si el usuario ha quitado
+-- una relación general se resuelve solo con el índice.
+--
+-- El anti-join con pictogramas_ocultos (usuario_id, pictograma_id) ya lo sirve su
+-- restricción única, y las dos ramas de las categorías visibles (usuario_id IS NULL y
+-- usuario_id = ?) el índice de la clave ajena de categorias.
+
+CREATE INDEX idx_pc_usuario_categoria ON pictogramas_categoria (usuario_id, categoria_id, eliminada, pictograma_id);
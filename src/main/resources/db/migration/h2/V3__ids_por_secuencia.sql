@@ -0,0 +1,11 @@
+-- En H2 (tests y benchmarks) Hibernate usa secuencias nativas. Las tablas están vacías al
+-- crear el esquema, así que todas empiezan en 1; el incremento es el allocationSize.
+
+CREATE SEQUENCE usuarios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE configuraciones_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE categorias_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pictogramas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pictogramas_categoria_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pictogramas_ocultos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE frases_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- Una sola fila por (usuario, pictograma, categoría); las relaciones generales
+-- (usuario_id NULL) se comparan por una columna calculada con usuario 0, como en MySQL.
+
+ALTER TABLE pictogramas_categoria
+    ADD COLUMN usuario_clave BIGINT GENERATED ALWAYS AS (COALESCE(usuario_id, 0));
+
+CREATE UNIQUE INDEX uk_pc_usuario_pictograma_categoria
+    ON pictogramas_categoria (usuario_clave, pictograma_id, categoria_id);
@@ -0,0 +1,5 @@
+-- pictogramas_ocultos vuelve a usar la identidad de la columna (AUTO_INCREMENT desde la V1);
+-- las filas se insertan con INSERT IGNORE ... SELECT, que no pide ids a la secuencia. En H2
+-- la tabla está vacía al migrar, así que la identidad puede seguir empezando en 1.
+
+DROP SEQUENCE IF EXISTS pictogramas_ocultos_seq;
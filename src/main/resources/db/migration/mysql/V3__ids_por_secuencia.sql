@@ -0,0 +1,36 @@
+-- Inicializa las tablas de secuencia que sustituyen a AUTO_INCREMENT (MySQL no tiene
+-- secuencias, Hibernate las emula con una tabla por entidad). Con el optimizador
+-- pooled-lo el valor guardado es el primer id libre del siguiente bloque.
+
+CREATE TABLE IF NOT EXISTS usuarios_seq (next_val BIGINT);
+DELETE FROM usuarios_seq;
+INSERT INTO usuarios_seq SELECT COALESCE(MAX(id), 0) + 1 FROM usuarios;
+
+CREATE TABLE IF NOT EXISTS configuraciones_seq (next_val BIGINT);
+DELETE FROM configuraciones_seq;
+INSERT INTO configuraciones_seq SELECT COALESCE(MAX(id), 0) + 1 FROM configuraciones;
+
+CREATE TABLE IF NOT EXISTS categorias_seq (next_val BIGINT);
+DELETE FROM categorias_seq;
+INSERT INTO categorias_seq SELECT COALESCE(MAX(id), 0) + 1 FROM categorias;
+
+CREATE TABLE IF NOT EXISTS pictogramas_seq (next_val BIGINT);
+DELETE FROM pictogramas_seq;
+INSERT INTO pictogramas_seq SELECT COALESCE(MAX(id), 0) + 1 FROM pictogramas;
+
+CREATE TABLE IF NOT EXISTS pictogramas_categoria_seq (next_val BIGINT);
+DELETE FROM pictogramas_categoria_seq;
+INSERT INTO pictogramas_categoria_seq SELECT COALESCE(MAX(id), 0) + 1 FROM pictogramas_categoria;
+
+CREATE TABLE IF NOT EXISTS pictogramas_ocultos_seq (next_val BIGINT);
+DELETE FROM pictogramas_ocultos_seq;
+INSERT INTO pictogramas_ocultos_seq SELECT COALESCE(MAX(id), 0) + 1 FROM pictogramas_ocultos;
+
+CREATE TABLE IF NOT EXISTS frases_seq (next_val BIGINT);
+DELETE FROM frases_seq;
+INSERT INTO frases_seq SELECT COALESCE(MAX(id), 0) + 1 FROM frases;
+
+-- La tabla refresh_tokens llega en la V4; su secuencia empieza en 1
+CREATE TABLE IF NOT EXISTS refresh_tokens_seq (next_val BIGINT);
+DELETE FROM refresh_tokens_seq;
+INSERT INTO refresh_tokens_seq VALUES (1);
@@ -0,0 +1,10 @@
+-- Una sola fila por (usuario, pictograma, categoría). MySQL no considera iguales dos NULL
+-- en un índice único, así que las relaciones generales (usuario_id NULL) se comparan por
+-- una columna virtual con usuario 0. Añadir una columna VIRTUAL no reescribe la tabla y
+-- el índice se crea en línea. Requiere haber compactado los repetidos (V7).
+
+ALTER TABLE pictogramas_categoria
+    ADD COLUMN usuario_clave BIGINT AS (COALESCE(usuario_id, 0)) VIRTUAL;
+
+CREATE UNIQUE INDEX uk_pc_usuario_pictograma_categoria
+    ON pictogramas_categoria (usuario_clave, pictograma_id, categoria_id);
@@ -0,0 +1,6 @@
+-- pictogramas_ocultos vuelve a AUTO_INCREMENT: las filas se insertan con INSERT IGNORE ... SELECT,
+-- que no puede pedir ids a la tabla de secuencia. Al redefinir la columna InnoDB sitúa el
+-- contador por encima del mayor id existente.
+
+ALTER TABLE pictogramas_ocultos MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+DROP TABLE IF EXISTS pictogramas_ocultos_seq;
@@ -107,6 +107,37 @@ public class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.usuarioId").exists());
     }
 
+    @Test
+    void correoConOtrasMayusculasOEspaciosEsElMismoUsuario() throws Exception {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Mayúsculas");
+        usuario.setEmail("Mayusculas@Ejemplo.com");
+        usuario.setContrasena("MiClaveSegura1!");
+
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isOk());
+
+        // El registro con el mismo correo en otra forma se considera duplicado
+        usuario.setEmail("  mayusculas@ejemplo.COM ");
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("El correo ya está registrado"));
+
+        Usuario login = new Usuario();
+        login.setEmail("MAYUSCULAS@ejemplo.com ");
+        login.setContrasena("MiClaveSegura1!");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+    }
+
     @Test
     void loginConContrasenaIncorrectaDevuelveError() throws Exception {
         // Registro previo
@@ -328,8 +359,47 @@ public class AuthControllerIntegrationTest {
                 .andExpect(content().string("Faltan datos obligatorios"));
     }
 
+    @Test
+    void refreshRotaElTokenYElCambioDeContrasenaLoRevoca() throws Exception {
+        Usuario usuario = new Usuario("Refresh", "refresh@ejemplo.com", "Refresh123!", "manual");
 
-    
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isOk());
+
+        String loginResponse = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", "refresh@ejemplo.com",
+                                "contrasena", "Refresh123!"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        String refreshInicial = objectMapper.readTree(loginResponse).get("refreshToken").asText();
 
+        String refreshResponse = mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshInicial))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        String token = objectMapper.readTree(refreshResponse).get("token").asText();
+        String refreshRotado = objectMapper.readTree(refreshResponse).get("refreshToken").asText();
+
+        mockMvc.perform(put("/auth/cambiar-contrasena")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "contrasenaActual", "Refresh123!",
+                        "nuevaContrasena", "Refresh456!"))))
+                .andExpect(status().isOk());
 
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshRotado))))
+                .andExpect(status().isUnauthorized());
+    }
 }
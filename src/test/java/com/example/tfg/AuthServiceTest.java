@@ -4,25 +4,36 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.example.app.config.security.BCryptAdaptativo;
+import com.example.app.config.security.CacheUsuariosAutenticados;
 import com.example.app.model.Configuracion;
 import com.example.app.model.Usuario;
 import com.example.app.repository.ConfiguracionRepository;
 import com.example.app.repository.PictogramaCategoriaRepository;
 import com.example.app.repository.UsuarioRepository;
 import com.example.app.service.AuthService;
+import com.example.app.service.AuthService.MotivoFalloLogin;
+import com.example.app.service.AuthService.ResultadoLogin;
 
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
@@ -42,6 +53,9 @@ class AuthServiceTest {
     @Mock
     private PictogramaCategoriaRepository pictogramaCategoriaRepository;
 
+    @Mock
+    private CacheUsuariosAutenticados cacheUsuarios;
+
     @Test
     void registrarUsuario_UsuarioNuevo_RegistraCorrectamente() {
         Usuario nuevo = new Usuario();
@@ -57,7 +71,8 @@ class AuthServiceTest {
         assertTrue(resultado);
         verify(usuarioRepository).save(any(Usuario.class));
         verify(configuracionRepository).save(any(Configuracion.class));
-        verify(pictogramaCategoriaRepository).findAllGenerales();
+        // Las relaciones generales se heredan, ya no se copian al registrar
+        verifyNoInteractions(pictogramaCategoriaRepository);
     }
 
     @Test
@@ -82,9 +97,29 @@ class AuthServiceTest {
         when(usuarioRepository.buscarPorEmail("test@correo.com")).thenReturn(Optional.of(usuario));
         when(passwordEncoder.matches("1234", "hashed")).thenReturn(true);
 
-        boolean resultado = authService.autenticarUsuario("test@correo.com", "1234");
+        ResultadoLogin resultado = authService.autenticar("test@correo.com", "1234");
 
-        assertTrue(resultado);
+        assertTrue(resultado.isAutenticado());
+        assertEquals(usuario, resultado.getUsuario());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    void autenticar_HashConOtroCoste_LoVuelveACifrar() {
+        Usuario usuario = new Usuario();
+        usuario.setEmail("test@correo.com");
+        usuario.setContrasena("hashAntiguo");
+
+        when(usuarioRepository.buscarPorEmail("test@correo.com")).thenReturn(Optional.of(usuario));
+        when(passwordEncoder.matches("1234", "hashAntiguo")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashAntiguo")).thenReturn(true);
+        when(passwordEncoder.encode("1234")).thenReturn("hashNuevo");
+
+        ResultadoLogin resultado = authService.autenticar("test@correo.com", "1234");
+
+        assertTrue(resultado.isAutenticado());
+        assertEquals("hashNuevo", usuario.getContrasena());
+        verify(usuarioRepository).save(usuario);
     }
 
     @Test
@@ -93,9 +128,48 @@ class AuthServiceTest {
 
         when(usuarioRepository.buscarPorEmail("google@correo.com")).thenReturn(Optional.of(usuario));
 
-        boolean resultado = authService.autenticarUsuario("google@correo.com", "1234");
+        ResultadoLogin resultado = authService.autenticar("google@correo.com", "1234");
 
-        assertFalse(resultado);
+        assertFalse(resultado.isAutenticado());
+        assertEquals(MotivoFalloLogin.CREDENCIALES_INVALIDAS, resultado.getMotivo());
+    }
+
+    @Test
+    void autenticar_CorreoNoRegistrado_ComparaContraHashFicticio() {
+        when(usuarioRepository.buscarPrefijosDeContrasenaPorFrecuencia()).thenReturn(List.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("hashFicticio");
+        authService.prepararHashFicticio();
+        when(usuarioRepository.buscarPorEmail("nadie@correo.com")).thenReturn(Optional.empty());
+
+        ResultadoLogin resultado = authService.autenticar("nadie@correo.com", "1234");
+
+        assertFalse(resultado.isAutenticado());
+        assertEquals(MotivoFalloLogin.CREDENCIALES_INVALIDAS, resultado.getMotivo());
+        verify(passwordEncoder).matches("1234", "hashFicticio");
+        verify(usuarioRepository, times(1)).buscarPorEmail("nadie@correo.com");
+    }
+
+    @Test
+    void autenticar_CorreoNoRegistradoYContrasenaIncorrecta_HacenElMismoHash() {
+        // Contraseña guardada con un coste distinto al del encoder, como antes de volver a entrar
+        String guardado = new BCryptPasswordEncoder(5).encode("Correcta1!");
+        Usuario usuario = new Usuario();
+        usuario.setEmail("test@correo.com");
+        usuario.setContrasena(guardado);
+        when(usuarioRepository.buscarPrefijosDeContrasenaPorFrecuencia()).thenReturn(List.of(guardado.substring(0, 7)));
+        authService.prepararHashFicticio();
+        when(usuarioRepository.buscarPorEmail("nadie@correo.com")).thenReturn(Optional.empty());
+        when(usuarioRepository.buscarPorEmail("test@correo.com")).thenReturn(Optional.of(usuario));
+
+        authService.autenticar("nadie@correo.com", "Incorrecta1!");
+        authService.autenticar("test@correo.com", "Incorrecta1!");
+
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(passwordEncoder, times(2)).matches(eq("Incorrecta1!"), hashes.capture());
+        assertEquals(5, BCryptAdaptativo.costeDe(hashes.getAllValues().get(0)));
+        assertEquals(5, BCryptAdaptativo.costeDe(hashes.getAllValues().get(1)));
+        // El hash ficticio ya existe: el primer correo inexistente no paga un encode de más
+        verify(passwordEncoder, never()).encode(any());
     }
 
     @Test
@@ -112,7 +186,9 @@ class AuthServiceTest {
 
         assertTrue(resultado);
         assertEquals("newHash", usuario.getContrasena());
+        assertEquals(1, usuario.getVersionSesion());
         verify(usuarioRepository).save(usuario);
+        verify(cacheUsuarios).invalidar("cambiar@correo.com");
     }
 
     @Test
@@ -0,0 +1,39 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.app.config.security.BCryptAdaptativo;
+
+class BCryptAdaptativoTest {
+
+    @Test
+    void encode_GuardaElCosteEnElHash() {
+        BCryptAdaptativo encoder = new BCryptAdaptativo(5);
+
+        String hash = encoder.encode("Clave123!");
+
+        assertEquals(5, BCryptAdaptativo.costeDe(hash));
+        assertTrue(encoder.matches("Clave123!", hash));
+    }
+
+    @Test
+    void upgradeEncoding_CosteDistinto_DevuelveTrue() {
+        BCryptAdaptativo encoder = new BCryptAdaptativo(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("a")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("a")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("a")));
+        assertFalse(encoder.upgradeEncoding("no-es-bcrypt"));
+    }
+
+    @Test
+    void calibrado_RespetaLosLimites() {
+        assertEquals(4, BCryptAdaptativo.calibrado(1, 4, 5).getCoste());
+        assertEquals(5, BCryptAdaptativo.calibrado(60_000, 4, 5).getCoste());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.service.CachePredicciones;
+import com.example.app.service.CatalogoGeneral;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachePrediccionesTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CachePredicciones cache = new CachePredicciones(2, 60, registry, reloj::get);
+
+    private final CatalogoGeneral catalogo = new CatalogoGeneral(List.of(), List.of(), List.of());
+
+    @Test
+    void obtener_Guardada_DevuelveLaSugerenciaYCuentaElAcierto() {
+        cache.obtener("quiero", catalogo);
+        cache.guardar("quiero", catalogo, "Agua");
+
+        assertEquals(Optional.of("Agua"), cache.obtener("quiero", catalogo));
+        assertEquals(1.0, registry.get("prediccion.cache.aciertos").functionCounter().count());
+        assertEquals(1.0, registry.get("prediccion.cache.fallos").functionCounter().count());
+        assertEquals(0.5, registry.get("prediccion.cache.tasa-aciertos").gauge().value());
+    }
+
+    @Test
+    void obtener_Caducada_NoLaDevuelve() {
+        cache.obtener("quiero", catalogo);
+        cache.guardar("quiero", catalogo, "Agua");
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(Optional.empty(), cache.obtener("quiero", catalogo));
+    }
+
+    @Test
+    void guardar_SuperaLaCapacidad_DescartaLaMenosUsada() {
+        cache.obtener("a", catalogo);
+        cache.guardar("a", catalogo, "A");
+        cache.guardar("b", catalogo, "B");
+        cache.obtener("a", catalogo);
+        cache.guardar("c", catalogo, "C");
+
+        assertEquals(Optional.of("A"), cache.obtener("a", catalogo));
+        assertEquals(Optional.empty(), cache.obtener("b", catalogo));
+        assertEquals(Optional.of("C"), cache.obtener("c", catalogo));
+    }
+
+    @Test
+    void obtener_CatalogoNuevo_VaciaLaCache() {
+        cache.obtener("quiero", catalogo);
+        cache.guardar("quiero", catalogo, "Agua");
+        CatalogoGeneral recargado = new CatalogoGeneral(List.of(), List.of(), List.of());
+
+        assertEquals(Optional.empty(), cache.obtener("quiero", recargado));
+        assertEquals(0, cache.getTamano());
+    }
+
+    @Test
+    void guardar_ValidadaConUnCatalogoAnterior_NoSeGuarda() {
+        cache.obtener("quiero", catalogo);
+        CatalogoGeneral recargado = new CatalogoGeneral(List.of(), List.of(), List.of());
+        cache.obtener("otra", recargado);
+
+        cache.guardar("quiero", catalogo, "Agua");
+
+        assertEquals(0, cache.getTamano());
+    }
+
+    @Test
+    void obtener_CatalogoAnteriorTrasUnaRecarga_NoVuelveALaFotoVieja() {
+        CatalogoGeneral recargado = new CatalogoGeneral(List.of(), List.of(), List.of());
+        cache.obtener("quiero", recargado);
+        cache.guardar("quiero", recargado, "Agua");
+
+        // Una petición que cogió la foto anterior antes de la recarga
+        assertEquals(Optional.empty(), cache.obtener("quiero", catalogo));
+        cache.guardar("otra", catalogo, "Pan");
+
+        assertEquals(Optional.of("Agua"), cache.obtener("quiero", recargado));
+        assertEquals(1, cache.getTamano());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.config.security.CacheUsuariosAutenticados;
+import com.example.app.config.security.UsuarioAutenticado;
+
+class CacheUsuariosAutenticadosTest {
+
+    private final UsuarioAutenticado ana = new UsuarioAutenticado(1L, "ana@correo.com");
+
+    @Test
+    void buscar_UsuarioGuardado_DevuelveElMismoYCuentaAcierto() {
+        CacheUsuariosAutenticados cache = new CacheUsuariosAutenticados(10, 300);
+
+        assertNull(cache.buscar("ana@correo.com", 1L));
+        cache.guardar("ana@correo.com", ana, cache.generacion());
+
+        assertSame(ana, cache.buscar("ANA@correo.com ", 1L));
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+    }
+
+    @Test
+    void buscar_IdDelTokenDistinto_NoDevuelveElUsuario() {
+        CacheUsuariosAutenticados cache = new CacheUsuariosAutenticados(10, 300);
+        cache.guardar("ana@correo.com", ana, cache.generacion());
+
+        assertNull(cache.buscar("ana@correo.com", 2L));
+    }
+
+    @Test
+    void buscar_EntradaCaducada_NoDevuelveElUsuario() {
+        CacheUsuariosAutenticados cache = new CacheUsuariosAutenticados(10, 0);
+        cache.guardar("ana@correo.com", ana, cache.generacion());
+
+        assertNull(cache.buscar("ana@correo.com", 1L));
+        assertEquals(0, cache.getTamano());
+    }
+
+    @Test
+    void guardar_SuperaCapacidad_DescartaElMenosUsado() {
+        CacheUsuariosAutenticados cache = new CacheUsuariosAutenticados(2, 300);
+        cache.guardar("ana@correo.com", ana, cache.generacion());
+        cache.guardar("luis@correo.com", new UsuarioAutenticado(2L, "luis@correo.com"), cache.generacion());
+        cache.buscar("ana@correo.com", 1L);
+
+        cache.guardar("eva@correo.com", new UsuarioAutenticado(3L, "eva@correo.com"), cache.generacion());
+
+        assertEquals(2, cache.getTamano());
+        assertNull(cache.buscar("luis@correo.com", 2L));
+        assertSame(ana, cache.buscar("ana@correo.com", 1L));
+    }
+
+    @Test
+    void invalidar_CargaIniciadaAntes_NoSeGuarda() {
+        CacheUsuariosAutenticados cache = new CacheUsuariosAutenticados(10, 300);
+        long generacion = cache.generacion();
+
+        cache.invalidar("ana@correo.com");
+        cache.guardar("ana@correo.com", ana, generacion);
+
+        assertNull(cache.buscar("ana@correo.com", 1L));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.app.TfgApplication;
+import com.example.app.config.MigracionesConfig;
+import com.example.app.dto.CategoriaConPictogramas;
+import com.example.app.dto.PictogramaSimple;
+import com.example.app.model.Categoria;
+import com.example.app.model.Configuracion;
+import com.example.app.model.Pictograma;
+import com.example.app.model.PictogramaCategoria;
+import com.example.app.model.PictogramaOculto;
+import com.example.app.model.TipoVoz;
+import com.example.app.model.Usuario;
+import com.example.app.service.CatalogoGeneralService;
+import com.example.app.service.CategoriaService;
+import com.example.app.service.OcultosPorUsuario;
+import com.example.app.service.PictogramaCategoriaService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cuenta con las estadísticas de Hibernate las sentencias SQL que lanza de verdad el tablero
+ * de categorías, cargas perezosas incluidas, sobre el esquema que crean las migraciones.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:consultas;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = TfgApplication.class)
+@ActiveProfiles("test")
+@Import({ MigracionesConfig.class, CategoriaService.class, PictogramaCategoriaService.class,
+    CatalogoGeneralService.class, OcultosPorUsuario.class })
+public class CategoriaServiceConsultasTest {
+
+    // Categorías visibles (generales y propias), el usuario (las relaciones con Usuario son EAGER,
+    // pero las generales no tienen y solo aparece el que pide el tablero), relaciones efectivas
+    // del usuario (propias y generales no quitadas) y, la primera vez, sus ocultos
+    private static final long SENTENCIAS_TABLERO = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void prepararEstadisticas() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void tableroDeCategoriasLanzaLasMismasSentenciasConPocosYMuchosDatos() {
+        // Catálogo general compartido: 2 categorías con 3 pictogramas cada una
+        List<PictogramaCategoria> generales = crearCatalogoGeneral(2, 3);
+
+        Usuario pequeno = crearTablero("pequeno@correo.com", 1, 1);
+        quitar(pequeno, generales.get(0));
+
+        Usuario grande = crearTablero("grande@correo.com", 8, 12);
+        quitar(grande, generales.get(0));
+        quitar(grande, generales.get(4));
+        // Y añade un pictograma propio a la primera categoría general
+        Pictograma propio = new Pictograma("Propio en general", "pictograma.png", "sustantivo");
+        propio.setUsuario(grande);
+        entityManager.persist(propio);
+        entityManager.persist(new PictogramaCategoria(grande, propio, generales.get(0).getCategoria()));
+
+        List<CategoriaConPictogramas> tableroPequeno = tableroConSesionVacia(pequeno);
+        assertEquals(SENTENCIAS_TABLERO, estadisticas.getPrepareStatementCount());
+        assertEquals(3, tableroPequeno.size());
+        assertEquals(2, categoria(tableroPequeno, "General 0").getPictogramas().size());
+        assertEquals(3, categoria(tableroPequeno, "General 1").getPictogramas().size());
+
+        List<CategoriaConPictogramas> tablero = tableroConSesionVacia(grande);
+        assertEquals(SENTENCIAS_TABLERO, estadisticas.getPrepareStatementCount());
+        // Ninguna carga por fila: la única entidad que se trae aparte es el usuario
+        assertEquals(1, estadisticas.getEntityFetchCount());
+        assertEquals(0, estadisticas.getCollectionFetchCount());
+
+        assertEquals(10, tablero.size());
+        // Relación general quitada fuera y relación propia añadida dentro
+        assertEquals(List.of("General 0-1", "General 0-2", "Propio en general"),
+            nombres(categoria(tablero, "General 0")));
+        assertEquals(List.of("General 1-0", "General 1-2"), nombres(categoria(tablero, "General 1")));
+        // El primer pictograma de cada categoría propia está oculto
+        assertEquals(11, categoria(tablero, "Categoría 0").getPictogramas().size());
+    }
+
+    /** Tablero del usuario con la sesión vacía, para que nada salga de la caché de primer nivel. */
+    private List<CategoriaConPictogramas> tableroConSesionVacia(Usuario usuario) {
+        entityManager.flush();
+        entityManager.clear();
+        estadisticas.clear();
+        return categoriaService.obtenerCategoriasConPictogramasVisibles(usuario.getId());
+    }
+
+    private static CategoriaConPictogramas categoria(List<CategoriaConPictogramas> tablero, String nombre) {
+        return tablero.stream().filter(c -> c.getNombre().equals(nombre)).findFirst().orElseThrow();
+    }
+
+    private static List<String> nombres(CategoriaConPictogramas categoria) {
+        return categoria.getPictogramas().stream().map(PictogramaSimple::getNombre).sorted().toList();
+    }
+
+    private List<PictogramaCategoria> crearCatalogoGeneral(int categorias, int pictogramasPorCategoria) {
+        List<PictogramaCategoria> relaciones = new ArrayList<>();
+        for (int c = 0; c < categorias; c++) {
+            Categoria categoria = entityManager.persist(new Categoria("General " + c, "categoria.png"));
+            for (int p = 0; p < pictogramasPorCategoria; p++) {
+                Pictograma pictograma = entityManager.persist(
+                    new Pictograma("General " + c + "-" + p, "pictograma.png", "sustantivo"));
+                relaciones.add(entityManager.persist(new PictogramaCategoria(null, pictograma, categoria)));
+            }
+        }
+        return relaciones;
+    }
+
+    /** Guarda la marca de que el usuario ha quitado la relación general de su tablero. */
+    private void quitar(Usuario usuario, PictogramaCategoria general) {
+        PictogramaCategoria eliminada = new PictogramaCategoria(usuario, general.getPictograma(), general.getCategoria());
+        eliminada.setEliminada(true);
+        entityManager.persist(eliminada);
+    }
+
+    private Usuario crearTablero(String correo, int categorias, int pictogramasPorCategoria) {
+        Usuario usuario = entityManager.persist(new Usuario("Usuario", correo, null, "local"));
+        entityManager.persist(new Configuracion(usuario, 9, false, TipoVoz.femenina));
+        for (int c = 0; c < categorias; c++) {
+            Categoria categoria = new Categoria("Categoría " + c, "categoria.png");
+            categoria.setUsuario(usuario);
+            entityManager.persist(categoria);
+
+            for (int p = 0; p < pictogramasPorCategoria; p++) {
+                Pictograma pictograma = new Pictograma("Pictograma " + c + "-" + p, "pictograma.png", "sustantivo");
+                pictograma.setUsuario(usuario);
+                entityManager.persist(pictograma);
+                entityManager.persist(new PictogramaCategoria(usuario, pictograma, categoria));
+                if (p == 0 && pictogramasPorCategoria > 1) {
+                    entityManager.persist(new PictogramaOculto(usuario, pictograma));
+                }
+            }
+        }
+        return usuario;
+    }
+}
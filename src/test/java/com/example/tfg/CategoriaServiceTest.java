@@ -4,10 +4,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,13 +23,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.example.app.dto.CategoriaConPictogramas;
 import com.example.app.model.Categoria;
 import com.example.app.model.Pictograma;
 import com.example.app.model.PictogramaCategoria;
-import com.example.app.model.PictogramaOculto;
 import com.example.app.model.Usuario;
 import com.example.app.repository.CategoriaRepository;
 import com.example.app.repository.PictogramaCategoriaRepository;
@@ -31,6 +37,7 @@ import com.example.app.repository.PictogramaOcultoRepository;
 import com.example.app.repository.PictogramaRepository;
 import com.example.app.repository.UsuarioRepository;
 import com.example.app.service.CategoriaService;
+import com.example.app.service.OcultosPorUsuario;
 @ExtendWith(MockitoExtension.class)
 class CategoriaServiceTest {
 
@@ -51,6 +58,13 @@ class CategoriaServiceTest {
     @Mock
     private PictogramaOcultoRepository pictogramaOcultoRepository;
 
+    @Mock
+    private OcultosPorUsuario ocultosPorUsuario;
+
+    private void sinOcultos() {
+        when(ocultosPorUsuario.filtrarVisibles(any(), any(), any())).thenAnswer(inv -> inv.getArgument(1));
+    }
+
     @Test
     void eliminarCategoria_siUsuarioEsDueño_eliminaCorrectamente() {
         Long categoriaId = 1L;
@@ -116,11 +130,9 @@ class CategoriaServiceTest {
         when(categoriaRepository.findCategoriasVisiblesParaUsuario(usuarioId))
             .thenReturn(List.of(categoria));
 
-        when(pictogramaCategoriaRepository.findByCategoriaIdAndUsuarioId(categoria.getId(), usuarioId))
+        when(pictogramaCategoriaRepository.buscarRelacionesEfectivasDeUsuario(usuarioId))
             .thenReturn(List.of(relacion));
-
-        when(pictogramaOcultoRepository.findByUsuarioId(usuarioId))
-            .thenReturn(List.of()); // No hay ocultos
+        sinOcultos();
 
         List<CategoriaConPictogramas> resultado = categoriaService.obtenerCategoriasConPictogramasVisibles(usuarioId);
 
@@ -138,30 +150,85 @@ class CategoriaServiceTest {
         Categoria categoria = new Categoria();
         categoria.setNombre("Saludo");
 
-        Pictograma pictograma = new Pictograma();
-        pictograma.setNombre("Hola");
-
-        PictogramaCategoria relacion = new PictogramaCategoria();
-        relacion.setCategoria(categoria);
-        relacion.setPictograma(pictograma);
-
-        PictogramaOculto oculto = new PictogramaOculto();
-        oculto.setPictograma(pictograma);
-
         when(categoriaRepository.findCategoriasVisiblesParaUsuario(usuarioId))
             .thenReturn(List.of(categoria));
 
-        when(pictogramaCategoriaRepository.findByCategoriaIdAndUsuarioId(categoria.getId(), usuarioId))
-            .thenReturn(List.of(relacion));
+        Pictograma pictograma = new Pictograma("Hola", "hola.png", "sustantivo");
+        ReflectionTestUtils.setField(pictograma, "id", 7L);
+        List<PictogramaCategoria> relaciones = List.of(new PictogramaCategoria(null, pictograma, categoria));
 
-        when(pictogramaOcultoRepository.findByUsuarioId(usuarioId))
-            .thenReturn(List.of(oculto)); // pictograma oculto
+        // La consulta devuelve la relación y el mapa de ocultos del usuario la quita
+        when(pictogramaCategoriaRepository.buscarRelacionesEfectivasDeUsuario(usuarioId))
+            .thenReturn(relaciones);
+        when(ocultosPorUsuario.filtrarVisibles(eq(usuarioId), eq(relaciones), any())).thenReturn(List.of());
 
         List<CategoriaConPictogramas> resultado = categoriaService.obtenerCategoriasConPictogramasVisibles(usuarioId);
 
         assertEquals(1, resultado.size());
         assertTrue(resultado.get(0).getPictogramas().isEmpty()); // no devuelve el pictograma oculto
+        verify(pictogramaOcultoRepository, never()).findByUsuarioId(any());
     }
 
+    @Test
+    void obtenerCategoriasConPictogramasVisibles_muchasCategorias_usaNumeroFijoDeConsultas() {
+        Long usuarioId = 1L;
+
+        List<Categoria> categorias = new ArrayList<>();
+        List<PictogramaCategoria> relaciones = new ArrayList<>();
+        for (long i = 1; i <= 60; i++) {
+            Categoria categoria = new Categoria("Categoria " + i, "cat" + i + ".png");
+            ReflectionTestUtils.setField(categoria, "id", i);
+            categorias.add(categoria);
+
+            Pictograma pictograma = new Pictograma("Picto " + i, "picto" + i + ".png", "sustantivo");
+            ReflectionTestUtils.setField(pictograma, "id", 100 + i);
+            relaciones.add(new PictogramaCategoria(null, pictograma, categoria));
+        }
+
+        when(categoriaRepository.findCategoriasVisiblesParaUsuario(usuarioId)).thenReturn(categorias);
+        when(pictogramaCategoriaRepository.buscarRelacionesEfectivasDeUsuario(usuarioId)).thenReturn(relaciones);
+        sinOcultos();
+
+        List<CategoriaConPictogramas> resultado = categoriaService.obtenerCategoriasConPictogramasVisibles(usuarioId);
+
+        assertEquals(60, resultado.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals("Categoria " + (i + 1), resultado.get(i).getNombre());
+            assertEquals(1, resultado.get(i).getPictogramas().size());
+            assertEquals("Picto " + (i + 1), resultado.get(i).getPictogramas().get(0).getNombre());
+        }
+
+        // Dos consultas en total, independientemente del número de categorías
+        verify(categoriaRepository, times(1)).findCategoriasVisiblesParaUsuario(usuarioId);
+        verify(pictogramaCategoriaRepository, times(1)).buscarRelacionesEfectivasDeUsuario(usuarioId);
+        verifyNoMoreInteractions(categoriaRepository, pictogramaCategoriaRepository);
+        verifyNoInteractions(pictogramaOcultoRepository, pictogramaRepository, usuarioRepository);
+    }
+
+    @Test
+    void obtenerCategoriasPersonalizadasConPictogramas_variasCategorias_unaSolaConsultaDeRelaciones() {
+        Long usuarioId = 1L;
+
+        List<Categoria> categorias = new ArrayList<>();
+        List<Object[]> filas = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            Categoria categoria = new Categoria("Categoria " + i, "cat" + i + ".png");
+            ReflectionTestUtils.setField(categoria, "id", i);
+            categorias.add(categoria);
+            filas.add(new Object[] { i, new Pictograma("Picto " + i, "picto" + i + ".png", "verbo") });
+        }
+
+        when(categoriaRepository.findByUsuario_Id(usuarioId)).thenReturn(categorias);
+        when(pictogramaCategoriaRepository.obtenerPictogramasDeCategoriasPorUsuario(anyCollection(), eq(usuarioId)))
+            .thenReturn(filas);
+        sinOcultos();
+
+        List<CategoriaConPictogramas> resultado = categoriaService.obtenerCategoriasPersonalizadasConPictogramas(usuarioId);
+
+        assertEquals(20, resultado.size());
+        assertEquals("Picto 7", resultado.get(6).getPictogramas().get(0).getNombre());
+        verify(pictogramaCategoriaRepository, times(1)).obtenerPictogramasDeCategoriasPorUsuario(anyCollection(), eq(usuarioId));
+        verify(pictogramaCategoriaRepository, never()).obtenerPictogramasDeCategoriaPorUsuario(any(), any());
+    }
 
 }
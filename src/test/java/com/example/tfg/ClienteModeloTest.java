@@ -0,0 +1,119 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.app.dto.PrediccionSimple;
+import com.example.app.service.ClienteModelo;
+import com.example.app.service.InterruptorCircuito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClienteModeloTest {
+
+    private static final String URL = "http://modelo/predecir";
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static ResponseEntity<PrediccionSimple> respuesta(String sugerencia) {
+        PrediccionSimple prediccion = new PrediccionSimple();
+        prediccion.setSugerencia(sugerencia);
+        return ResponseEntity.ok(prediccion);
+    }
+
+    @Test
+    void predecir_ModeloResponde_DevuelveSugerenciaYMideLaLatencia() {
+        when(restTemplate.postForEntity(eq(URL), any(HttpEntity.class), eq(PrediccionSimple.class)))
+            .thenReturn(respuesta("perro"));
+        ClienteModelo cliente = new ClienteModelo(restTemplate, URL, 4,
+            new InterruptorCircuito(3, 30, TimeUnit.SECONDS), registry);
+
+        assertEquals(Optional.of("perro"), cliente.predecir("veo un"));
+        assertEquals(1, registry.get("prediccion.modelo.duracion").tag("resultado", "ok").timer().count());
+    }
+
+    @Test
+    void predecir_FallosSeguidos_AbreElCircuitoYDejaDeLlamar() {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(PrediccionSimple.class)))
+            .thenThrow(new ResourceAccessException("Read timed out"));
+        ClienteModelo cliente = new ClienteModelo(restTemplate, URL, 4,
+            new InterruptorCircuito(3, 30, TimeUnit.SECONDS), registry);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Optional.empty(), cliente.predecir("quiero"));
+        }
+
+        verify(restTemplate, times(3)).postForEntity(anyString(), any(HttpEntity.class), eq(PrediccionSimple.class));
+        assertEquals(InterruptorCircuito.Estado.ABIERTO, cliente.getEstadoCircuito());
+        assertEquals(7.0, registry.get("prediccion.modelo.rechazados").tag("motivo", "circuito").counter().count());
+        assertEquals(1.0, registry.get("prediccion.modelo.circuito").gauge().value());
+    }
+
+    @Test
+    void predecir_ErrorInesperadoEnLaLlamadaDePrueba_VuelveAAbrirElCircuito() {
+        AtomicLong reloj = new AtomicLong();
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(PrediccionSimple.class)))
+            .thenThrow(new ResourceAccessException("Connection refused"))
+            .thenThrow(new IllegalStateException("respuesta inesperada"))
+            .thenReturn(respuesta("agua"));
+        ClienteModelo cliente = new ClienteModelo(restTemplate, URL, 4,
+            new InterruptorCircuito(1, 30, TimeUnit.SECONDS, reloj::get), registry);
+
+        assertEquals(Optional.empty(), cliente.predecir("beber"));
+        assertEquals(InterruptorCircuito.Estado.ABIERTO, cliente.getEstadoCircuito());
+
+        // La llamada de prueba falla con una excepción que no es de RestTemplate
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertEquals(Optional.empty(), cliente.predecir("beber"));
+        assertEquals(InterruptorCircuito.Estado.ABIERTO, cliente.getEstadoCircuito());
+
+        // Y el circuito se sigue pudiendo cerrar en la siguiente prueba
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertEquals(Optional.of("agua"), cliente.predecir("beber"));
+        assertEquals(InterruptorCircuito.Estado.CERRADO, cliente.getEstadoCircuito());
+    }
+
+    @Test
+    void predecir_SinHuecoEnElBulkhead_RechazaSinEsperar() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(PrediccionSimple.class)))
+            .thenAnswer(invocacion -> {
+                empezado.countDown();
+                liberar.await(5, TimeUnit.SECONDS);
+                return respuesta("agua");
+            });
+        ClienteModelo cliente = new ClienteModelo(restTemplate, URL, 1,
+            new InterruptorCircuito(3, 30, TimeUnit.SECONDS), registry);
+
+        CompletableFuture<Optional<String>> enCurso = CompletableFuture.supplyAsync(() -> cliente.predecir("beber"));
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Optional.empty(), cliente.predecir("beber"));
+        assertEquals(1.0, registry.get("prediccion.modelo.en-curso").gauge().value());
+
+        liberar.countDown();
+        assertEquals(Optional.of("agua"), enCurso.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("prediccion.modelo.rechazados").tag("motivo", "concurrencia").counter().count());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.app.config.CompactacionRelaciones;
+
+class CompactacionRelacionesTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:compactacion;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("DROP TABLE IF EXISTS pictogramas_categoria");
+        jdbc.execute("""
+            CREATE TABLE pictogramas_categoria (
+                id BIGINT NOT NULL PRIMARY KEY,
+                usuario_id BIGINT,
+                pictograma_id BIGINT NOT NULL,
+                categoria_id BIGINT NOT NULL,
+                eliminada BIT NOT NULL)
+            """);
+    }
+
+    private void insertar(long id, Long usuarioId, long pictogramaId, long categoriaId, boolean eliminada) {
+        jdbc.update("INSERT INTO pictogramas_categoria VALUES (?, ?, ?, ?, ?)",
+            id, usuarioId, pictogramaId, categoriaId, eliminada);
+    }
+
+    private List<Long> idsRestantes() {
+        return jdbc.queryForList("SELECT id FROM pictogramas_categoria ORDER BY id", Long.class);
+    }
+
+    @Test
+    void migrar_RelacionesRepetidas_DejaUnaPorUsuarioPictogramaYCategoria() {
+        insertar(1, null, 1, 10, false);
+        insertar(2, null, 1, 10, false);
+        insertar(3, 5L, 1, 10, false);
+        insertar(4, 5L, 1, 10, false);
+        insertar(5, 5L, 1, 10, false);
+        insertar(6, 6L, 1, 10, false);
+        insertar(7, null, 2, 10, false);
+
+        // Lote de 2 para que haga falta más de una vuelta
+        new CompactacionRelaciones(7, 2).migrar(jdbc);
+
+        assertEquals(List.of(1L, 3L, 6L, 7L), idsRestantes());
+    }
+
+    @Test
+    void migrar_RepetidaConYSinMarcaDeEliminada_ConservaLaRelacionVisible() {
+        insertar(1, 5L, 2, 10, true);
+        insertar(2, 5L, 2, 10, false);
+        insertar(3, 5L, 2, 10, true);
+
+        new CompactacionRelaciones(7, 100).migrar(jdbc);
+
+        assertEquals(List.of(2L), idsRestantes());
+    }
+
+    @Test
+    void migrar_SinRepetidas_NoBorraNada() {
+        insertar(1, null, 1, 10, false);
+        insertar(2, 5L, 1, 10, true);
+        insertar(3, 5L, 1, 11, false);
+
+        new CompactacionRelaciones(7, 100).migrar(jdbc);
+
+        assertEquals(List.of(1L, 2L, 3L), idsRestantes());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.app.config.security.CosteBCryptCompartido;
+
+class CosteBCryptCompartidoTest {
+
+    private static final Instant INICIO = Instant.parse("2026-01-01T00:00:00Z");
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:coste;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("DROP ALL OBJECTS");
+        jdbc.execute("""
+            CREATE TABLE parametros_compartidos (
+                clave VARCHAR(64) NOT NULL PRIMARY KEY,
+                valor VARCHAR(255) NOT NULL,
+                actualizado_en DATETIME(6) NOT NULL)
+            """);
+    }
+
+    private CosteBCryptCompartido replica(Instant ahora) {
+        return new CosteBCryptCompartido(jdbc, Duration.ofDays(30), Clock.fixed(ahora, ZoneOffset.UTC));
+    }
+
+    @Test
+    void obtener_SinValor_CalibraYLoGuarda() {
+        assertEquals(11, replica(INICIO).obtener(() -> 11));
+
+        assertEquals("11", jdbc.queryForObject("SELECT valor FROM parametros_compartidos", String.class));
+    }
+
+    @Test
+    void obtener_ValorVigente_OtraReplicaLoUsaSinCalibrar() {
+        replica(INICIO).obtener(() -> 11);
+
+        int coste = replica(INICIO.plus(Duration.ofDays(1))).obtener(() -> fail("No debe calibrar"));
+
+        assertEquals(11, coste);
+    }
+
+    @Test
+    void obtener_ValorCaducado_RecalibraAunqueBaje() {
+        replica(INICIO).obtener(() -> 13);
+
+        int coste = replica(INICIO.plus(Duration.ofDays(31))).obtener(() -> 11);
+
+        assertEquals(11, coste);
+        assertEquals("11", jdbc.queryForObject("SELECT valor FROM parametros_compartidos", String.class));
+    }
+
+    @Test
+    void obtener_OtraReplicaGuardaMientrasCalibra_UsaElValorGuardado() {
+        CosteBCryptCompartido lenta = replica(INICIO);
+
+        int coste = lenta.obtener(() -> {
+            replica(INICIO).obtener(() -> 12);
+            return 10;
+        });
+
+        assertEquals(12, coste);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.app.config.DiferenciasRelaciones;
+
+class DiferenciasRelacionesTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:diferencias;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("DROP ALL OBJECTS");
+        jdbc.execute("CREATE TABLE usuarios (id BIGINT NOT NULL PRIMARY KEY, correo VARCHAR(255) NOT NULL)");
+        jdbc.execute("CREATE TABLE categorias (id BIGINT NOT NULL PRIMARY KEY, usuario_id BIGINT)");
+        jdbc.execute("""
+            CREATE TABLE pictogramas_categoria (
+                id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                usuario_id BIGINT,
+                pictograma_id BIGINT NOT NULL,
+                categoria_id BIGINT NOT NULL)
+            """);
+
+        // Categorías generales 10 y 11; la 20 es del usuario 1
+        jdbc.update("INSERT INTO categorias VALUES (10, NULL), (11, NULL), (20, 1)");
+        // Catálogo general: (pictograma, categoría) = (1, 10), (2, 10), (3, 11)
+        insertar(null, 1, 10);
+        insertar(null, 2, 10);
+        insertar(null, 3, 11);
+    }
+
+    private void insertar(Long usuarioId, long pictogramaId, long categoriaId) {
+        jdbc.update("INSERT INTO pictogramas_categoria (usuario_id, pictograma_id, categoria_id) VALUES (?, ?, ?)",
+            usuarioId, pictogramaId, categoriaId);
+    }
+
+    private List<String> filasDe(long usuarioId) {
+        return jdbc.queryForList("""
+            SELECT pictograma_id || '-' || categoria_id || (CASE WHEN eliminada THEN ' eliminada' ELSE '' END)
+            FROM pictogramas_categoria WHERE usuario_id = ? ORDER BY pictograma_id, categoria_id
+            """, String.class, usuarioId);
+    }
+
+    @Test
+    void migrar_CopiaConCambios_GuardaSoloLasDiferencias() {
+        jdbc.update("INSERT INTO usuarios VALUES (1, 'uno@correo.com')");
+        // Copia del usuario 1: quitó (2, 10), añadió (4, 10) y tiene su propia categoría
+        insertar(1L, 1, 10);
+        insertar(1L, 3, 11);
+        insertar(1L, 4, 10);
+        insertar(1L, 5, 20);
+
+        // Lote de 1 para que haga falta más de una vuelta
+        new DiferenciasRelaciones(2, 1).migrar(jdbc);
+
+        assertEquals(List.of("2-10 eliminada", "4-10", "5-20"), filasDe(1));
+    }
+
+    @Test
+    void migrar_VariosUsuarios_ConvierteCadaUnoPorSeparado() {
+        jdbc.update("INSERT INTO usuarios VALUES (1, 'uno@correo.com'), (2, 'dos@correo.com'), (3, 'tres@correo.com')");
+        insertar(1L, 1, 10);
+        insertar(1L, 2, 10);
+        insertar(1L, 3, 11);
+        insertar(2L, 1, 10);
+        // El usuario 3 no tiene copia (registrado con Google): hereda el catálogo general
+
+        new DiferenciasRelaciones(2, 1).migrar(jdbc);
+
+        assertEquals(List.of(), filasDe(1));
+        assertEquals(List.of("2-10 eliminada", "3-11 eliminada"), filasDe(2));
+        assertEquals(List.of(), filasDe(3));
+        assertEquals(3, jdbc.queryForObject(
+            "SELECT COUNT(*) FROM pictogramas_categoria WHERE usuario_id IS NULL", Integer.class));
+    }
+
+    @Test
+    void migrar_CreaElIndiceAntesDeConvertir() {
+        new DiferenciasRelaciones(2, 100).migrar(jdbc);
+
+        assertEquals(1, jdbc.queryForObject("""
+            SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES
+            WHERE INDEX_NAME = 'IDX_PC_USUARIO_PICTOGRAMA'
+            """, Integer.class));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.dto.PictogramaSimple;
+import com.example.app.model.Pictograma;
+import com.example.app.model.Usuario;
+import com.example.app.repository.PictogramaRepository;
+import com.example.app.service.IndiceNombresPictogramas;
+import com.example.app.service.OcultosPorUsuario;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceNombresPictogramasTest {
+
+    private IndiceNombresPictogramas indice;
+
+    @Mock
+    private PictogramaRepository pictogramaRepository;
+
+    @Mock
+    private OcultosPorUsuario ocultosPorUsuario;
+
+    @BeforeEach
+    void setUp() {
+        indice = crearIndice(100);
+    }
+
+    private IndiceNombresPictogramas crearIndice(int capacidad) {
+        IndiceNombresPictogramas nuevo = new IndiceNombresPictogramas(capacidad, 3600);
+        ReflectionTestUtils.setField(nuevo, "pictogramaRepository", pictogramaRepository);
+        ReflectionTestUtils.setField(nuevo, "ocultosPorUsuario", ocultosPorUsuario);
+
+        List<Object[]> generales = new ArrayList<>();
+        generales.add(new Object[] { 1L, "Camión", "camion.png", "sustantivo" });
+        generales.add(new Object[] { 2L, "camiseta", "camiseta.png", "sustantivo" });
+        generales.add(new Object[] { 3L, "Helado de fresa", "helado.png", "sustantivo" });
+        generales.add(new Object[] { 6L, "Niño", "nino.png", "sustantivo" });
+        lenient().when(pictogramaRepository.buscarDatosParaIndiceGeneral()).thenReturn(generales);
+        lenient().when(pictogramaRepository.buscarDatosParaIndiceDeUsuario(7L))
+            .thenReturn(List.<Object[]>of(new Object[] { 4L, "cama de Ana", "cama.png", "sustantivo" }));
+        lenient().when(pictogramaRepository.buscarDatosParaIndiceDeUsuario(8L))
+            .thenReturn(List.<Object[]>of(new Object[] { 5L, "cama de Luis", "cama2.png", "sustantivo" }));
+        return nuevo;
+    }
+
+    private void sinOcultos() {
+        when(ocultosPorUsuario.filtrarVisibles(any(), any(), any())).thenAnswer(inv -> inv.getArgument(1));
+    }
+
+    private List<Long> ids(List<PictogramaSimple> pictogramas) {
+        return pictogramas.stream().map(PictogramaSimple::getId).toList();
+    }
+
+    @Test
+    void buscar_PrefijoSinTilde_DevuelveGeneralesYPropiosEnOrdenAlfabetico() {
+        sinOcultos();
+
+        List<PictogramaSimple> resultado = indice.buscar("CAMI", 7L, 10);
+
+        assertEquals(List.of(1L, 2L), ids(resultado));
+        assertEquals("Camión", resultado.get(0).getNombre());
+        assertEquals(List.of(4L, 1L, 2L), ids(indice.buscar("cam", 7L, 10)));
+        assertEquals(List.of(6L), ids(indice.buscar("niño", 7L, 10)));
+    }
+
+    @Test
+    void buscar_PalabraInterior_EncuentraElPictogramaUnaSolaVez() {
+        sinOcultos();
+
+        assertEquals(List.of(3L), ids(indice.buscar("fre", null, 10)));
+        // "de" empieza una palabra de tres nombres, pero solo uno es visible sin usuario
+        assertEquals(List.of(3L), ids(indice.buscar("de", null, 10)));
+    }
+
+    @Test
+    void buscar_ConOcultos_LosSaltaYSigueHastaElLimite() {
+        when(ocultosPorUsuario.filtrarVisibles(eq(7L), any(), any())).thenAnswer(inv -> {
+            List<?> tanda = inv.getArgument(1);
+            return tanda.subList(1, tanda.size());
+        });
+
+        // Primera tanda [4, 1]: se oculta el 4; segunda [2]: se oculta el 2
+        assertEquals(List.of(1L), ids(indice.buscar("cam", 7L, 2)));
+    }
+
+    @Test
+    void buscarParecidos_ConErratasYTildes_DevuelvePrimeroElMasParecido() {
+        sinOcultos();
+
+        assertEquals(List.of(1L), ids(indice.buscarParecidos("camon", null, 10)));
+        assertEquals(List.of(6L), ids(indice.buscarParecidos("nino", null, 10)));
+        // "fesa" está a 1 de "fresa", una palabra de "Helado de fresa"
+        assertEquals(List.of(3L), ids(indice.buscarParecidos("fesa", null, 10)));
+        // A partir de 6 letras se admiten dos erratas
+        assertEquals(List.of(2L), ids(indice.buscarParecidos("kamizeta", null, 10)));
+        // Con 3 a 5 letras solo se admite una errata
+        assertEquals(List.of(), ids(indice.buscarParecidos("kamon", null, 10)));
+        // Los propios de otro usuario no aparecen; a igual distancia va antes el nombre entero
+        assertEquals(List.of(4L), ids(indice.buscarParecidos("cana", 7L, 10)));
+    }
+
+    @Test
+    void guardadoYEliminado_TrasCargar_ActualizanElIndiceSinReleer() {
+        sinOcultos();
+        indice.buscar("x", 7L, 1);
+
+        Pictograma pictograma = new Pictograma("Camión de bomberos", "bomberos.png", "sustantivo");
+        ReflectionTestUtils.setField(pictograma, "id", 1L);
+        indice.guardado(pictograma);
+        Usuario ana = new Usuario();
+        ana.setId(7L);
+        Pictograma propio = new Pictograma("Caracol", "caracol.png", "sustantivo");
+        propio.setUsuario(ana);
+        ReflectionTestUtils.setField(propio, "id", 9L);
+        indice.guardado(propio);
+        Pictograma camiseta = new Pictograma("camiseta", "camiseta.png", "sustantivo");
+        ReflectionTestUtils.setField(camiseta, "id", 2L);
+        indice.eliminado(camiseta);
+
+        assertEquals(List.of(1L), ids(indice.buscar("bomb", null, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("ca", null, 10)));
+        assertEquals(List.of(4L, 1L, 9L), ids(indice.buscar("ca", 7L, 10)));
+        // Generales 1, 3 y 6, y los propios 4 y 9 del usuario 7
+        assertEquals(5, indice.getTamano());
+        verify(pictogramaRepository, times(1)).buscarDatosParaIndiceGeneral();
+        verify(pictogramaRepository, times(1)).buscarDatosParaIndiceDeUsuario(7L);
+    }
+
+    @Test
+    void buscar_SoloCargaLosPropiosDelUsuarioQueBusca() {
+        sinOcultos();
+
+        assertEquals(List.of(4L, 1L, 2L), ids(indice.buscar("cam", 7L, 10)));
+        assertEquals(List.of(1L, 2L), ids(indice.buscar("cam", null, 10)));
+
+        verify(pictogramaRepository, never()).buscarDatosParaIndiceDeUsuario(8L);
+        assertEquals(1, indice.getUsuariosCargados());
+    }
+
+    @Test
+    void buscar_SinSitioParaMasUsuarios_DescartaElMenosUsadoYLoReleeDespues() {
+        sinOcultos();
+        indice = crearIndice(1);
+
+        indice.buscar("cam", 7L, 10);
+        assertEquals(List.of(5L, 1L, 2L), ids(indice.buscar("cam", 8L, 10)));
+        assertEquals(List.of(4L, 1L, 2L), ids(indice.buscar("cam", 7L, 10)));
+
+        assertEquals(1, indice.getUsuariosCargados());
+        verify(pictogramaRepository, times(2)).buscarDatosParaIndiceDeUsuario(7L);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.service.InterruptorCircuito;
+import com.example.app.service.InterruptorCircuito.Estado;
+
+class InterruptorCircuitoTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final InterruptorCircuito interruptor = new InterruptorCircuito(3, 10, TimeUnit.SECONDS, reloj::get);
+
+    private void fallar(int veces) {
+        for (int i = 0; i < veces; i++) {
+            assertTrue(interruptor.permitir());
+            interruptor.fallo();
+        }
+    }
+
+    @Test
+    void fallo_UmbralDeFallosSeguidos_AbreYRechaza() {
+        fallar(2);
+        assertEquals(Estado.CERRADO, interruptor.getEstado());
+
+        fallar(1);
+
+        assertEquals(Estado.ABIERTO, interruptor.getEstado());
+        assertFalse(interruptor.permitir());
+    }
+
+    @Test
+    void exito_EntreFallos_ReiniciaLaCuenta() {
+        fallar(2);
+        interruptor.exito();
+        fallar(2);
+
+        assertEquals(Estado.CERRADO, interruptor.getEstado());
+    }
+
+    @Test
+    void permitir_PasadoElTiempoAbierto_DejaPasarUnaSolaPrueba() {
+        fallar(3);
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(interruptor.permitir());
+        assertEquals(Estado.SEMIABIERTO, interruptor.getEstado());
+        assertFalse(interruptor.permitir());
+
+        interruptor.exito();
+        assertEquals(Estado.CERRADO, interruptor.getEstado());
+        assertTrue(interruptor.permitir());
+    }
+
+    @Test
+    void fallo_LaPruebaFalla_VuelveAAbrirOtroPeriodo() {
+        fallar(3);
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(interruptor.permitir());
+
+        interruptor.fallo();
+
+        assertEquals(Estado.ABIERTO, interruptor.getEstado());
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertFalse(interruptor.permitir());
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(interruptor.permitir());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.config.security.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void verificarToken_TokenGenerado_DevuelveEmailEIdDeUsuario() {
+        String token = jwtUtil.generateToken("ana@correo.com", 42L);
+
+        Claims claims = jwtUtil.verificarToken(token);
+
+        assertEquals("ana@correo.com", claims.getSubject());
+        assertEquals(42L, jwtUtil.extractUsuarioId(claims));
+    }
+
+    @Test
+    void verificarToken_FirmaAlterada_LanzaExcepcion() {
+        String token = jwtUtil.generateToken("ana@correo.com", 42L);
+        String alterado = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(JwtException.class, () -> jwtUtil.verificarToken(alterado));
+    }
+
+    @Test
+    void extractUsuarioId_TokenSinClaim_DevuelveNull() {
+        Claims claims = Jwts.claims().setSubject("ana@correo.com");
+
+        assertNull(jwtUtil.extractUsuarioId(claims));
+    }
+}
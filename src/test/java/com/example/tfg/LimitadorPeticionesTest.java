@@ -0,0 +1,90 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.config.security.LimitadorPeticiones;
+
+class LimitadorPeticionesTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void consumir_AgotaLaRafaga_DevuelveEsperaHastaElSiguienteToken() {
+        LimitadorPeticiones limitador = new LimitadorPeticiones(3, 6, 100, reloj::get);
+
+        assertEquals(0, limitador.consumir("ip:1"));
+        assertEquals(0, limitador.consumir("ip:1"));
+        assertEquals(0, limitador.consumir("ip:1"));
+
+        // 6 por minuto: un token cada 10 segundos
+        assertEquals(TimeUnit.SECONDS.toNanos(10), limitador.consumir("ip:1"));
+        assertEquals(0, limitador.consumir("ip:2"));
+    }
+
+    @Test
+    void consumir_PasaElTiempo_RecuperaTokens() {
+        LimitadorPeticiones limitador = new LimitadorPeticiones(1, 6, 100, reloj::get);
+        limitador.consumir("ip:1");
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertEquals(TimeUnit.SECONDS.toNanos(6), limitador.consumir("ip:1"));
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals(0, limitador.consumir("ip:1"));
+    }
+
+    @Test
+    void consumir_SinSitioParaMasClaves_DejaPasarSinRecordarla() {
+        LimitadorPeticiones limitador = new LimitadorPeticiones(1, 60, 2, reloj::get);
+        limitador.consumir("email:1");
+        limitador.consumir("email:2");
+
+        // Los cubos siguen vacíos: la clave nueva no se rechaza, pero tampoco se recuerda
+        assertEquals(0, limitador.consumir("email:3"));
+        assertEquals(0, limitador.consumir("email:3"));
+        assertEquals(2, limitador.getClaves());
+        // Las claves que ya se recordaban siguen limitadas
+        assertTrue(limitador.consumir("email:1") > 0);
+
+        // Al recargarse, los cubos llenos se descartan y vuelve a haber sitio
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limitador.consumir("email:3"));
+        assertEquals(1, limitador.getClaves());
+    }
+
+    @Test
+    void consumir_ClavesNuevasALaVez_NoPasaDeMaxClaves() throws Exception {
+        LimitadorPeticiones limitador = new LimitadorPeticiones(1, 60, 50, reloj::get);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                int hilo = h;
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        limitador.consumir("email:" + hilo + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(50, limitador.getClaves());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.config.security.LimiteAuthFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+class LimiteAuthFilterTest {
+
+    private LimiteAuthFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        filtro = new LimiteAuthFilter(true, 10, 10, 2, 2, 100);
+        ReflectionTestUtils.setField(filtro, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(filtro, "registry", new SimpleMeterRegistry());
+    }
+
+    private MockHttpServletResponse login(String email) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setContent(("{\"email\":\"" + email + "\",\"contrasena\":\"x\"}").getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(request, response, cadena);
+
+        if (cadena.getRequest() != null) {
+            // El controlador sigue pudiendo leer el cuerpo completo
+            String cuerpo = new String(cadena.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("{\"email\":\"" + email + "\",\"contrasena\":\"x\"}", cuerpo);
+        }
+        return response;
+    }
+
+    @Test
+    void doFilter_SuperaElLimitePorEmail_Devuelve429ConRetryAfter() throws Exception {
+        assertEquals(200, login("ana@correo.com").getStatus());
+        assertEquals(200, login(" ANA@correo.com").getStatus());
+
+        MockHttpServletResponse rechazada = login("ana@correo.com");
+
+        assertEquals(429, rechazada.getStatus());
+        assertEquals("30", rechazada.getHeader("Retry-After"));
+        assertEquals(200, login("luis@correo.com").getStatus());
+    }
+
+    @Test
+    void doFilter_RutaNoLimitada_NoConsumeTokens() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pictogramas");
+            MockFilterChain cadena = new MockFilterChain();
+            filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+            assertNotNull(cadena.getRequest());
+        }
+    }
+
+    @Test
+    void doFilter_LecturaAsincronaConTodoElCuerpoLeido_EntregaElCuerpoAlListener() throws Exception {
+        String cuerpo = "{\"email\":\"ana@correo.com\",\"contrasena\":\"x\"}";
+
+        assertEquals(cuerpo, leerAsincrono(cuerpo));
+    }
+
+    @Test
+    void doFilter_LecturaAsincronaConCuerpoMayorQueLoLeido_EntregaElCuerpoCompleto() throws Exception {
+        String cuerpo = "{\"email\":\"ana@correo.com\",\"relleno\":\"" + "x".repeat(40_000) + "\"}";
+
+        assertEquals(cuerpo, leerAsincrono(cuerpo));
+    }
+
+    /** Pasa el cuerpo por el filtro y lo lee con un ReadListener, como un controlador asíncrono. */
+    private String leerAsincrono(String cuerpo) throws Exception {
+        EntradaAsincrona original = new EntradaAsincrona(cuerpo.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return original;
+            }
+        };
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+
+        ServletInputStream entrada = cadena.getRequest().getInputStream();
+        ByteArrayOutputStream leido = new ByteArrayOutputStream();
+        boolean[] terminado = { false };
+        entrada.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[4096];
+                while (entrada.isReady() && !entrada.isFinished()) {
+                    int n = entrada.read(buffer);
+                    if (n > 0) {
+                        leido.write(buffer, 0, n);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                terminado[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertTrue(terminado[0]);
+        return leido.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Entrada que, como el contenedor, avisa al listener en cuanto se registra. */
+    private static class EntradaAsincrona extends ServletInputStream {
+
+        private final ByteArrayInputStream datos;
+
+        EntradaAsincrona(byte[] datos) {
+            this.datos = new ByteArrayInputStream(datos);
+        }
+
+        @Override
+        public int read() {
+            return datos.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return datos.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return datos.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            try {
+                if (!isFinished()) {
+                    listener.onDataAvailable();
+                }
+                listener.onAllDataRead();
+            } catch (IOException e) {
+                listener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.service.MapaBitsIds;
+
+class MapaBitsIdsTest {
+
+    @Test
+    void anadir_IdsDeVariosGrupos_LosContieneSoloUnaVez() {
+        MapaBitsIds mapa = MapaBitsIds.de(List.of(3L, 70_000L, 3L, 5_000_000_000L));
+
+        assertTrue(mapa.contiene(3L));
+        assertTrue(mapa.contiene(70_000L));
+        assertTrue(mapa.contiene(5_000_000_000L));
+        assertFalse(mapa.contiene(4L));
+        assertFalse(mapa.contiene(3L + 65_536L));
+        assertEquals(3, mapa.cardinalidad());
+        assertFalse(mapa.anadir(70_000L));
+    }
+
+    @Test
+    void quitar_UltimoIdDelGrupo_DejaElMapaVacio() {
+        MapaBitsIds mapa = MapaBitsIds.de(List.of(1L, 2L));
+
+        assertTrue(mapa.quitar(1L));
+        assertFalse(mapa.quitar(1L));
+        assertTrue(mapa.quitar(2L));
+
+        assertEquals(0, mapa.cardinalidad());
+        assertFalse(mapa.contiene(2L));
+        assertFalse(mapa.quitar(99L));
+    }
+
+    @Test
+    void anadir_MasDe4096EnUnGrupo_PasaAMapaDeBitsYVuelveAlQuitar() {
+        MapaBitsIds mapa = new MapaBitsIds();
+        for (long id = 0; id < 6000; id++) {
+            mapa.anadir(id * 10);
+        }
+        // El contenedor de bits ocupa 8 KB fijos en lugar de crecer con cada id
+        assertEquals(6000, mapa.cardinalidad());
+        assertTrue(mapa.bytes() <= 8192 + 64);
+        assertTrue(mapa.contiene(59_990L));
+        assertFalse(mapa.contiene(59_991L));
+
+        for (long id = 0; id < 5000; id++) {
+            mapa.quitar(id * 10);
+        }
+
+        assertEquals(1000, mapa.cardinalidad());
+        assertTrue(mapa.contiene(50_000L));
+        assertFalse(mapa.contiene(40_000L));
+    }
+
+    @Test
+    void operacionesAleatorias_SeComportaComoUnSet() {
+        Random random = new Random(42);
+        MapaBitsIds mapa = new MapaBitsIds();
+        Set<Long> esperado = new HashSet<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(200_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(esperado.remove(id), mapa.quitar(id));
+            } else {
+                assertEquals(esperado.add(id), mapa.anadir(id));
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.cardinalidad());
+        List<Long> distintos = new ArrayList<>();
+        for (long id = 0; id < 200_000; id++) {
+            if (mapa.contiene(id) != esperado.contains(id)) {
+                distintos.add(id);
+            }
+        }
+        assertEquals(List.of(), distintos);
+    }
+}
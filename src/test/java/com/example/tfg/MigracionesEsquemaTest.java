@@ -0,0 +1,111 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.app.config.CompactacionRelaciones;
+import com.example.app.config.DiferenciasRelaciones;
+import com.example.app.config.MigracionJava;
+import com.example.app.config.MigracionesEsquema;
+
+class MigracionesEsquemaTest {
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migraciones;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private MigracionesEsquema migraciones(MigracionJava extra) {
+        return new MigracionesEsquema(dataSource, 1, 30, List.of(
+            new DiferenciasRelaciones(2, 100), new CompactacionRelaciones(7, 100), extra));
+    }
+
+    private static MigracionJava migracion(int version, Runnable cuerpo) {
+        return new MigracionJava() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescripcion() {
+                return "prueba";
+            }
+
+            @Override
+            public void migrar(JdbcTemplate jdbc) {
+                cuerpo.run();
+            }
+        };
+    }
+
+    @Test
+    void migrar_DosInstanciasALaVez_SoloUnaAplicaCadaVersion() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        MigracionJava lenta = migracion(100, () -> {
+            ejecuciones.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> arranques = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                arranques.add(hilos.submit(() -> {
+                    migraciones(lenta).migrar();
+                    return null;
+                }));
+            }
+            for (Future<?> arranque : arranques) {
+                arranque.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(0, jdbc.queryForObject(
+            "SELECT COUNT(*) FROM historial_esquema WHERE estado <> 'aplicada'", Integer.class));
+    }
+
+    @Test
+    void migrar_VersionFallida_QuedaAnotadaYNoSeRepite() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        MigracionJava rota = migracion(100, () -> {
+            ejecuciones.incrementAndGet();
+            throw new IllegalStateException("fallo a medias");
+        });
+
+        assertThrows(IllegalStateException.class, () -> migraciones(rota).migrar());
+        assertEquals("fallida", jdbc.queryForObject(
+            "SELECT estado FROM historial_esquema WHERE version = 100", String.class));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> migraciones(rota).migrar());
+        assertEquals(1, ejecuciones.get());
+        assertTrue(error.getMessage().contains("sin terminar"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.service.NormalizadorTexto;
+
+class NormalizadorTextoTest {
+
+    @Test
+    void plegar_TildesMayusculasYEspacios_DevuelveFormaCanonica() {
+        assertEquals("camion de bomberos", NormalizadorTexto.plegar("  CAMIÓN   de\tBomberos "));
+        assertEquals("pinguino nino", NormalizadorTexto.plegar("Pingüino niño"));
+    }
+
+    @Test
+    void plegar_Nulo_DevuelveCadenaVacia() {
+        assertEquals("", NormalizadorTexto.plegar(null));
+    }
+
+    @Test
+    void plegarConEnie_Enie_LaConserva() {
+        assertEquals("pinguino niño", NormalizadorTexto.plegarConEnie("Pingüino NIÑO"));
+        assertNotEquals(NormalizadorTexto.plegarConEnie("año"), NormalizadorTexto.plegarConEnie("ano"));
+    }
+
+    @Test
+    void lema_Numero_DevuelveLaMismaRaiz() {
+        assertEquals(NormalizadorTexto.lema("perro"), NormalizadorTexto.lema("Perros"));
+        assertEquals(NormalizadorTexto.lema("flor"), NormalizadorTexto.lema("flores"));
+        assertEquals(NormalizadorTexto.lema("camión"), NormalizadorTexto.lema("camiones"));
+        assertEquals(NormalizadorTexto.lema("pez"), NormalizadorTexto.lema("peces"));
+        assertEquals(NormalizadorTexto.lema("mesa"), NormalizadorTexto.lema("Mesas"));
+    }
+
+    @Test
+    void lema_GeneroOEnie_NoLosPliega() {
+        assertNotEquals(NormalizadorTexto.lema("casa"), NormalizadorTexto.lema("caso"));
+        assertNotEquals(NormalizadorTexto.lema("pala"), NormalizadorTexto.lema("palo"));
+        assertNotEquals(NormalizadorTexto.lema("perra"), NormalizadorTexto.lema("perro"));
+        assertNotEquals(NormalizadorTexto.lema("años"), NormalizadorTexto.lema("anos"));
+    }
+
+    @Test
+    void masculino_LemaFemenino_DevuelveElMasculino() {
+        assertEquals(NormalizadorTexto.lema("perro"), NormalizadorTexto.masculino(NormalizadorTexto.lema("perras")));
+        assertEquals(NormalizadorTexto.lema("profesor"), NormalizadorTexto.masculino(NormalizadorTexto.lema("profesoras")));
+        assertEquals(NormalizadorTexto.lema("niño pequeño"), NormalizadorTexto.masculino(NormalizadorTexto.lema("Niñas pequeñas")));
+    }
+
+    @Test
+    void lema_PalabrasCortas_NoLasToca() {
+        assertEquals("mes", NormalizadorTexto.lema("mes"));
+        assertEquals("gas", NormalizadorTexto.lema("gas"));
+        assertEquals("", NormalizadorTexto.lema(null));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.repository.PictogramaOcultoRepository;
+import com.example.app.service.OcultosPorUsuario;
+
+class OcultosPorUsuarioTest {
+
+    private final PictogramaOcultoRepository repository = mock(PictogramaOcultoRepository.class);
+
+    @Test
+    void filtrarVisibles_ConOcultos_LosQuitaYCargaUnaSolaVez() {
+        when(repository.buscarIdsPictogramasOcultos(1L)).thenReturn(List.of(2L, 4L));
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 300);
+
+        assertEquals(List.of(1L, 3L), ocultos.filtrarVisibles(1L, List.of(1L, 2L, 3L, 4L), id -> id));
+        assertTrue(ocultos.estaOculto(1L, 4L));
+
+        verify(repository, times(1)).buscarIdsPictogramasOcultos(1L);
+        assertEquals(1, ocultos.getAciertos());
+        assertEquals(1, ocultos.getFallos());
+    }
+
+    @Test
+    void filtrarVisibles_SinUsuario_DevuelveLaMismaListaSinConsultar() {
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 300);
+        List<Long> ids = List.of(1L, 2L);
+
+        assertSame(ids, ocultos.filtrarVisibles(null, ids, id -> id));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void ocultadosYDesocultados_UsuarioCargado_ActualizaSinVolverALeer() {
+        when(repository.buscarIdsPictogramasOcultos(1L)).thenReturn(List.of(2L));
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 300);
+        ocultos.estaOculto(1L, 2L);
+
+        ocultos.ocultados(1L, List.of(3L, 5L));
+        ocultos.desocultados(1L, List.of(2L));
+
+        assertEquals(List.of(1L, 2L, 4L), ocultos.filtrarVisibles(1L, List.of(1L, 2L, 3L, 4L, 5L), id -> id));
+        verify(repository, times(1)).buscarIdsPictogramasOcultos(1L);
+    }
+
+    @Test
+    void estaOculto_EntradaCaducada_VuelveALeer() {
+        when(repository.buscarIdsPictogramasOcultos(1L)).thenReturn(List.of(2L)).thenReturn(List.of());
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 0);
+
+        assertTrue(ocultos.estaOculto(1L, 2L));
+        assertFalse(ocultos.estaOculto(1L, 2L));
+        verify(repository, times(2)).buscarIdsPictogramasOcultos(1L);
+    }
+
+    @Test
+    void estaOculto_OtroUsuarioCambiaDuranteLaCarga_GuardaLaCarga() {
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 300);
+        when(repository.buscarIdsPictogramasOcultos(1L)).thenAnswer(invocacion -> {
+            ocultos.ocultados(2L, List.of(7L));
+            return List.of(2L);
+        });
+
+        assertTrue(ocultos.estaOculto(1L, 2L));
+        assertTrue(ocultos.estaOculto(1L, 2L));
+        verify(repository, times(1)).buscarIdsPictogramasOcultos(1L);
+    }
+
+    @Test
+    void estaOculto_MismoUsuarioCambiaDuranteLaCarga_NoGuardaLaCarga() {
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 10, 300);
+        when(repository.buscarIdsPictogramasOcultos(1L))
+            .thenAnswer(invocacion -> {
+                // La carga leyó antes de que se confirmara este cambio
+                ocultos.ocultados(1L, List.of(3L));
+                return List.of(2L);
+            })
+            .thenReturn(List.of(2L, 3L));
+
+        assertFalse(ocultos.estaOculto(1L, 3L));
+        assertTrue(ocultos.estaOculto(1L, 3L));
+        verify(repository, times(2)).buscarIdsPictogramasOcultos(1L);
+    }
+
+    @Test
+    void obtener_SuperaCapacidad_DescartaElMenosUsado() {
+        when(repository.buscarIdsPictogramasOcultos(anyLong())).thenReturn(List.of());
+        OcultosPorUsuario ocultos = new OcultosPorUsuario(repository, 2, 300);
+
+        ocultos.estaOculto(1L, 1L);
+        ocultos.estaOculto(2L, 1L);
+        ocultos.estaOculto(1L, 1L);
+        ocultos.estaOculto(3L, 1L);
+
+        assertEquals(2, ocultos.getTamano());
+        ocultos.estaOculto(2L, 1L);
+        verify(repository, times(2)).buscarIdsPictogramasOcultos(2L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.app.config.security.PasswordEncoderAcotado;
+import com.example.app.config.security.PasswordEncoderAcotado.ColaLlenaException;
+import com.example.app.config.security.PasswordEncoderAcotado.TiempoAgotadoException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordEncoderAcotadoTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void matches_DelegaEnElEncoderYRegistraLaDuracion() {
+        try (PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(new Simple(null, null), 2, 4, 1000, registry)) {
+            assertTrue(encoder.matches("clave", "hash-clave"));
+            assertEquals("hash-clave", encoder.encode("clave"));
+        }
+
+        assertEquals(1, registry.get("auth.hash.duracion").tag("operacion", "matches").timer().count());
+        assertEquals(1, registry.get("auth.hash.duracion").tag("operacion", "encode").timer().count());
+    }
+
+    @Test
+    void encode_PoolYColaOcupados_RechazaSinEsperar() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try (PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(new Simple(empezado, liberar), 1, 1, 10_000, registry)) {
+            CompletableFuture<String> enCurso = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(empezado.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> enCola = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            esperarCola();
+
+            assertThrows(ColaLlenaException.class, () -> encoder.encode("c"));
+
+            liberar.countDown();
+            assertEquals("hash-a", enCurso.get(5, TimeUnit.SECONDS));
+            assertEquals("hash-b", enCola.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1.0, registry.get("auth.hash.rechazados").counter().count());
+    }
+
+    @Test
+    void encode_NoTerminaATiempo_LanzaTiempoAgotado() {
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try (PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(new Simple(null, liberar), 1, 1, 50, registry)) {
+            assertThrows(TiempoAgotadoException.class, () -> encoder.encode("a"));
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    private void esperarCola() throws InterruptedException {
+        for (int i = 0; i < 500 && registry.get("auth.hash.cola").gauge().value() < 1; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    /** Encoder trivial que puede quedarse bloqueado para simular hashes lentos. */
+    private static class Simple implements PasswordEncoder {
+        private final CountDownLatch empezado;
+        private final CountDownLatch liberar;
+
+        Simple(CountDownLatch empezado, CountDownLatch liberar) {
+            this.empezado = empezado;
+            this.liberar = liberar;
+        }
+
+        @Override
+        public String encode(CharSequence contrasena) {
+            if (empezado != null) {
+                empezado.countDown();
+            }
+            if (liberar != null) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hash-" + contrasena;
+        }
+
+        @Override
+        public boolean matches(CharSequence contrasena, String hash) {
+            return encode(contrasena).equals(hash);
+        }
+    }
+}
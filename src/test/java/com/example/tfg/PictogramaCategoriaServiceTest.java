@@ -0,0 +1,249 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.model.Categoria;
+import com.example.app.model.Pictograma;
+import com.example.app.model.PictogramaCategoria;
+import com.example.app.model.Usuario;
+import com.example.app.repository.CategoriaRepository;
+import com.example.app.repository.PictogramaCategoriaRepository;
+import com.example.app.repository.PictogramaRepository;
+import com.example.app.service.PictogramaCategoriaService;
+
+@ExtendWith(MockitoExtension.class)
+class PictogramaCategoriaServiceTest {
+
+    @InjectMocks
+    private PictogramaCategoriaService pictogramaCategoriaService;
+
+    @Mock
+    private PictogramaCategoriaRepository pictogramaCategoriaRepository;
+
+    @Mock
+    private PictogramaRepository pictogramaRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    private Usuario usuario;
+    private Categoria animales;
+    private Pictograma perro;
+    private Pictograma gato;
+    private Pictograma pez;
+
+    @BeforeEach
+    void setUp() {
+        usuario = new Usuario();
+        usuario.setId(5L);
+
+        animales = new Categoria("Animales", "animales.png");
+        ReflectionTestUtils.setField(animales, "id", 10L);
+
+        perro = pictograma(1L, "Perro");
+        gato = pictograma(2L, "Gato");
+        pez = pictograma(3L, "Pez");
+
+        // Relaciones generales en la base de datos: Animales -> {Perro, Gato}
+        lenient().when(pictogramaCategoriaRepository.existeRelacionGeneral(1L, 10L)).thenReturn(true);
+        lenient().when(pictogramaCategoriaRepository.existeRelacionGeneral(2L, 10L)).thenReturn(true);
+        lenient().when(pictogramaCategoriaRepository.buscarIdsPictogramasGeneralesDeCategoria(10L)).thenReturn(List.of(1L, 2L));
+    }
+
+    private Pictograma pictograma(Long id, String nombre) {
+        Pictograma p = new Pictograma(nombre, nombre.toLowerCase() + ".png", "sustantivo");
+        ReflectionTestUtils.setField(p, "id", id);
+        return p;
+    }
+
+    @Test
+    void reemplazarPictogramasDeCategoria_soloGuardaLaDiferenciaConElCatalogo() {
+        when(pictogramaRepository.getReferenceById(2L)).thenReturn(gato);
+        when(pictogramaRepository.findAllById(List.of(3L))).thenReturn(List.of(pez));
+
+        // El usuario quiere Perro y Pez: Gato se quita, Pez se añade, Perro se hereda
+        pictogramaCategoriaService.reemplazarPictogramasDeCategoria(animales, List.of(1L, 3L), usuario);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PictogramaCategoria>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pictogramaCategoriaRepository).eliminarRelacionesPorCategoriaYUsuario(10L, 5L);
+        verify(pictogramaCategoriaRepository).saveAll(captor.capture());
+
+        List<PictogramaCategoria> cambios = captor.getValue();
+        assertEquals(2, cambios.size());
+        assertEquals("Pez", cambios.get(0).getPictograma().getNombre());
+        assertFalse(cambios.get(0).isEliminada());
+        assertEquals("Gato", cambios.get(1).getPictograma().getNombre());
+        assertTrue(cambios.get(1).isEliminada());
+    }
+
+    @Test
+    void reemplazarPictogramasDeCategoria_pictogramaInexistente_lanzaNoEncontrado() {
+        when(pictogramaRepository.findAllById(List.of(3L, 99L))).thenReturn(List.of(pez));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> pictogramaCategoriaService.reemplazarPictogramasDeCategoria(animales, List.of(1L, 2L, 3L, 99L), usuario));
+
+        assertEquals("Pictograma no encontrado", error.getMessage());
+        verify(pictogramaCategoriaRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void reemplazarCategoriasDePictograma_buscaLasCategoriasAnadidasEnUnaConsulta() {
+        Categoria casa = new Categoria("Casa", "casa.png");
+        ReflectionTestUtils.setField(casa, "id", 20L);
+        Categoria comida = new Categoria("Comida", "comida.png");
+        ReflectionTestUtils.setField(comida, "id", 30L);
+        when(pictogramaCategoriaRepository.buscarIdsCategoriasGeneralesDePictograma(2L)).thenReturn(List.of(10L));
+        when(categoriaRepository.findAllById(List.of(20L, 30L))).thenReturn(List.of(comida, casa));
+        when(categoriaRepository.getReferenceById(10L)).thenReturn(animales);
+
+        // Gato sale de Animales (general) y entra en Casa y Comida
+        pictogramaCategoriaService.reemplazarCategoriasDePictograma(gato, List.of(20L, 30L), usuario);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PictogramaCategoria>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pictogramaCategoriaRepository).eliminarPorUsuarioYPictograma(5L, 2L);
+        verify(pictogramaCategoriaRepository).saveAll(captor.capture());
+        verify(categoriaRepository, never()).findById(any());
+
+        List<PictogramaCategoria> cambios = captor.getValue();
+        assertEquals(3, cambios.size());
+        assertEquals("Casa", cambios.get(0).getCategoria().getNombre());
+        assertEquals("Comida", cambios.get(1).getCategoria().getNombre());
+        assertEquals("Animales", cambios.get(2).getCategoria().getNombre());
+        assertTrue(cambios.get(2).isEliminada());
+    }
+
+    @Test
+    void reemplazarCategoriasDePictograma_categoriaInexistente_lanzaNoEncontrada() {
+        when(categoriaRepository.findAllById(List.of(99L))).thenReturn(List.of());
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> pictogramaCategoriaService.reemplazarCategoriasDePictograma(perro, List.of(99L), usuario));
+
+        assertEquals("Categoría no encontrada", error.getMessage());
+        verify(pictogramaCategoriaRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void buscarCategoriasPorPictograma_masIdsQueUnLote_agrupaConUnaConsultaPorLote() {
+        List<Pictograma> pictogramas = new ArrayList<>();
+        for (long i = 1; i <= 1500; i++) {
+            pictogramas.add(pictograma(i, "Picto " + i));
+        }
+        when(pictogramaCategoriaRepository.buscarCategoriasDePictogramasPorUsuario(anyList(), eq(5L)))
+            .thenReturn(List.<Object[]>of(new Object[] { 2L, animales }))
+            .thenReturn(List.<Object[]>of(new Object[] { 1200L, animales }));
+
+        Map<Long, List<Categoria>> resultado = pictogramaCategoriaService.buscarCategoriasPorPictograma(pictogramas, 5L);
+
+        assertEquals(Map.of(2L, List.of(animales), 1200L, List.of(animales)), resultado);
+        verify(pictogramaCategoriaRepository, times(2)).buscarCategoriasDePictogramasPorUsuario(anyList(), eq(5L));
+    }
+
+    @Test
+    void asignarPictogramaACategoria_relacionGeneral_soloBorraLaMarcaDeEliminada() {
+        PictogramaCategoria marca = new PictogramaCategoria(usuario, perro, animales);
+        marca.setEliminada(true);
+        when(pictogramaRepository.findById(1L)).thenReturn(Optional.of(perro));
+        when(categoriaRepository.findById(10L)).thenReturn(Optional.of(animales));
+        when(pictogramaCategoriaRepository.findByPictogramaCategoriaUsuario(1L, 10L, 5L)).thenReturn(marca);
+
+        pictogramaCategoriaService.asignarPictogramaACategoria(1L, 10L, usuario);
+
+        verify(pictogramaCategoriaRepository).delete(marca);
+        verify(pictogramaCategoriaRepository, never()).save(any());
+    }
+
+    @Test
+    void asignarPictogramaACategoria_relacionYaAnadida_noGuardaOtraFila() {
+        when(pictogramaRepository.findById(3L)).thenReturn(Optional.of(pez));
+        when(categoriaRepository.findById(10L)).thenReturn(Optional.of(animales));
+        when(pictogramaCategoriaRepository.findByPictogramaCategoriaUsuario(3L, 10L, 5L))
+            .thenReturn(new PictogramaCategoria(usuario, pez, animales));
+
+        pictogramaCategoriaService.asignarPictogramaACategoria(3L, 10L, usuario);
+
+        verify(pictogramaCategoriaRepository, never()).save(any());
+        verify(pictogramaCategoriaRepository, never()).delete(any());
+    }
+
+    @Test
+    void asignarPictogramaACategoria_marcaDeRelacionQueYaNoEsGeneral_laReactiva() {
+        PictogramaCategoria marca = new PictogramaCategoria(usuario, pez, animales);
+        marca.setEliminada(true);
+        when(pictogramaRepository.findById(3L)).thenReturn(Optional.of(pez));
+        when(categoriaRepository.findById(10L)).thenReturn(Optional.of(animales));
+        when(pictogramaCategoriaRepository.findByPictogramaCategoriaUsuario(3L, 10L, 5L)).thenReturn(marca);
+
+        pictogramaCategoriaService.asignarPictogramaACategoria(3L, 10L, usuario);
+
+        verify(pictogramaCategoriaRepository).save(marca);
+        assertFalse(marca.isEliminada());
+        verify(pictogramaCategoriaRepository, never()).delete(any());
+    }
+
+    @Test
+    void asignarPictogramaACategoria_relacionNueva_guardaRelacionDeUsuario() {
+        when(pictogramaRepository.findById(3L)).thenReturn(Optional.of(pez));
+        when(categoriaRepository.findById(10L)).thenReturn(Optional.of(animales));
+
+        pictogramaCategoriaService.asignarPictogramaACategoria(3L, 10L, usuario);
+
+        ArgumentCaptor<PictogramaCategoria> captor = ArgumentCaptor.forClass(PictogramaCategoria.class);
+        verify(pictogramaCategoriaRepository).save(captor.capture());
+        assertFalse(captor.getValue().isEliminada());
+        assertEquals("Pez", captor.getValue().getPictograma().getNombre());
+    }
+
+    @Test
+    void eliminarRelacion_relacionGeneral_guardaMarcaDeEliminada() {
+        when(pictogramaRepository.getReferenceById(2L)).thenReturn(gato);
+        when(categoriaRepository.getReferenceById(10L)).thenReturn(animales);
+
+        pictogramaCategoriaService.eliminarRelacion(2L, 10L, usuario);
+
+        ArgumentCaptor<PictogramaCategoria> captor = ArgumentCaptor.forClass(PictogramaCategoria.class);
+        verify(pictogramaCategoriaRepository).save(captor.capture());
+        assertTrue(captor.getValue().isEliminada());
+        assertEquals(usuario, captor.getValue().getUsuario());
+    }
+
+    @Test
+    void eliminarRelacion_marcaYaGuardada_noGuardaOtraFila() {
+        PictogramaCategoria marca = new PictogramaCategoria(usuario, gato, animales);
+        marca.setEliminada(true);
+        when(pictogramaCategoriaRepository.findByPictogramaCategoriaUsuario(2L, 10L, 5L)).thenReturn(marca);
+
+        pictogramaCategoriaService.eliminarRelacion(2L, 10L, usuario);
+
+        verify(pictogramaCategoriaRepository, never()).save(any());
+        verify(pictogramaCategoriaRepository, never()).delete(any());
+    }
+}
@@ -507,5 +507,64 @@ public class PictogramaControllerIntegrationTest {
 	            .andExpect(status().isUnauthorized());
 	}
 
+	@Test
+	void buscarPictogramas_prefijoSinTildes_devuelveLosVisiblesDelUsuario() throws Exception {
+	    Usuario usuario = new Usuario("Buscador", "buscador@ejemplo.com", "Clave123@", "manual");
+	    mockMvc.perform(post("/auth/register")
+	            .contentType(MediaType.APPLICATION_JSON)
+	            .content(objectMapper.writeValueAsString(usuario)))
+	            .andExpect(status().isOk());
+
+	    String loginResponse = mockMvc.perform(post("/auth/login")
+	            .contentType(MediaType.APPLICATION_JSON)
+	            .content(objectMapper.writeValueAsString(Map.of(
+	                "email", "buscador@ejemplo.com",
+	                "contrasena", "Clave123@"
+	            )))).andExpect(status().isOk())
+	            .andReturn().getResponse().getContentAsString();
+
+	    String token = objectMapper.readTree(loginResponse).get("token").asText();
+
+	    for (String nombre : List.of("Murciélago", "Murciélago verde")) {
+	        mockMvc.perform(post("/pictogramas")
+	                .header("Authorization", "Bearer " + token)
+	                .contentType(MediaType.APPLICATION_JSON)
+	                .content(objectMapper.writeValueAsString(Map.of(
+	                    "nombre", nombre,
+	                    "imagen", "https://example.com/murcielago.png",
+	                    "tipo", "sustantivo",
+	                    "categoriasIds", List.of()
+	                )))).andExpect(status().isOk());
+	    }
+
+	    String encontrados = mockMvc.perform(get("/pictogramas/buscar")
+	            .header("Authorization", "Bearer " + token)
+	            .param("q", "MURCIE"))
+	            .andExpect(status().isOk())
+	            .andExpect(jsonPath("$.length()").value(2))
+	            .andExpect(jsonPath("$[0].nombre").value("Murciélago"))
+	            .andReturn().getResponse().getContentAsString();
+
+	    // Al ocultar el primero deja de aparecer en la búsqueda
+	    long primero = objectMapper.readTree(encontrados).get(0).get("id").asLong();
+	    mockMvc.perform(post("/pictogramas-ocultos/ocultar")
+	            .header("Authorization", "Bearer " + token)
+	            .param("pictogramaId", String.valueOf(primero)))
+	            .andExpect(status().isOk());
+
+	    mockMvc.perform(get("/pictogramas/buscar")
+	            .header("Authorization", "Bearer " + token)
+	            .param("q", "verde"))
+	            .andExpect(status().isOk())
+	            .andExpect(jsonPath("$.length()").value(1));
+
+	    mockMvc.perform(get("/pictogramas/buscar")
+	            .header("Authorization", "Bearer " + token)
+	            .param("q", "murcielago"))
+	            .andExpect(status().isOk())
+	            .andExpect(jsonPath("$.length()").value(1))
+	            .andExpect(jsonPath("$[0].nombre").value("Murciélago verde"));
+	}
+
 
 }
@@ -0,0 +1,136 @@
+package com.example.tfg;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.app.TfgApplication;
+import com.example.app.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(classes = TfgApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PictogramaOcultoControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String registrarYLoguear(String email) throws Exception {
+        Usuario usuario = new Usuario("Ocultos", email, "ClaveValida1!", "manual");
+        mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isOk());
+
+        String loginResponse = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", email, "contrasena", "ClaveValida1!"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(loginResponse).get("token").asText();
+    }
+
+    private long crearPictograma(String token, String nombre) throws Exception {
+        Map<String, Object> input = Map.of(
+            "nombre", nombre,
+            "imagen", "https://example.com/" + nombre + ".png",
+            "tipo", "sustantivo",
+            "categoriasIds", List.of());
+        String respuesta = mockMvc.perform(post("/pictogramas")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asLong();
+    }
+
+    @Test
+    void ocultarVariosEsIdempotenteYQuitaLosPictogramasDelTablero() throws Exception {
+        String token = registrarYLoguear("ocultosvarios@ejemplo.com");
+        long perro = crearPictograma(token, "perro");
+        long gato = crearPictograma(token, "gato");
+        long pato = crearPictograma(token, "pato");
+
+        // Repetidos e inexistentes no cuentan
+        mockMvc.perform(post("/pictogramas-ocultos/ocultar-varios")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(perro, gato, perro, 999_999L))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        mockMvc.perform(post("/pictogramas-ocultos/ocultar-varios")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(perro, gato))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0"));
+
+        mockMvc.perform(get("/pictogramas").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + pato + ")]").exists())
+                .andExpect(jsonPath("$[?(@.id == " + perro + ")]").doesNotExist())
+                .andExpect(jsonPath("$[?(@.id == " + gato + ")]").doesNotExist());
+
+        mockMvc.perform(post("/pictogramas-ocultos/desocultar-varios")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(perro, gato, pato))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        mockMvc.perform(get("/pictogramas").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + perro + ")]").exists())
+                .andExpect(jsonPath("$[?(@.id == " + gato + ")]").exists());
+    }
+
+    @Test
+    void ocultarDosVecesElMismoPictogramaSoloLoOcultaUnaVez() throws Exception {
+        String token = registrarYLoguear("ocultosuno@ejemplo.com");
+        long sol = crearPictograma(token, "sol");
+
+        mockMvc.perform(post("/pictogramas-ocultos/ocultar")
+                .header("Authorization", "Bearer " + token)
+                .param("pictogramaId", String.valueOf(sol)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/pictogramas-ocultos/ocultar")
+                .header("Authorization", "Bearer " + token)
+                .param("pictogramaId", String.valueOf(sol)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/pictogramas-ocultos/usuario").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(delete("/pictogramas-ocultos/desocultar")
+                .header("Authorization", "Bearer " + token)
+                .param("pictogramaId", String.valueOf(sol)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/pictogramas-ocultos/desocultar")
+                .header("Authorization", "Bearer " + token)
+                .param("pictogramaId", String.valueOf(sol)))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -4,11 +4,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional; // ✅
 
 import org.junit.jupiter.api.Test;
@@ -16,9 +22,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.example.app.dto.PictogramaConCategorias;
 import com.example.app.dto.PictogramaConCategoriasInput;
+import com.example.app.dto.PictogramaSimple;
 import com.example.app.model.Categoria;
 import com.example.app.model.Pictograma;
 import com.example.app.model.PictogramaCategoria;
@@ -27,6 +35,10 @@ import com.example.app.repository.CategoriaRepository;
 import com.example.app.repository.PictogramaCategoriaRepository;
 import com.example.app.repository.PictogramaRepository;
 import com.example.app.repository.UsuarioRepository;
+import com.example.app.service.CatalogoGeneral;
+import com.example.app.service.CatalogoGeneralService;
+import com.example.app.service.IndiceNombresPictogramas;
+import com.example.app.service.PictogramaCategoriaService;
 import com.example.app.service.PictogramaService;
 import com.example.app.service.PictogramaService.AccesoPictogramaDenegadoException;
 import com.example.app.service.PictogramaService.PictogramaNoEncontradoException;
@@ -51,6 +63,15 @@ class PictogramaServiceTest {
  @Mock
  private PictogramaCategoriaRepository pictogramaCategoriaRepository;
 
+ @Mock
+ private CatalogoGeneralService catalogoGeneralService;
+
+ @Mock
+ private IndiceNombresPictogramas indiceNombres;
+
+ @Mock
+ private PictogramaCategoriaService pictogramaCategoriaService;
+
  @Test
  void crearDesdeInputDTO_conUsuarioYCategoriasValidas_creaCorrectamente() {
      Long usuarioId = 1L;
@@ -203,6 +224,7 @@ class PictogramaServiceTest {
      pictogramaService.eliminarPictograma(pictogramaId,usuarioId);
 
      verify(pictogramaRepository).delete(pictograma);
+     verify(indiceNombres).eliminado(pictograma);
  }
 
  @Test
@@ -303,7 +325,86 @@ class PictogramaServiceTest {
      assertTrue(resultado.getCategorias().isEmpty());
  }
 
-}
+ @Test
+ void obtenerPictogramasDeUsuarioConCategorias_variosPictogramas_consultaCategoriasUnaSolaVez() {
+     Long usuarioId = 1L;
+     Categoria categoria = new Categoria("Animales", "animales.png");
+
+     List<Pictograma> pictogramas = new ArrayList<>();
+     Map<Long, List<Categoria>> categorias = new HashMap<>();
+     for (long i = 1; i <= 50; i++) {
+         Pictograma p = new Pictograma("Picto " + i, "p" + i + ".png", "sustantivo");
+         ReflectionTestUtils.setField(p, "id", i);
+         pictogramas.add(p);
+         if (i % 2 == 0) {
+             categorias.put(i, List.of(categoria));
+         }
+     }
+
+     when(pictogramaRepository.findAllPersonalizados(usuarioId)).thenReturn(pictogramas);
+     when(pictogramaCategoriaService.buscarCategoriasPorPictograma(pictogramas, usuarioId)).thenReturn(categorias);
+
+     List<PictogramaConCategorias> resultado = pictogramaService.obtenerPictogramasDeUsuarioConCategorias(usuarioId);
+
+     assertEquals(50, resultado.size());
+     assertTrue(resultado.get(0).getCategorias().isEmpty());
+     assertEquals("Animales", resultado.get(1).getCategorias().get(0).getNombre());
+
+     verify(pictogramaCategoriaService).buscarCategoriasPorPictograma(pictogramas, usuarioId);
+     verify(pictogramaCategoriaRepository, never()).buscarCategoriasDePictogramaPorUsuario(any(), any());
+ }
+
+ @Test
+ void obtenerPictogramasPorIds_idsRepetidosYDesordenados_respetaOrdenYOmiteInexistentes() {
+     Pictograma uno = new Pictograma("Uno", "1.png", "sustantivo");
+     ReflectionTestUtils.setField(uno, "id", 1L);
+     Pictograma tres = new Pictograma("Tres", "3.png", "sustantivo");
+     ReflectionTestUtils.setField(tres, "id", 3L);
 
+     when(pictogramaRepository.buscarPorIds(List.of(3L, 99L, 1L))).thenReturn(List.of(uno, tres));
 
+     List<PictogramaSimple> resultado = pictogramaService.obtenerPictogramasPorIds(List.of(3L, 99L, 1L, 3L));
 
+     assertEquals(List.of("Tres", "Uno", "Tres"), resultado.stream().map(PictogramaSimple::getNombre).toList());
+     verify(pictogramaRepository).buscarPorIds(List.of(3L, 99L, 1L));
+     verify(pictogramaRepository, never()).buscarPorId(any());
+ }
+
+ @Test
+ void obtenerPictogramasPorIds_listaGrande_consultaPorLotes() {
+     List<Long> ids = new ArrayList<>();
+     for (long i = 1; i <= 2500; i++) {
+         ids.add(i);
+     }
+     when(pictogramaRepository.buscarPorIds(anyList())).thenReturn(List.of());
+
+     List<PictogramaSimple> resultado = pictogramaService.obtenerPictogramasPorIds(ids);
+
+     assertTrue(resultado.isEmpty());
+     verify(pictogramaRepository, times(3)).buscarPorIds(anyList());
+ }
+
+ @Test
+ void obtenerTodosConCategorias_usaCatalogoEnMemoriaSinConsultas() {
+     Pictograma perro = new Pictograma("Perro", "perro.png", "sustantivo");
+     ReflectionTestUtils.setField(perro, "id", 1L);
+     Pictograma comer = new Pictograma("Comer", "comer.png", "verbo");
+     ReflectionTestUtils.setField(comer, "id", 2L);
+     Categoria animales = new Categoria("Animales", "animales.png");
+     ReflectionTestUtils.setField(animales, "id", 10L);
+
+     CatalogoGeneral catalogo = new CatalogoGeneral(
+         List.of(perro, comer),
+         List.of(animales),
+         List.<Object[]>of(new Object[] { 10L, 1L }));
+     when(catalogoGeneralService.obtener()).thenReturn(catalogo);
+
+     List<PictogramaConCategorias> resultado = pictogramaService.obtenerTodosConCategorias();
+
+     assertEquals(2, resultado.size());
+     assertEquals("Animales", resultado.get(0).getCategorias().get(0).getNombre());
+     assertTrue(resultado.get(1).getCategorias().isEmpty());
+     org.mockito.Mockito.verifyNoInteractions(pictogramaRepository, pictogramaCategoriaRepository);
+ }
+
+}
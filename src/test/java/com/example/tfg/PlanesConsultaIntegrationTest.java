@@ -0,0 +1,174 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.app.TfgApplication;
+import com.example.app.repository.CategoriaRepository;
+import com.example.app.repository.PictogramaCategoriaRepository;
+import com.example.app.repository.PictogramaOcultoRepository;
+
+/**
+ * Comprueba con EXPLAIN de H2 en modo MySQL, sobre el esquema que crean las migraciones y
+ * con datos repartidos entre varios usuarios, que las consultas calientes de relaciones,
+ * pictogramas ocultos y categorías visibles usan los índices y no recorren las tablas.
+ *
+ * Se explica el SQL que genera Hibernate para cada método del repositorio (capturado con un
+ * StatementInspector), no una copia escrita a mano. Todos los parámetros valen ID, que a la
+ * vez es un usuario con relaciones propias y quitadas, una categoría general y un pictograma.
+ */
+@SpringBootTest(classes = TfgApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:planes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.tfg.PlanesConsultaIntegrationTest$SentenciasCapturadas"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PlanesConsultaIntegrationTest {
+
+    private static final long ID = 3L;
+
+    // Accesos a una tabla en el plan de H2: /* PUBLIC.INDICE: condición de búsqueda */
+    private static final Pattern ACCESO = Pattern.compile(
+        "\"PICTOGRAMAS_CATEGORIA\" \"\\w+\"\\s*/\\* PUBLIC\\.(\\w+)(:[^*]*)?\\*/");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PictogramaCategoriaRepository pictogramaCategoriaRepository;
+
+    @Autowired
+    private PictogramaOcultoRepository pictogramaOcultoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @BeforeAll
+    void crearDatos() {
+        jdbcTemplate.execute("""
+            INSERT INTO usuarios (id, correo, correo_normalizado, nombre)
+            SELECT X, 'u' || X || '@correo.com', 'u' || X || '@correo.com', 'Usuario ' || X
+            FROM SYSTEM_RANGE(1, 200)
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO categorias (id, usuario_id, imagen, nombre)
+            SELECT X, CASE WHEN X <= 20 THEN NULL ELSE X - 20 END, 'img', 'Categoría ' || X
+            FROM SYSTEM_RANGE(1, 220)
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO pictogramas (id, usuario_id, imagen, nombre, tipo)
+            SELECT X, NULL, 'img', 'Pictograma ' || X, 'sustantivo'
+            FROM SYSTEM_RANGE(1, 500)
+            """);
+        // 500 relaciones generales y 25 propias para cada uno de los 40 primeros usuarios, sin
+        // repetir; un tercio de las propias son relaciones generales quitadas (eliminada)
+        jdbcTemplate.execute("""
+            INSERT INTO pictogramas_categoria (id, usuario_id, pictograma_id, categoria_id, eliminada)
+            SELECT X, NULL, X, MOD(X, 20) + 1, FALSE
+            FROM SYSTEM_RANGE(1, 500)
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO pictogramas_categoria (id, usuario_id, pictograma_id, categoria_id, eliminada)
+            SELECT 1000 + X, MOD(X, 40) + 1, MOD(X * 7, 500) + 1, MOD(X, 20) + 1, MOD(X, 3) = 0
+            FROM SYSTEM_RANGE(1, 1000)
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO pictogramas_ocultos (id, usuario_id, pictograma_id)
+            SELECT X, MOD(X, 40) + 1, MOD(X * 13, 500) + 1
+            FROM SYSTEM_RANGE(1, 1000)
+            """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /** Plan de la primera sentencia que lanza Hibernate al ejecutar la consulta. */
+    private String plan(Runnable consulta) {
+        SentenciasCapturadas.sentencias.clear();
+        consulta.run();
+        String sql = SentenciasCapturadas.sentencias.get(0);
+        int parametros = (int) sql.chars().filter(c -> c == '?').count();
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class,
+            Collections.nCopies(parametros, ID).toArray()).toUpperCase();
+    }
+
+    /**
+     * Cada acceso a pictogramas_categoria del plan tiene que buscar en un índice por usuario_id
+     * (= ? o IS NULL). Con el OR de antes H2 recorría el índice entero sin condición de búsqueda.
+     */
+    private static void assertBuscaPorUsuario(String plan) {
+        assertFalse(plan.contains("TABLESCAN"), plan);
+        Matcher acceso = ACCESO.matcher(plan);
+        int accesos = 0;
+        while (acceso.find()) {
+            accesos++;
+            String busqueda = acceso.group(2) != null ? acceso.group(2) : "";
+            assertTrue(busqueda.contains("USUARIO_ID = ") || busqueda.contains("USUARIO_ID IS NULL"),
+                "Acceso sin búsqueda por usuario en " + acceso.group(1) + ":\n" + plan);
+        }
+        // Rama propia, rama general y NOT EXISTS de las relaciones quitadas
+        assertTrue(accesos >= 3, plan);
+    }
+
+    @Test
+    void relacionesEfectivasDeUsuarioBuscanCadaRamaPorUsuario() {
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.buscarRelacionesEfectivasDeUsuario(ID)));
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.buscarPorUsuario(ID)));
+    }
+
+    @Test
+    void relacionesPorCategoriaBuscanCadaRamaPorUsuario() {
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.findByCategoriaIdAndUsuarioId(ID, ID)));
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.obtenerPictogramasDeCategoriaPorUsuario(ID, ID)));
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.obtenerPictogramasDeCategoriasPorUsuario(List.of(ID), ID)));
+    }
+
+    @Test
+    void relacionesPorPictogramaBuscanCadaRamaPorUsuario() {
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.findByPictogramaIdAndUsuarioId(ID, ID)));
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.buscarCategoriasDePictogramaPorUsuario(ID, ID)));
+        assertBuscaPorUsuario(plan(() -> pictogramaCategoriaRepository.buscarCategoriasDePictogramasPorUsuario(List.of(ID), ID)));
+    }
+
+    @Test
+    void cargaDeOcultosDeUnUsuarioUsaLaRestriccionUnica() {
+        // Única lectura de pictogramas_ocultos al filtrar tableros: la carga del mapa de bits
+        String plan = plan(() -> pictogramaOcultoRepository.buscarIdsPictogramasOcultos(ID));
+
+        assertTrue(plan.contains("UKEX76E9IMITLL31Y5P6E099V3G"), plan);
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+
+    @Test
+    void categoriasVisiblesConUnionAllNoRecorrenLaTabla() {
+        String plan = plan(() -> categoriaRepository.findCategoriasVisiblesParaUsuario(ID));
+
+        assertTrue(plan.contains("USUARIO_ID IS NULL"), plan);
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+
+    public static class SentenciasCapturadas implements StatementInspector {
+
+        static final List<String> sentencias = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            sentencias.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.model.Pictograma;
+import com.example.app.service.CachePredicciones;
+import com.example.app.service.CatalogoGeneral;
+import com.example.app.service.CatalogoGeneralService;
+import com.example.app.service.ClienteModelo;
+import com.example.app.service.PrediccionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Una clase de 25 tablets hace el mismo ejercicio guiado: en cada ronda todas piden a la vez la
+ * predicción de la misma frase (distinta en cada ronda, para que no la resuelva la caché).
+ */
+class PrediccionServiceConcurrenciaTest {
+
+    private static final int TABLETS = 25;
+    private static final int RONDAS = 20;
+
+    @Test
+    void obtenerSugerencia_PeticionesIdenticasALaVez_UnaSolaLlamadaAlModeloPorFrase() throws Exception {
+        PrediccionService servicio = new PrediccionService();
+        ClienteModelo clienteModelo = mock(ClienteModelo.class);
+        CatalogoGeneralService catalogoGeneralService = mock(CatalogoGeneralService.class);
+        ReflectionTestUtils.setField(servicio, "clienteModelo", clienteModelo);
+        ReflectionTestUtils.setField(servicio, "catalogoGeneralService", catalogoGeneralService);
+        ReflectionTestUtils.setField(servicio, "cachePredicciones",
+            new CachePredicciones(1000, 600, new SimpleMeterRegistry()));
+
+        Pictograma agua = new Pictograma("Agua", "agua.png", "sustantivo");
+        ReflectionTestUtils.setField(agua, "id", 1L);
+        when(catalogoGeneralService.obtener()).thenReturn(new CatalogoGeneral(List.of(agua), List.of(), List.of()));
+
+        // El modelo no contesta hasta que el resto de tablets de la ronda están esperando su
+        // respuesta, así el resultado no depende de cómo reparta los hilos el planificador
+        Map<String, AtomicInteger> llamadasPorFrase = new ConcurrentHashMap<>();
+        AtomicInteger llamadas = new AtomicInteger();
+        when(clienteModelo.predecir(anyString())).thenAnswer(invocacion -> {
+            llamadasPorFrase.computeIfAbsent(invocacion.getArgument(0), k -> new AtomicInteger()).incrementAndGet();
+            long esperadas = (long) llamadas.incrementAndGet() * (TABLETS - 1);
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (servicio.getPeticionesAgrupadas() < esperadas && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            return Optional.of("agua");
+        });
+
+        ExecutorService tablets = Executors.newFixedThreadPool(TABLETS);
+        try {
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                String frase = "Yo quiero beber " + ronda;
+                CountDownLatch salida = new CountDownLatch(1);
+                List<Future<String>> respuestas = new ArrayList<>();
+                for (int t = 0; t < TABLETS; t++) {
+                    respuestas.add(tablets.submit(() -> {
+                        salida.await();
+                        return servicio.obtenerSugerencia(frase);
+                    }));
+                }
+                salida.countDown();
+                for (Future<String> respuesta : respuestas) {
+                    assertEquals("Agua", respuesta.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            tablets.shutdownNow();
+        }
+
+        assertEquals(RONDAS, llamadasPorFrase.size());
+        assertTrue(llamadasPorFrase.values().stream().allMatch(n -> n.get() == 1), llamadasPorFrase.toString());
+        assertEquals((long) RONDAS * (TABLETS - 1), servicio.getPeticionesAgrupadas());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.model.Pictograma;
+import com.example.app.service.CachePredicciones;
+import com.example.app.service.CatalogoGeneral;
+import com.example.app.service.CatalogoGeneralService;
+import com.example.app.service.ClienteModelo;
+import com.example.app.service.PrediccionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class PrediccionServiceTest {
+
+    @InjectMocks
+    private PrediccionService prediccionService;
+
+    @Mock
+    private ClienteModelo clienteModelo;
+
+    @Mock
+    private CatalogoGeneralService catalogoGeneralService;
+
+    @Spy
+    private CachePredicciones cachePredicciones = new CachePredicciones(100, 600, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        when(catalogoGeneralService.obtener()).thenReturn(catalogo("Perro", "Camión", "Flor", "Perra"));
+    }
+
+    private CatalogoGeneral catalogo(String... nombres) {
+        List<Pictograma> pictogramas = new ArrayList<>();
+        for (int i = 0; i < nombres.length; i++) {
+            Pictograma p = new Pictograma(nombres[i], nombres[i].toLowerCase() + ".png", "sustantivo");
+            ReflectionTestUtils.setField(p, "id", (long) i + 1);
+            pictogramas.add(p);
+        }
+        return new CatalogoGeneral(pictogramas, List.of(), List.of());
+    }
+
+    private void modeloResponde(String sugerencia) {
+        when(clienteModelo.predecir(anyString())).thenReturn(Optional.of(sugerencia));
+    }
+
+    @Test
+    void obtenerSugerencia_PluralSinTildes_DevuelveNombreDelCatalogo() {
+        modeloResponde("camiones");
+
+        assertEquals("Camión", prediccionService.obtenerSugerencia("quiero el"));
+    }
+
+    @Test
+    void obtenerSugerencia_FormaExactaYLema_GanaLaExacta() {
+        modeloResponde("PERRA");
+        assertEquals("Perra", prediccionService.obtenerSugerencia("veo una"));
+
+        modeloResponde("perros");
+        assertEquals("Perro", prediccionService.obtenerSugerencia("veo dos"));
+
+        modeloResponde("flores");
+        assertEquals("Flor", prediccionService.obtenerSugerencia("huele la"));
+    }
+
+    @Test
+    void obtenerSugerencia_FemeninoConMasculinoEnCatalogo_DevuelveElMasculino() {
+        when(catalogoGeneralService.obtener()).thenReturn(catalogo("Perro", "Profesor"));
+
+        modeloResponde("perras");
+        assertEquals("Perro", prediccionService.obtenerSugerencia("veo unas"));
+
+        modeloResponde("profesora");
+        assertEquals("Profesor", prediccionService.obtenerSugerencia("viene la"));
+    }
+
+    @Test
+    void obtenerSugerencia_OtraPalabraConLaMismaRaiz_DevuelvePorDefecto() {
+        when(catalogoGeneralService.obtener()).thenReturn(catalogo("Casa", "Mesa", "Año"));
+
+        modeloResponde("caso");
+        assertEquals("Hola", prediccionService.obtenerSugerencia("en este"));
+
+        modeloResponde("meso");
+        assertEquals("Hola", prediccionService.obtenerSugerencia("la"));
+
+        modeloResponde("ano");
+        assertEquals("Hola", prediccionService.obtenerSugerencia("el"));
+
+        modeloResponde("mesas");
+        assertEquals("Mesa", prediccionService.obtenerSugerencia("dos"));
+    }
+
+    @Test
+    void obtenerSugerencia_NoEstaEnElCatalogo_DevuelvePorDefecto() {
+        modeloResponde("avión");
+
+        assertEquals("Hola", prediccionService.obtenerSugerencia("quiero un"));
+    }
+
+    @Test
+    void obtenerSugerencia_ModeloNoResponde_DevuelvePorDefectoSinGuardarlo() {
+        when(clienteModelo.predecir("quiero un")).thenReturn(Optional.empty());
+
+        assertEquals("Hola", prediccionService.obtenerSugerencia("quiero un"));
+        assertEquals("Hola", prediccionService.obtenerSugerencia("quiero un"));
+
+        verify(clienteModelo, times(2)).predecir("quiero un");
+        assertEquals(0, cachePredicciones.getTamano());
+    }
+
+    @Test
+    void obtenerSugerencia_MismaFraseNormalizada_LlamaAlModeloUnaVez() {
+        modeloResponde("perro");
+
+        assertEquals("Perro", prediccionService.obtenerSugerencia("Yo quiero  el"));
+        assertEquals("Perro", prediccionService.obtenerSugerencia("yo quiero el"));
+        assertEquals("Perro", prediccionService.obtenerSugerencia("YO QUIERO EL"));
+
+        verify(clienteModelo, times(1)).predecir(anyString());
+        assertEquals(2, cachePredicciones.getAciertos());
+    }
+
+    @Test
+    void obtenerSugerencia_OtraPeticionLaGuardaAntesDeLlamar_NoLlamaAlModelo() {
+        // La petición anterior con la misma frase guarda su resultado justo después de que
+        // esta haya fallado en la caché
+        doReturn(Optional.empty()).doReturn(Optional.of("Perro"))
+            .when(cachePredicciones).comprobar(eq("yo quiero el"), any());
+
+        assertEquals("Perro", prediccionService.obtenerSugerencia("yo quiero el"));
+
+        verify(clienteModelo, never()).predecir(anyString());
+        assertEquals(1, cachePredicciones.getFallos());
+    }
+
+    @Test
+    void obtenerSugerencia_CambiaElCatalogo_VuelveAValidar() {
+        modeloResponde("flor");
+        assertEquals("Flor", prediccionService.obtenerSugerencia("huele la"));
+
+        // Un administrador borra "Flor" del catálogo general
+        when(catalogoGeneralService.obtener()).thenReturn(catalogo("Perro", "Camión"));
+
+        assertEquals("Hola", prediccionService.obtenerSugerencia("huele la"));
+        verify(clienteModelo, times(2)).predecir("huele la");
+    }
+}
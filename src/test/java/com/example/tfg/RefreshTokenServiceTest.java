@@ -0,0 +1,122 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.app.model.RefreshToken;
+import com.example.app.model.Usuario;
+import com.example.app.repository.RefreshTokenRepository;
+import com.example.app.service.RefreshTokenService;
+import com.example.app.service.RefreshTokenService.RefreshTokenInvalidoException;
+import com.example.app.service.RefreshTokenService.Renovacion;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = new Usuario("Ana", "ana@correo.com", "hash", "manual");
+        usuario.setId(1L);
+    }
+
+    private RefreshToken guardado(int versionSesion, Instant expiraEn) {
+        RefreshToken token = new RefreshToken(usuario, "hash", "familia-1", versionSesion, expiraEn);
+        ReflectionTestUtils.setField(token, "id", 7L);
+        return token;
+    }
+
+    @Test
+    void emitir_GuardaSoloElHashDelToken() {
+        String token = refreshTokenService.emitir(usuario);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertNotEquals(token, captor.getValue().getHash());
+        assertEquals(64, captor.getValue().getHash().length());
+    }
+
+    @Test
+    void renovar_TokenValido_EmiteOtroDeLaMismaFamilia() {
+        when(refreshTokenRepository.buscarPorHash(anyString()))
+            .thenReturn(Optional.of(guardado(0, Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.marcarUsado(eq(7L), any())).thenReturn(1);
+
+        Renovacion renovacion = refreshTokenService.renovar("token");
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals("familia-1", captor.getValue().getFamilia());
+        assertEquals(usuario, renovacion.getUsuario());
+
+        // Los rotados de la familia se borran cuando ya ha pasado la ventana de reutilización
+        ArgumentCaptor<Instant> limite = ArgumentCaptor.forClass(Instant.class);
+        verify(refreshTokenRepository).borrarUsadosDeFamilia(eq("familia-1"), limite.capture());
+        assertTrue(limite.getValue().isBefore(Instant.now().minus(Duration.ofHours(23))));
+    }
+
+    @Test
+    void purgar_BorraCaducadosYRotadosFueraDeLaVentana() {
+        when(refreshTokenRepository.borrarCaducados(any())).thenReturn(3);
+        when(refreshTokenRepository.borrarRevocadosYUsados(any())).thenReturn(2);
+
+        assertEquals(5, refreshTokenService.purgar());
+
+        ArgumentCaptor<Instant> ahora = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> limite = ArgumentCaptor.forClass(Instant.class);
+        verify(refreshTokenRepository).borrarCaducados(ahora.capture());
+        verify(refreshTokenRepository).borrarRevocadosYUsados(limite.capture());
+        assertEquals(Duration.ofHours(24), Duration.between(limite.getValue(), ahora.getValue()));
+    }
+
+    @Test
+    void renovar_TokenYaUsado_RevocaLaFamilia() {
+        when(refreshTokenRepository.buscarPorHash(anyString()))
+            .thenReturn(Optional.of(guardado(0, Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.marcarUsado(eq(7L), any())).thenReturn(0);
+
+        assertThrows(RefreshTokenInvalidoException.class, () -> refreshTokenService.renovar("token"));
+
+        verify(refreshTokenRepository).revocarFamilia("familia-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void renovar_ContrasenaCambiadaDespuesDeEmitir_Rechaza() {
+        usuario.setVersionSesion(1);
+        when(refreshTokenRepository.buscarPorHash(anyString()))
+            .thenReturn(Optional.of(guardado(0, Instant.now().plusSeconds(60))));
+
+        assertThrows(RefreshTokenInvalidoException.class, () -> refreshTokenService.renovar("token"));
+
+        verify(refreshTokenRepository, never()).marcarUsado(any(), any());
+    }
+}
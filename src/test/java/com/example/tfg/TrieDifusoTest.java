@@ -0,0 +1,106 @@
+package com.example.tfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.app.service.TrieDifuso;
+
+class TrieDifusoTest {
+
+    @Test
+    void distancia_PalabrasConocidas_DevuelveLevenshtein() {
+        assertEquals(1, TrieDifuso.distancia("pero", "perro", 5));
+        assertEquals(1, TrieDifuso.distancia("gato", "pato", 5));
+        assertEquals(4, TrieDifuso.distancia("jugar", "juguete", 10));
+        assertEquals(0, TrieDifuso.distancia("", "", 0));
+        assertEquals(3, TrieDifuso.distancia("", "sol", 3));
+    }
+
+    @Test
+    void distancia_SuperaElMaximo_DevuelveMaximoMasUno() {
+        assertEquals(3, TrieDifuso.distancia("jugar", "juguete", 2));
+        assertEquals(2, TrieDifuso.distancia("a", "abcdef", 1));
+    }
+
+    @Test
+    void buscar_ConErratas_DevuelveLasClavesDentroDelRadio() {
+        TrieDifuso<Long> trie = new TrieDifuso<>();
+        trie.anadir("perro", 1L);
+        trie.anadir("pera", 2L);
+        trie.anadir("sol", 3L);
+        trie.anadir("perro", 4L);
+
+        List<TrieDifuso.Coincidencia<Long>> coincidencias = trie.buscar("pero", 1);
+
+        Set<String> claves = new TreeSet<>();
+        for (TrieDifuso.Coincidencia<Long> c : coincidencias) {
+            claves.add(c.clave());
+            if (c.clave().equals("perro")) {
+                assertEquals(Set.of(1L, 4L), c.valores());
+                assertEquals(1, c.distancia());
+            }
+        }
+        assertEquals(Set.of("pera", "perro"), claves);
+    }
+
+    @Test
+    void quitar_UltimoValor_LaClaveDejaDeAparecer() {
+        TrieDifuso<Long> trie = new TrieDifuso<>();
+        trie.anadir("perro", 1L);
+        trie.anadir("gato", 2L);
+
+        assertTrue(trie.quitar("perro", 1L));
+        assertFalse(trie.quitar("perro", 1L));
+
+        assertTrue(trie.buscar("perro", 0).isEmpty());
+        assertEquals(1, trie.buscar("gatos", 1).size());
+    }
+
+    @Test
+    void buscar_PalabrasAleatorias_CoincideConElRecorridoLineal() {
+        Random random = new Random(7);
+        List<String> palabras = new ArrayList<>();
+        TrieDifuso<Integer> trie = new TrieDifuso<>();
+        for (int i = 0; i < 3000; i++) {
+            String palabra = palabraAleatoria(random);
+            palabras.add(palabra);
+            trie.anadir(palabra, i);
+        }
+
+        for (int consulta = 0; consulta < 200; consulta++) {
+            String q = palabraAleatoria(random);
+            for (int radio = 0; radio <= 2; radio++) {
+                Set<String> esperado = new TreeSet<>();
+                for (String palabra : palabras) {
+                    if (TrieDifuso.distancia(q, palabra, radio) <= radio) {
+                        esperado.add(palabra);
+                    }
+                }
+                Set<String> obtenido = new TreeSet<>();
+                for (TrieDifuso.Coincidencia<Integer> c : trie.buscar(q, radio)) {
+                    obtenido.add(c.clave());
+                }
+                assertEquals(esperado, obtenido, q + " radio " + radio);
+            }
+        }
+    }
+
+    private static String palabraAleatoria(Random random) {
+        String[] silabas = { "pe", "rro", "ga", "to", "ca", "sa", "me", "sa", "lu", "na", "so", "l" };
+        StringBuilder palabra = new StringBuilder();
+        int n = 1 + random.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            palabra.append(silabas[random.nextInt(silabas.length)]);
+        }
+        return palabra.toString();
+    }
+}
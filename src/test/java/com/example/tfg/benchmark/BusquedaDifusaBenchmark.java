@@ -0,0 +1,114 @@
+package com.example.tfg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.app.service.TrieDifuso;
+import com.example.app.service.NormalizadorTexto;
+
+/**
+ * Busca nombres con erratas (distancia de edición hasta 2) en un catálogo sintético de
+ * nombres en español: el trie difuso frente a calcular la distancia con todos los nombres.
+ * Las consultas son nombres del catálogo con una o dos letras cambiadas.
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.example.tfg.benchmark.BusquedaDifusaBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaDifusaBenchmark {
+
+    private static final String CONSONANTES = "bcdfgjlmnprstvzñ";
+    private static final String VOCALES = "aeiouáé";
+
+    @Param({ "20000" })
+    public int nombres;
+
+    @Param({ "1", "2" })
+    public int distancia;
+
+    private List<String> catalogo;
+    private TrieDifuso<Integer> trie;
+    private String[] consultas;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random random = new Random(42);
+        catalogo = new ArrayList<>(nombres);
+        trie = new TrieDifuso<>();
+        for (int i = 0; i < nombres; i++) {
+            StringBuilder nombre = new StringBuilder();
+            int silabas = 2 + random.nextInt(3);
+            for (int s = 0; s < silabas; s++) {
+                nombre.append(CONSONANTES.charAt(random.nextInt(CONSONANTES.length())));
+                if (random.nextInt(4) == 0) {
+                    nombre.append('r');
+                }
+                nombre.append(VOCALES.charAt(random.nextInt(VOCALES.length())));
+            }
+            String plegado = NormalizadorTexto.plegar(nombre.toString());
+            catalogo.add(plegado);
+            trie.anadir(plegado, i);
+        }
+
+        consultas = new String[256];
+        for (int i = 0; i < consultas.length; i++) {
+            char[] letras = catalogo.get(random.nextInt(nombres)).toCharArray();
+            for (int cambio = 0; cambio < distancia; cambio++) {
+                letras[random.nextInt(letras.length)] = (char) ('a' + random.nextInt(26));
+            }
+            consultas[i] = new String(letras);
+        }
+    }
+
+    private String siguienteConsulta() {
+        siguiente = (siguiente + 1) & (consultas.length - 1);
+        return consultas[siguiente];
+    }
+
+    @Benchmark
+    public int trie() {
+        return trie.buscar(siguienteConsulta(), distancia).size();
+    }
+
+    @Benchmark
+    public int recorridoLineal() {
+        String consulta = siguienteConsulta();
+        int encontrados = 0;
+        for (String nombre : catalogo) {
+            if (TrieDifuso.distancia(consulta, nombre, distancia) <= distancia) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BusquedaDifusaBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
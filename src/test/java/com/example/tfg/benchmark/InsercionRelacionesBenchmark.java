@@ -0,0 +1,120 @@
+package com.example.tfg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.app.TfgApplication;
+import com.example.app.model.Categoria;
+import com.example.app.model.Pictograma;
+import com.example.app.model.PictogramaCategoria;
+import com.example.app.model.Usuario;
+import com.example.app.repository.CategoriaRepository;
+import com.example.app.repository.PictogramaCategoriaRepository;
+import com.example.app.repository.PictogramaRepository;
+import com.example.app.repository.UsuarioRepository;
+
+/**
+ * Guarda de golpe las relaciones de un catálogo grande para un usuario (lo que hacía el
+ * registro al copiar el catálogo). Con batchSize = 1 se reproduce el comportamiento que
+ * imponían los ids IDENTITY: una sentencia INSERT por fila.
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.example.tfg.benchmark.InsercionRelacionesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InsercionRelacionesBenchmark {
+
+    @Param({ "1", "50" })
+    public int batchSize;
+
+    @Param({ "3000" })
+    public int relaciones;
+
+    private ConfigurableApplicationContext contexto;
+    private PictogramaCategoriaRepository pictogramaCategoriaRepository;
+    private TransactionTemplate transaccion;
+
+    private Usuario usuario;
+    private Categoria categoria;
+    private List<Pictograma> pictogramas;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(TfgApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+
+        pictogramaCategoriaRepository = contexto.getBean(PictogramaCategoriaRepository.class);
+        transaccion = contexto.getBean(TransactionTemplate.class);
+
+        usuario = contexto.getBean(UsuarioRepository.class)
+            .save(new Usuario("Benchmark", "benchmark@ejemplo.com", "x", "manual"));
+        categoria = contexto.getBean(CategoriaRepository.class)
+            .save(new Categoria("General", "general.png"));
+
+        List<Pictograma> nuevos = new ArrayList<>(relaciones);
+        for (int i = 0; i < relaciones; i++) {
+            nuevos.add(new Pictograma("Pictograma " + i, "p" + i + ".png", "sustantivo"));
+        }
+        pictogramas = contexto.getBean(PictogramaRepository.class).saveAll(nuevos);
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiar() {
+        pictogramaCategoriaRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void guardarRelacionesDeUsuario() {
+        transaccion.executeWithoutResult(estado -> {
+            List<PictogramaCategoria> nuevas = new ArrayList<>(pictogramas.size());
+            for (Pictograma pictograma : pictogramas) {
+                nuevas.add(new PictogramaCategoria(usuario, pictograma, categoria));
+            }
+            pictogramaCategoriaRepository.saveAll(nuevas);
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(InsercionRelacionesBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
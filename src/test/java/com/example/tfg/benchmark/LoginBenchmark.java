@@ -0,0 +1,88 @@
+package com.example.tfg.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.app.TfgApplication;
+import com.example.app.model.Usuario;
+import com.example.app.service.AuthService;
+import com.example.app.service.AuthService.ResultadoLogin;
+
+/**
+ * Latencia del login completo (búsqueda del usuario + BCrypt) para un correo registrado y
+ * para uno que no existe. El modo SampleTime imprime los percentiles p50 y p99; los dos
+ * casos deberían tardar lo mismo.
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.example.tfg.benchmark.LoginBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String CONTRASENA = "Contrasena1!";
+
+    @Param({ "registrado", "inexistente" })
+    public String cuenta;
+
+    private ConfigurableApplicationContext contexto;
+    private AuthService authService;
+    private String email;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(TfgApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:login;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=validate");
+
+        authService = contexto.getBean(AuthService.class);
+        authService.registrarUsuario(new Usuario("Benchmark", "benchmark@ejemplo.com", CONTRASENA, "manual"));
+
+        email = cuenta.equals("registrado") ? "benchmark@ejemplo.com" : "nadie@ejemplo.com";
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResultadoLogin login() {
+        return authService.autenticar(email, CONTRASENA);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(LoginBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}